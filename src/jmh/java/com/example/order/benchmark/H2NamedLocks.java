@@ -0,0 +1,31 @@
+package com.example.order.benchmark;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * H2 에는 mysql 의 get_lock / release_lock 이 없기 때문에 alias 로 등록해서 사용
+ * mysql 은 세션 단위 lock 이지만 벤치마크에서는 획득 / 해제가 같은 스레드에서 일어나므로 스레드 단위로 흉내낸다.
+ */
+public final class H2NamedLocks {
+
+    private static final ConcurrentHashMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private H2NamedLocks() {
+    }
+
+    public static int getLock(String key, int timeoutSeconds) throws InterruptedException {
+        ReentrantLock lock = LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+        return lock.tryLock(timeoutSeconds, TimeUnit.SECONDS) ? 1 : 0;
+    }
+
+    public static int releaseLock(String key) {
+        ReentrantLock lock = LOCKS.get(key);
+        if (lock == null || !lock.isHeldByCurrentThread()) {
+            return 0;
+        }
+        lock.unlock();
+        return 1;
+    }
+}
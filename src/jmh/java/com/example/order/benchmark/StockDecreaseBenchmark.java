@@ -0,0 +1,136 @@
+package com.example.order.benchmark;
+
+import com.example.order.OrderApplication;
+import com.example.order.domain.Stock;
+import com.example.order.global.facade.ConditionalUpdateStockFacade;
+import com.example.order.global.facade.LettuceLockStockFacade;
+import com.example.order.global.facade.NamedLockStockFacade;
+import com.example.order.global.facade.OptimisticLockStockFacade;
+import com.example.order.global.facade.RedissonLockStockFacade;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.PessimisticLockStockService;
+import com.example.order.service.StockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 재고 감소 방식별 처리량(ops) / 지연시간(p50, p99, p999) 비교
+ * - productCount = 1    : 하나의 인기 상품에 모든 요청이 몰리는 경우
+ * - productCount = 1000 : 요청이 여러 상품으로 흩어지는 경우
+ *
+ * 외부 mysql / redis 없이 embedded H2(mysql mode) / embedded redis 로 실행
+ * 스레드 수는 ./gradlew jmh -PjmhThreads=N 으로 변경
+ */
+@State(Scope.Benchmark)
+public class StockDecreaseBenchmark {
+
+    private static final long INITIAL_QUANTITY = Long.MAX_VALUE / 4;
+
+    @Param({"1", "1000"})
+    private int productCount;
+
+    private RedisServer redisServer;
+
+    private ConfigurableApplicationContext context;
+
+    private long[] stockIds;
+
+    private StockService stockService;
+    private PessimisticLockStockService pessimisticLockStockService;
+    private OptimisticLockStockFacade optimisticLockStockFacade;
+    private NamedLockStockFacade namedLockStockFacade;
+    private LettuceLockStockFacade lettuceLockStockFacade;
+    private RedissonLockStockFacade redissonLockStockFacade;
+    private ConditionalUpdateStockFacade conditionalUpdateStockFacade;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int redisPort = freePort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+
+        context = new SpringApplicationBuilder(OrderApplication.class)
+                .profiles("jmh")
+                .properties("spring.data.redis.host=localhost", "spring.data.redis.port=" + redisPort)
+                .run();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS GET_LOCK FOR 'com.example.order.benchmark.H2NamedLocks.getLock'");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS RELEASE_LOCK FOR 'com.example.order.benchmark.H2NamedLocks.releaseLock'");
+
+        StockRepository stockRepository = context.getBean(StockRepository.class);
+        List<Stock> stocks = new ArrayList<>(productCount);
+        for (long productId = 1; productId <= productCount; productId++) {
+            stocks.add(new Stock(productId, INITIAL_QUANTITY));
+        }
+        stockIds = stockRepository.saveAll(stocks).stream().mapToLong(Stock::getId).toArray();
+
+        stockService = context.getBean(StockService.class);
+        pessimisticLockStockService = context.getBean(PessimisticLockStockService.class);
+        optimisticLockStockFacade = context.getBean(OptimisticLockStockFacade.class);
+        namedLockStockFacade = context.getBean(NamedLockStockFacade.class);
+        lettuceLockStockFacade = context.getBean(LettuceLockStockFacade.class);
+        redissonLockStockFacade = context.getBean(RedissonLockStockFacade.class);
+        conditionalUpdateStockFacade = context.getBean(ConditionalUpdateStockFacade.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public void synchronizedV3() {
+        stockService.decreaseV3(nextId(), 1L);
+    }
+
+    @Benchmark
+    public void pessimistic() {
+        pessimisticLockStockService.decrease(nextId(), 1L);
+    }
+
+    @Benchmark
+    public void optimistic() throws InterruptedException {
+        optimisticLockStockFacade.decrease(nextId(), 1L);
+    }
+
+    @Benchmark
+    public void namedLock() {
+        namedLockStockFacade.decrease(nextId(), 1L);
+    }
+
+    @Benchmark
+    public void lettuce() throws InterruptedException {
+        lettuceLockStockFacade.decrease(nextId(), 1L);
+    }
+
+    @Benchmark
+    public void redisson() {
+        redissonLockStockFacade.decrease(nextId(), 1L);
+    }
+
+    @Benchmark
+    public void conditionalUpdate() {
+        conditionalUpdateStockFacade.decrease(nextId(), 1L);
+    }
+
+    private Long nextId() {
+        return stockIds[ThreadLocalRandom.current().nextInt(stockIds.length)];
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.order.benchmark;
+
+import com.example.order.OrderApplication;
+import com.example.order.domain.Stock;
+import com.example.order.global.executor.StockTaskExecutor;
+import com.example.order.global.facade.RedissonLockStockFacade;
+import com.example.order.repository.StockRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 락 대기 요청 waiters 개를 StockTaskExecutor 의 platform / virtual 모드로 실행하고 모두 끝날 때까지의 시간 비교
+ * 한 번의 benchmark 호출 = 같은 상품에 waiters 개 요청 (redisson lock 대기)
+ *
+ * virtual 모드는 Java 21 이상에서 실행해야 의미가 있다. (미지원 JVM 이면 platform 으로 동작)
+ * ./gradlew jmh -PjmhThreads=1 -PjmhIncludes='StockTaskExecutorBenchmark'
+ */
+@State(Scope.Benchmark)
+public class StockTaskExecutorBenchmark {
+
+    private static final long INITIAL_QUANTITY = Long.MAX_VALUE / 4;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"1000", "10000"})
+    private int waiters;
+
+    private RedisServer redisServer;
+
+    private ConfigurableApplicationContext context;
+
+    private Long stockId;
+
+    private RedissonLockStockFacade redissonLockStockFacade;
+
+    private StockTaskExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int redisPort = freePort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+
+        context = new SpringApplicationBuilder(OrderApplication.class)
+                .profiles("jmh")
+                .properties("spring.data.redis.host=localhost", "spring.data.redis.port=" + redisPort)
+                .run();
+
+        stockId = context.getBean(StockRepository.class).saveAndFlush(new Stock(1L, INITIAL_QUANTITY)).getId();
+        redissonLockStockFacade = context.getBean(RedissonLockStockFacade.class);
+        executor = new StockTaskExecutor(mode, 200, 30, 8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        context.close();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public void lockWaiters() {
+        CompletableFuture<?>[] futures = new CompletableFuture[waiters];
+        for (int i = 0; i < waiters; i++) {
+            futures[i] = executor.submit(stockId, () -> redissonLockStockFacade.decrease(stockId, 1L));
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.order.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 실행 중인 서버의 재고 감소 API 를 목표 RPS 로 호출하고 latency 백분위를 출력
+ *
+ * - open model : 요청은 정해진 시각 (시작 + i / rps) 에 보낸다. 응답이 늦어져도 다음 요청을 미루지 않는다.
+ * - latency 는 실제로 보낸 시각이 아니라 "보냈어야 하는 시각" 부터 잰다.
+ *   서버가 밀려서 요청을 늦게 보낸 시간도 포함되기 때문에 (coordinated omission) p99 가 실제보다 좋게 나오지 않는다.
+ * - 동시에 보낼 수 있는 요청 수 (max-in-flight) 를 넘으면 기다리며, 기다린 시간도 latency 에 포함된다.
+ * - warmup 구간의 요청은 집계하지 않는다.
+ *
+ * ./gradlew loadTest -PloadTestArgs='--rps=2000 --duration=30 --strategy=conditional --stock-id=1'
+ * 재고가 먼저 0 이 되면 이후 요청은 409 로 집계되므로 충분한 수량을 넣고 실행
+ */
+public final class StockLoadTest {
+
+    private static final int SUCCESS = 0;
+    private static final int CONFLICT = 1;
+    private static final int REJECTED = 2;
+    private static final int UNAVAILABLE = 3;
+    private static final int OTHER = 4;
+    private static final int IO_ERROR = 5;
+
+    // 409 는 재고 부족 또는 처리 중인 같은 idempotency key
+    private static final String[] OUTCOME_NAMES = {"2xx", "409", "429", "503", "other", "io-error"};
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Options options;
+
+    private final HttpClient httpClient;
+
+    // 요청 순번 -> latency(ns), 요청마다 자기 칸에만 쓰기 때문에 경합이 없다.
+    private final long[] latencies;
+
+    private final AtomicLongArray outcomes = new AtomicLongArray(OUTCOME_NAMES.length);
+
+    private final Semaphore inFlight;
+
+    private StockLoadTest(Options options, ExecutorService executor) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.latencies = new long[Math.toIntExact(options.rps() * options.durationSeconds())];
+        this.inFlight = new Semaphore(options.maxInFlight());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = Options.parse(args);
+        ExecutorService executor = Executors.newFixedThreadPool(options.clientThreads());
+        try {
+            StockLoadTest loadTest = new StockLoadTest(options, executor);
+            System.out.printf("warmup %ds ...%n", options.warmupSeconds());
+            loadTest.run(options.rps() * options.warmupSeconds(), false);
+            System.out.printf("%s : %d rps x %ds, strategy=%s, stockId=%d%n",
+                    options.url(), options.rps(), options.durationSeconds(), options.strategy(), options.stockId());
+            long elapsedNanos = loadTest.run(options.rps() * options.durationSeconds(), true);
+            loadTest.report(elapsedNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * count 개의 요청을 목표 간격으로 보내고, 모든 응답을 받을 때까지 기다린다.
+     * @return 첫 요청부터 마지막 응답까지 걸린 시간 (ns)
+     */
+    private long run(long count, boolean measure) throws InterruptedException {
+        // body / request 는 한 번만 만들어 재사용 (idempotency key 를 붙일 때만 요청마다 생성)
+        HttpRequest shared = request(null);
+        long intervalNanos = 1_000_000_000L / options.rps();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long intendedAt = startedAt + i * intervalNanos;
+            long wait;
+            while ((wait = intendedAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+            HttpRequest request = options.idempotencyKeys() ? request(UUID.randomUUID().toString()) : shared;
+            int slot = i;
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intendedAt;
+                        // 기록한 뒤 반납해야 마지막 acquire 이후 집계할 때 결과가 모두 보인다.
+                        try {
+                            if (measure) {
+                                latencies[slot] = latency;
+                                outcomes.incrementAndGet(classify(response, error));
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+        }
+        inFlight.acquire(options.maxInFlight());
+        inFlight.release(options.maxInFlight());
+        return System.nanoTime() - startedAt;
+    }
+
+    private HttpRequest request(String idempotencyKey) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(options.url() + "/stocks/" + options.stockId() + "/decrease?strategy=" + options.strategy()))
+                .timeout(Duration.ofSeconds(options.timeoutSeconds()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"quantity\":" + options.quantity() + "}"));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    private static int classify(HttpResponse<Void> response, Throwable error) {
+        if (error != null) {
+            return IO_ERROR;
+        }
+        int status = response.statusCode();
+        if (status / 100 == 2) {
+            return SUCCESS;
+        }
+        if (status == 409) {
+            return CONFLICT;
+        }
+        if (status == 429) {
+            return REJECTED;
+        }
+        if (status == 503) {
+            return UNAVAILABLE;
+        }
+        return OTHER;
+    }
+
+    private void report(long elapsedNanos) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("requests : %d (achieved %.1f rps)%n",
+                sorted.length, sorted.length / (elapsedNanos / 1_000_000_000.0));
+        for (int i = 0; i < OUTCOME_NAMES.length; i++) {
+            if (outcomes.get(i) > 0) {
+                System.out.printf("  %-14s %d%n", OUTCOME_NAMES[i], outcomes.get(i));
+            }
+        }
+        System.out.println("latency (ms, 보냈어야 하는 시각 기준)");
+        for (double percentile : PERCENTILES) {
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+            String label = percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+            System.out.printf("  p%-6s %10.3f%n", label, sorted[Math.max(0, index)] / 1_000_000.0);
+        }
+        System.out.printf("  max     %10.3f%n", sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    //==--key=value 형식의 실행 인자==//
+    private record Options(String url, long stockId, long quantity, String strategy,
+                           int rps, int durationSeconds, int warmupSeconds,
+                           int maxInFlight, int clientThreads, int timeoutSeconds, boolean idempotencyKeys) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("--key=value 형식이어야 합니다. arg=" + arg);
+                }
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+            return new Options(
+                    values.getOrDefault("url", "http://localhost:8080"),
+                    Long.parseLong(values.getOrDefault("stock-id", "1")),
+                    Long.parseLong(values.getOrDefault("quantity", "1")),
+                    values.getOrDefault("strategy", "router"),
+                    Integer.parseInt(values.getOrDefault("rps", "1000")),
+                    Integer.parseInt(values.getOrDefault("duration", "30")),
+                    Integer.parseInt(values.getOrDefault("warmup", "5")),
+                    Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                    Integer.parseInt(values.getOrDefault("client-threads", "8")),
+                    Integer.parseInt(values.getOrDefault("timeout", "10")),
+                    Boolean.parseBoolean(values.getOrDefault("idempotency-keys", "false")));
+        }
+    }
+}
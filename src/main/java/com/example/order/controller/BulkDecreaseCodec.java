@@ -0,0 +1,151 @@
+package com.example.order.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+@Component
+class BulkDecreaseCodec {
+
+    /**
+     * bulk 감소 요청 / 결과 ndjson 을 streaming parser / generator 로 직접 읽고 쓴다.
+     * 요청 : {"id":1,"quantity":2,"key":"order-1"} (key 는 선택, idempotency key)
+     * 결과 : {"line":1,"id":1,"status":"OK"}
+     *
+     * - 줄마다 객체 mapping (reflection) 을 하지 않고, 읽은 값은 하나의 Line 에 덮어쓴다.
+     * - 필드 이름 / status 는 미리 직렬화한 값을 쓴다.
+     * - parser / generator 의 내부 buffer 는 JsonFactory 가 재사용한다.
+     */
+
+    private static final SerializedString LINE = new SerializedString("line");
+
+    private static final SerializedString ID = new SerializedString("id");
+
+    private static final SerializedString STATUS = new SerializedString("status");
+
+    private final JsonFactory jsonFactory;
+
+    BulkDecreaseCodec(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    Reader reader(InputStream in) throws IOException {
+        return new Reader(jsonFactory.createParser(in));
+    }
+
+    Writer writer(OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        // 줄바꿈은 직접 쓴다. (기본 구분자는 공백)
+        generator.setRootValueSeparator(null);
+        return new Writer(generator);
+    }
+
+    /**
+     * 요청 한 줄 (다음 줄을 읽으면 값이 바뀐다)
+     */
+    static final class Line {
+
+        long number;
+
+        Long id;
+
+        Long quantity;
+
+        String key;
+
+        boolean isValid() {
+            return id != null && quantity != null && quantity > 0;
+        }
+    }
+
+    static final class Reader implements Closeable {
+
+        private final JsonParser parser;
+
+        private final Line line = new Line();
+
+        private Reader(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        /**
+         * 다음 줄, 더 이상 없으면 null
+         * 형식이 잘못된 줄은 이어서 읽을 수 없기 때문에 JsonProcessingException 이 발생한다.
+         */
+        Line next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            line.number++;
+            line.id = null;
+            line.quantity = null;
+            line.key = null;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return line;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> line.id = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    case "quantity" -> line.quantity = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    case "key" -> line.key = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    default -> parser.skipChildren();
+                }
+            }
+            return line;
+        }
+
+        long lineNumber() {
+            return line.number;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    static final class Writer implements Closeable {
+
+        private final JsonGenerator generator;
+
+        private Writer(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        void write(long lineNumber, Long id, BulkDecreaseOutcome outcome) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(LINE);
+            generator.writeNumber(lineNumber);
+            if (id != null) {
+                generator.writeFieldName(ID);
+                generator.writeNumber(id);
+            }
+            generator.writeFieldName(STATUS);
+            generator.writeString(outcome.serialized);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.order.controller;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * bulk 감소 결과 한 줄의 status
+ * 줄마다 문자열을 다시 encoding 하지 않도록 미리 직렬화해 둔다.
+ */
+enum BulkDecreaseOutcome {
+
+    OK,
+    SOLD_OUT,
+    DUPLICATE,
+    LOCK_TIMEOUT,
+    REJECTED,
+    NOT_FOUND,
+    INVALID,
+    ERROR;
+
+    final SerializedString serialized = new SerializedString(name());
+}
@@ -0,0 +1,210 @@
+package com.example.order.controller;
+
+import com.example.order.global.cache.StockAvailability;
+import com.example.order.global.cache.StockAvailabilityCache;
+import com.example.order.global.dispatch.StockDecreaseDispatcher;
+import com.example.order.global.event.StockOperationContext;
+import com.example.order.global.exception.AdmissionRejectedException;
+import com.example.order.global.exception.DuplicateRequestException;
+import com.example.order.global.exception.LockAcquisitionException;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.exception.UnsupportedStrategyException;
+import com.example.order.global.executor.StockTaskExecutor;
+import com.example.order.global.product.ProductStockIndex;
+import com.example.order.service.dto.DecreaseRequest;
+import com.example.order.service.dto.MultiDecreaseRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@RestController
+@RequestMapping("/stocks")
+public class StockController {
+
+    /**
+     * 재고 감소 / 가용 재고 조회
+     *
+     * - strategy 파라미터로 감소 방식을 고른다. (기본 router, StockDecreaseDispatcher)
+     * - Idempotency-Key header 가 있으면 같은 key 의 요청은 한 번만 감소한다. (IdempotencyAspect)
+     * - 재고 부족 409 / 처리 중인 같은 key 409 / lock 대기 시간 초과 503 / 잘못된 strategy 400
+     * - /stocks/products/** 는 stockId 대신 productId 로 요청 (ProductStockIndex)
+     * - 감소는 StockTaskExecutor (stock.execution.mode) 에서 실행하고 비동기로 응답한다. (Tomcat worker 가 lock 을 기다리지 않음)
+     */
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    // bulk 결과는 이 줄 수마다 내려보낸다.
+    private static final int BULK_FLUSH_LINES = 64;
+
+    private final StockDecreaseDispatcher stockDecreaseDispatcher;
+
+    private final StockAvailabilityCache stockAvailabilityCache;
+
+    private final BulkDecreaseCodec bulkDecreaseCodec;
+
+    private final ProductStockIndex productStockIndex;
+
+    private final StockTaskExecutor stockTaskExecutor;
+
+    public StockController(StockDecreaseDispatcher stockDecreaseDispatcher,
+                           StockAvailabilityCache stockAvailabilityCache,
+                           BulkDecreaseCodec bulkDecreaseCodec,
+                           ProductStockIndex productStockIndex,
+                           StockTaskExecutor stockTaskExecutor) {
+        this.stockDecreaseDispatcher = stockDecreaseDispatcher;
+        this.stockAvailabilityCache = stockAvailabilityCache;
+        this.bulkDecreaseCodec = bulkDecreaseCodec;
+        this.productStockIndex = productStockIndex;
+        this.stockTaskExecutor = stockTaskExecutor;
+    }
+
+    @PostMapping("/{stockId}/decrease")
+    public CompletableFuture<ResponseEntity<Void>> decrease(@PathVariable Long stockId,
+                                                            @RequestBody @Valid DecreaseRequest request,
+                                                            @RequestParam(defaultValue = StockDecreaseDispatcher.DEFAULT_STRATEGY) String strategy,
+                                                            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return submit(strategy, stockId, idempotencyKey,
+                () -> stockDecreaseDispatcher.decrease(strategy, stockId, request.quantity()));
+    }
+
+    @PostMapping("/decrease")
+    public CompletableFuture<ResponseEntity<Void>> decreaseAll(@RequestBody @Valid MultiDecreaseRequest request,
+                                                               @RequestParam(defaultValue = StockDecreaseDispatcher.DEFAULT_STRATEGY) String strategy,
+                                                               @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return submit(strategy, null, idempotencyKey,
+                () -> stockDecreaseDispatcher.decreaseAll(strategy, request.items()));
+    }
+
+    @PostMapping("/products/{productId}/decrease")
+    public CompletableFuture<ResponseEntity<Void>> decreaseByProduct(@PathVariable Long productId,
+                                                                     @RequestBody @Valid DecreaseRequest request,
+                                                                     @RequestParam(defaultValue = StockDecreaseDispatcher.DEFAULT_STRATEGY) String strategy,
+                                                                     @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        // 상품별 대기열은 stockId 기준으로 나눈다.
+        Long stockId = productStockIndex.stockId(productId);
+        return submit(strategy, stockId, idempotencyKey,
+                () -> stockDecreaseDispatcher.decreaseByProduct(strategy, productId, request.quantity()));
+    }
+
+    //==items 의 id 는 productId==//
+    @PostMapping("/products/decrease")
+    public CompletableFuture<ResponseEntity<Void>> decreaseAllByProduct(@RequestBody @Valid MultiDecreaseRequest request,
+                                                                        @RequestParam(defaultValue = StockDecreaseDispatcher.DEFAULT_STRATEGY) String strategy,
+                                                                        @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return submit(strategy, null, idempotencyKey,
+                () -> stockDecreaseDispatcher.decreaseAllByProduct(strategy, request.items()));
+    }
+
+    /**
+     * 여러 건의 재고 감소를 ndjson 으로 받아 한 줄씩 처리하고, 결과도 한 줄씩 ndjson 으로 내려준다.
+     * 줄마다 독립적으로 처리되며 (한 줄이 실패해도 다음 줄은 계속) 응답 status 는 항상 200
+     * 형식이 잘못된 줄을 만나면 INVALID 한 줄을 쓰고 멈춘다.
+     */
+    @PostMapping(value = "/decrease/bulk", consumes = NDJSON)
+    public void decreaseBulk(@RequestParam(defaultValue = StockDecreaseDispatcher.DEFAULT_STRATEGY) String strategy,
+                             InputStream body,
+                             HttpServletResponse response) throws IOException, InterruptedException {
+        if (!stockDecreaseDispatcher.supports(strategy)) {
+            throw new UnsupportedStrategyException(strategy, stockDecreaseDispatcher.strategies());
+        }
+        response.setContentType(NDJSON);
+        try (BulkDecreaseCodec.Reader reader = bulkDecreaseCodec.reader(body);
+             BulkDecreaseCodec.Writer writer = bulkDecreaseCodec.writer(response.getOutputStream())) {
+            BulkDecreaseCodec.Line line;
+            while (true) {
+                try {
+                    line = reader.next();
+                } catch (IOException e) {
+                    writer.write(reader.lineNumber() + 1, null, BulkDecreaseOutcome.INVALID);
+                    break;
+                }
+                if (line == null) {
+                    break;
+                }
+                writer.write(line.number, line.id, decrease(strategy, line));
+                if (line.number % BULK_FLUSH_LINES == 0) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    @GetMapping("/{stockId}/availability")
+    public StockAvailability availability(@PathVariable Long stockId) {
+        return stockAvailabilityCache.get(stockId);
+    }
+
+    @GetMapping("/products/{productId}/availability")
+    public StockAvailability availabilityByProduct(@PathVariable Long productId) {
+        return stockAvailabilityCache.get(productStockIndex.stockId(productId));
+    }
+
+    @GetMapping("/availability")
+    public List<StockAvailability> availabilities(@RequestParam List<Long> ids) {
+        return ids.stream().map(stockAvailabilityCache::get).toList();
+    }
+
+    /**
+     * 감소를 StockTaskExecutor 에서 실행 (stockId 가 있으면 상품별 대기열, 여러 상품이면 전체 동시 실행 수만 제한)
+     * 잘못된 strategy 는 실행기로 넘기기 전에 400
+     */
+    private CompletableFuture<ResponseEntity<Void>> submit(String strategy, Long stockId, String idempotencyKey,
+                                                           StockTaskExecutor.StockTask decrease) {
+        if (!stockDecreaseDispatcher.supports(strategy)) {
+            throw new UnsupportedStrategyException(strategy, stockDecreaseDispatcher.strategies());
+        }
+        StockTaskExecutor.StockTask task = () -> StockOperationContext.withRequestId(idempotencyKey, () -> {
+            decrease.run();
+            return null;
+        });
+        CompletableFuture<Void> future = stockId == null
+                ? stockTaskExecutor.submit(task)
+                : stockTaskExecutor.submit(stockId, task);
+        return future.thenApply(done -> ResponseEntity.noContent().<Void>build());
+    }
+
+    //==bulk 한 줄 처리 : 예외를 결과 status 로 바꾼다==//
+    private BulkDecreaseOutcome decrease(String strategy, BulkDecreaseCodec.Line line) throws InterruptedException {
+        if (!line.isValid()) {
+            return BulkDecreaseOutcome.INVALID;
+        }
+        try {
+            StockOperationContext.withRequestId(line.key, () -> {
+                stockDecreaseDispatcher.decrease(strategy, line.id, line.quantity);
+                return null;
+            });
+            return BulkDecreaseOutcome.OK;
+        } catch (SoldOutException e) {
+            return BulkDecreaseOutcome.SOLD_OUT;
+        } catch (DuplicateRequestException e) {
+            return BulkDecreaseOutcome.DUPLICATE;
+        } catch (LockAcquisitionException e) {
+            return BulkDecreaseOutcome.LOCK_TIMEOUT;
+        } catch (AdmissionRejectedException e) {
+            return BulkDecreaseOutcome.REJECTED;
+        } catch (NoSuchElementException e) {
+            return BulkDecreaseOutcome.NOT_FOUND;
+        } catch (RuntimeException e) {
+            log.warn("bulk 재고 감소 실패 line={}, id={}", line.number, line.id, e);
+            return BulkDecreaseOutcome.ERROR;
+        }
+    }
+}
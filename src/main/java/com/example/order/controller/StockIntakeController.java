@@ -0,0 +1,40 @@
+package com.example.order.controller;
+
+import com.example.order.global.intake.IntakeResult;
+import com.example.order.global.intake.StockIntake;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/stocks")
+public class StockIntakeController {
+
+    /**
+     * 재고 감소 요청을 접수만 하고 바로 응답 (202)
+     * 처리 결과는 ticketId 로 조회
+     * queue 가 가득 차면 429 (IntakeRejectedException)
+     */
+
+    private final StockIntake stockIntake;
+
+    public StockIntakeController(StockIntake stockIntake) {
+        this.stockIntake = stockIntake;
+    }
+
+    @PostMapping("/{stockId}/intake")
+    public ResponseEntity<IntakeResult> submit(@PathVariable Long stockId, @RequestParam Long quantity) {
+        return ResponseEntity.accepted().body(stockIntake.submit(stockId, quantity));
+    }
+
+    @GetMapping("/intake/{ticketId}")
+    public ResponseEntity<IntakeResult> status(@PathVariable String ticketId) {
+        return stockIntake.status(ticketId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
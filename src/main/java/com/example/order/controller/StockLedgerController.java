@@ -0,0 +1,36 @@
+package com.example.order.controller;
+
+import com.example.order.service.StockLedgerService;
+import com.example.order.service.dto.LedgerPage;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/stocks/ledger")
+public class StockLedgerController {
+
+    /**
+     * 재고 이동 이력 조회
+     * 응답의 next 를 cursor 로 넘기면 다음 page (next 가 null 이면 끝)
+     */
+
+    private final StockLedgerService stockLedgerService;
+
+    public StockLedgerController(StockLedgerService stockLedgerService) {
+        this.stockLedgerService = stockLedgerService;
+    }
+
+    @GetMapping
+    public LedgerPage page(@RequestParam Long productId,
+                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                           @RequestParam(required = false) String cursor,
+                           @RequestParam(defaultValue = "100") int size) {
+        return stockLedgerService.page(productId, from, to, cursor, size);
+    }
+}
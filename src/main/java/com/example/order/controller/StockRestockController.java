@@ -0,0 +1,53 @@
+package com.example.order.controller;
+
+import com.example.order.global.restock.StockImportFormat;
+import com.example.order.global.restock.StockImportPipeline;
+import com.example.order.global.restock.StockImportReport;
+import com.example.order.service.StockRestockService;
+import com.example.order.service.dto.IncreaseRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/stocks")
+public class StockRestockController {
+
+    /**
+     * 입고
+     * - 상품 하나 : POST /stocks/{stockId}/increase
+     * - 파일 : POST /stocks/import (body 를 csv / ndjson 으로 streaming, 응답은 처리 결과와 rows/s)
+     */
+
+    private final StockRestockService stockRestockService;
+
+    private final StockImportPipeline stockImportPipeline;
+
+    public StockRestockController(StockRestockService stockRestockService, StockImportPipeline stockImportPipeline) {
+        this.stockRestockService = stockRestockService;
+        this.stockImportPipeline = stockImportPipeline;
+    }
+
+    @PostMapping("/{stockId}/increase")
+    public ResponseEntity<Void> increase(@PathVariable Long stockId, @RequestBody @Valid IncreaseRequest request) {
+        stockRestockService.increase(stockId, request.quantity());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public StockImportReport importCsv(InputStream body) throws IOException, InterruptedException {
+        return stockImportPipeline.run(body, StockImportFormat.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = StockController.NDJSON)
+    public StockImportReport importNdjson(InputStream body) throws IOException, InterruptedException {
+        return stockImportPipeline.run(body, StockImportFormat.NDJSON);
+    }
+}
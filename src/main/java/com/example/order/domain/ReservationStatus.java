@@ -0,0 +1,8 @@
+package com.example.order.domain;
+
+public enum ReservationStatus {
+    HELD,       // 결제 대기
+    CONFIRMED,  // 결제 완료 -> 재고 차감
+    CANCELLED,  // 사용자 취소 -> 재고 반환
+    EXPIRED     // 결제 시간 초과 -> 재고 반환
+}
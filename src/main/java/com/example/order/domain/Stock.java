@@ -1,5 +1,7 @@
 package com.example.order.domain;
 
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.product.ProductStockIndexListener;
 import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -7,7 +9,8 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Getter
-@Table(name = "stock")
+@EntityListeners(ProductStockIndexListener.class)
+@Table(name = "stock", uniqueConstraints = @UniqueConstraint(name = "uk_stock_product_id", columnNames = "product_id"))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Stock {
 
@@ -40,6 +43,10 @@ public class Stock {
 
     private Long quantity;
 
+    // 결제 대기 중인 예약 수량 (quantity 에 포함되어 있지만 판매할 수 없는 수량)
+    @Column(nullable = false)
+    private Long reserved = 0L;
+
     public Stock(Long productId, Long quantity) {
         this.productId = productId;
         this.quantity = quantity;
@@ -50,9 +57,17 @@ public class Stock {
     private Long version;
 
     //==비즈니스 메서드==//
+    public Long getAvailableQuantity() {
+        return this.quantity - this.reserved;
+    }
+
+    public boolean canDecrease(Long quantity) {
+        return getAvailableQuantity() - quantity >= 0;
+    }
+
     public void decrease(Long quantity) {
-        if(this.quantity - quantity < 0) {
-            throw  new RuntimeException("재고는 0개 미만이 될 수 없습니다.");
+        if(!canDecrease(quantity)) {
+            throw new SoldOutException(this.id, getAvailableQuantity());
         }
         this.quantity -= quantity;
     }
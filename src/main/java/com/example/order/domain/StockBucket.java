@@ -0,0 +1,39 @@
+package com.example.order.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Getter
+@Table(name = "stock_bucket",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_bucket_product_bucket", columnNames = {"productId", "bucketNo"}))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockBucket {
+
+    /**
+     * 한 상품의 재고를 K 개의 row 로 나눠서 저장
+     * 모든 요청이 하나의 row 를 두고 경쟁하지 않도록 row lock 을 분산시킨다.
+     * 상품의 전체 재고는 bucket 수량의 합
+     */
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long productId;
+
+    private Integer bucketNo;
+
+    private Long quantity;
+
+    @Version
+    private Long version;
+
+    public StockBucket(Long productId, Integer bucketNo, Long quantity) {
+        this.productId = productId;
+        this.bucketNo = bucketNo;
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.order.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Table(name = "stock_intake_ticket",
+        indexes = @Index(name = "idx_stock_intake_ticket_created_at", columnList = "createdAt"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockIntakeTicket {
+
+    /**
+     * intake 로 반영한 요청 (ticketId) 과 그 결과
+     * 재고 감소와 같은 트랜잭션에서 insert 해서, ack 전에 소유권이 넘어가 같은 요청이 다시 처리되어도
+     * 한 번만 감소하고 처음 결과를 그대로 돌려준다. (StockIntakeTicketJdbcRepository)
+     *
+     * 다시 처리될 수 있는 기간만 지나면 필요 없으므로 retention 이후 삭제한다.
+     */
+
+    @Id
+    @Column(length = 36)
+    private String ticketId;
+
+    private Long stockId;
+
+    // 재고 부족이면 false
+    private boolean decreased;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,46 @@
+package com.example.order.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Table(name = "stock_ledger",
+        indexes = @Index(name = "idx_stock_ledger_product_created_at", columnList = "productId, createdAt, id"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockLedger {
+
+    /**
+     * 재고 이동 이력 (append-only)
+     * 재고가 바뀔 때마다 한 줄씩 쌓이고 수정 / 삭제하지 않는다.
+     * 쓰기는 StockLedgerWriter 가 jdbc batch insert 로 모아서 진행한다.
+     *
+     * (productId, createdAt, id) index 로 상품 + 기간 조회를 keyset pagination 으로 처리
+     */
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long stockId;
+
+    private Long productId;
+
+    // 감소는 음수
+    private Long delta;
+
+    @Column(length = 64)
+    private String strategy;
+
+    @Column(length = 64)
+    private String requestId;
+
+    // 변경 후 version (조건부 update 처럼 알 수 없으면 null)
+    private Long version;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,44 @@
+package com.example.order.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Table(name = "stock_reservation",
+        indexes = @Index(name = "idx_stock_reservation_status_expires_at", columnList = "status, expiresAt"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockReservation {
+
+    /**
+     * 결제 시작 시점에 재고를 잡아두고 (HELD)
+     * 결제 완료 시 확정 (CONFIRMED), 취소 / 시간 초과 시 반환 (CANCELLED / EXPIRED)
+     *
+     * 상태 변경은 where status = 'HELD' 조건부 update 로만 진행해서 확정 / 만료가 동시에 일어나도 한쪽만 반영된다.
+     */
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long stockId;
+
+    private Long quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReservationStatus status;
+
+    private LocalDateTime expiresAt;
+
+    public StockReservation(Long stockId, Long quantity, LocalDateTime expiresAt) {
+        this.stockId = stockId;
+        this.quantity = quantity;
+        this.status = ReservationStatus.HELD;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.order.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Table(name = "stock_write_behind_batch",
+        indexes = @Index(name = "idx_stock_write_behind_batch_created_at", columnList = "createdAt"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockWriteBehindBatch {
+
+    /**
+     * DB 에 반영한 write-behind batch (redis 에서 꺼낸 감소분 묶음)
+     * 감소분 update 와 같은 트랜잭션에서 insert 해서, 반영 후 redis 의 in-flight 를 지우기 전에 멈춘 batch 를
+     * 다시 반영하려 하면 primary key 충돌로 rollback 된다. (한 번만 반영)
+     */
+
+    @Id
+    @Column(length = 36)
+    private String batchId;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,317 @@
+package com.example.order.global.admission;
+
+import com.example.order.global.cache.StockAvailabilityCache;
+import com.example.order.global.event.StockChangedBatchEvent;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.service.dto.DecreaseItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class StockAdmission {
+
+    /**
+     * 상품별로 (남은 재고 + slack) 만큼의 수량만 감소 경로에 들여보내는 token bucket
+     * 한정 수량에 요청이 몰려도 lock 대기열 / 낙관적 재시도가 남은 재고 수준 이상으로 길어지지 않는다.
+     *
+     * - 전체 token 은 redis hash (stock:admission:{id}, epoch / tokens) 에 두고, 서버는 chunk 단위로 가져와 로컬에서 나눠준다.
+     *   대부분의 요청은 redis 를 거치지 않는다.
+     * - 요청 수량만큼 token 을 쓰고 (Permit), 감소에 성공하면 그대로 소비 / 실패하면 가져온 bucket 에 돌려놓는다.
+     * - redis counter 는 처음 사용할 때 가용 재고 + slack 으로 만들고 refresh-interval 뒤 만료되어 다시 계산된다.
+     *   (DB 를 직접 바꾼 경우 등 어긋난 값이 유지되는 최대 시간)
+     * - 다시 계산할 때마다 새 epoch 가 붙는다. 새 값에는 처리 중인 요청이 이미 빠져 있기 때문에
+     *   이전 epoch 에서 가져온 token (로컬 bucket 의 남은 token / 처리 중 요청이 돌려놓는 token) 은 버린다.
+     * - 입고는 commit 이후 redis counter 에 더한다.
+     * - idle-timeout 동안 쓰지 않은 로컬 bucket 은 닫고 남은 token 을 redis 로 돌려준다.
+     *   닫힌 뒤에 돌려놓는 token 도 bucket 이 아니라 redis 로 보낸다.
+     *
+     * 서버마다 chunk 만큼 미리 가져가기 때문에 slack 은 (서버 수 x chunk) 이상으로 둔다.
+     */
+
+    private static final long NOT_LOADED = -2L;
+
+    private static final long NO_EPOCH = -1L;
+
+    // 닫힌 bucket (만료 / 다른 epoch 로 교체) 의 token 수
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    // KEYS[1] = counter / ARGV[1] = 가져갈 token 수, 남은 만큼만 가져간다. {epoch, 가져간 token 수}
+    private static final RedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>(
+            "local state = redis.call('HMGET', KEYS[1], 'epoch', 'tokens') " +
+            "if not state[1] then return {-2, 0} end " +
+            "local taken = math.min(tonumber(state[2]), tonumber(ARGV[1])) " +
+            "if taken <= 0 then return {tonumber(state[1]), 0} end " +
+            "redis.call('HINCRBY', KEYS[1], 'tokens', -taken) " +
+            "return {tonumber(state[1]), taken}",
+            List.class);
+
+    // KEYS[1] = counter / ARGV[1] = token 수, ARGV[2] = ttl(ms) / 없을 때만 redis 시각(us)을 epoch 로 만든다.
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "local now = redis.call('TIME') " +
+            "redis.call('HSET', KEYS[1], 'epoch', now[1] .. string.format('%06d', tonumber(now[2])), 'tokens', ARGV[1]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    // KEYS[1] = counter / ARGV[1] = epoch, ARGV[2] = 돌려줄 token 수 (만료 / 다른 epoch 면 버린다)
+    private static final RedisScript<Long> GIVE_BACK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'epoch') ~= ARGV[1] then return -2 end " +
+            "return redis.call('HINCRBY', KEYS[1], 'tokens', ARGV[2])",
+            Long.class);
+
+    // KEYS[1..n] = counter / ARGV[1..n] = 입고 수량 (만료된 counter 는 다음 사용 때 다시 계산되므로 건너뛴다)
+    private static final RedisScript<Long> INCREASE_ALL_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do " +
+            "  if redis.call('EXISTS', KEYS[i]) == 1 then redis.call('HINCRBY', KEYS[i], 'tokens', ARGV[i]) end " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final StockAvailabilityCache stockAvailabilityCache;
+
+    private final long slack;
+
+    private final long chunk;
+
+    private final Duration refreshInterval;
+
+    private final Cache<Long, Bucket> buckets;
+
+    public StockAdmission(RedisTemplate<String, String> redisTemplate,
+                          StockAvailabilityCache stockAvailabilityCache,
+                          @Value("${stock.admission.slack:32}") long slack,
+                          @Value("${stock.admission.chunk:8}") long chunk,
+                          @Value("${stock.admission.refresh-interval:10s}") Duration refreshInterval,
+                          @Value("${stock.admission.idle-timeout:5s}") Duration idleTimeout) {
+        this.redisTemplate = redisTemplate;
+        this.stockAvailabilityCache = stockAvailabilityCache;
+        this.slack = slack;
+        this.chunk = chunk;
+        this.refreshInterval = refreshInterval;
+        // 만료와 같은 시점에 닫아야 그 뒤에 돌려놓는 token 이 bucket 에 남지 않는다. (eviction listener 는 동기로 실행)
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .<Long, Bucket>evictionListener((id, bucket, cause) -> {
+                    if (id != null && bucket != null) {
+                        close(id, bucket);
+                    }
+                })
+                .build();
+    }
+
+    public Permit tryAcquire(Long id, long quantity) {
+        while (true) {
+            Bucket bucket = buckets.get(id, key -> new Bucket(NO_EPOCH, 0));
+            if (bucket.take(quantity)) {
+                return Permit.admitted(List.of(new Held(id, quantity, bucket)));
+            }
+            // 한 스레드만 redis 에서 채워 온다.
+            synchronized (bucket) {
+                long local = bucket.tokens.get();
+                if (local == CLOSED || local >= quantity) {
+                    continue;
+                }
+                long[] granted = takeGlobal(id, Math.max(chunk, quantity - local));
+                if (granted[0] == bucket.epoch) {
+                    bucket.giveBack(id, granted[1]);
+                } else if (granted[0] != NO_EPOCH && buckets.asMap().replace(id, bucket, new Bucket(granted[0], granted[1]))) {
+                    // 새 epoch : 이전 epoch 의 로컬 token 은 새 counter 에 이미 반영되어 있으므로 버린다.
+                    bucket.close();
+                } else {
+                    giveBack(id, granted[0], granted[1]);
+                }
+                if (granted[1] <= 0) {
+                    return Permit.rejected(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * 여러 상품 : 하나라도 부족하면 이미 가져간 token 을 돌려놓고 실패
+     */
+    public Permit tryAcquireAll(List<DecreaseItem> items) {
+        List<Held> held = new ArrayList<>(items.size());
+        for (DecreaseItem item : DecreaseItem.canonicalize(items)) {
+            Permit permit = tryAcquire(item.id(), item.quantity());
+            if (!permit.isAdmitted()) {
+                release(Permit.admitted(held));
+                return permit;
+            }
+            held.addAll(permit.held);
+        }
+        return Permit.admitted(held);
+    }
+
+    //==감소하지 못한 요청의 token 반환 (가져온 bucket 이 닫혔으면 같은 epoch 의 redis counter 로)==//
+    public void release(Permit permit) {
+        for (Held held : permit.held) {
+            held.bucket.giveBack(held.id, held.quantity);
+        }
+    }
+
+    //==로컬 bucket 과 redis counter 를 모두 비운다. (다음 사용 때 가용 재고로 다시 계산)==//
+    public void remove(Long id) {
+        Bucket bucket = buckets.asMap().remove(id);
+        if (bucket != null) {
+            // 남은 token 을 redis 로 돌려주지 않고 버린다.
+            bucket.close();
+        }
+        redisTemplate.delete(generateKey(id));
+    }
+
+    // 만료된 bucket 정리 (테스트에서 만료 시점을 맞추기 위해 사용)
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+
+    //==입고 commit 이후 전체 token 증가 (트랜잭션이 없는 경로도 처리)==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.delta() > 0) {
+            redisTemplate.execute(INCREASE_ALL_SCRIPT, List.of(generateKey(event.stockId())), String.valueOf(event.delta()));
+        }
+    }
+
+    //==입고 import 한 묶음 : script 한 번으로 늘린다==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChangedBatch(StockChangedBatchEvent event) {
+        List<String> keys = new ArrayList<>(event.changes().size());
+        List<String> tokens = new ArrayList<>(event.changes().size());
+        for (StockChangedEvent change : event.changes()) {
+            if (change.delta() > 0) {
+                keys.add(generateKey(change.stockId()));
+                tokens.add(String.valueOf(change.delta()));
+            }
+        }
+        if (!keys.isEmpty()) {
+            redisTemplate.execute(INCREASE_ALL_SCRIPT, keys, tokens.toArray());
+        }
+    }
+
+    //==만료 / 교체된 bucket 을 닫고 남은 token 은 같은 epoch 의 redis counter 로==//
+    private void close(Long id, Bucket bucket) {
+        long unused = bucket.close();
+        if (unused > 0) {
+            giveBack(id, bucket.epoch, unused);
+        }
+    }
+
+    // {epoch, 가져간 token 수}
+    private long[] takeGlobal(Long id, long want) {
+        String key = generateKey(id);
+        List<?> taken = redisTemplate.execute(TAKE_SCRIPT, List.of(key), String.valueOf(want));
+        if (((Number) taken.get(0)).longValue() == NOT_LOADED) {
+            // 다른 서버가 먼저 만들었으면 그 값을 사용
+            long available = stockAvailabilityCache.get(id).available();
+            redisTemplate.execute(SEED_SCRIPT, List.of(key),
+                    String.valueOf(Math.max(0, available) + slack), String.valueOf(refreshInterval.toMillis()));
+            taken = redisTemplate.execute(TAKE_SCRIPT, List.of(key), String.valueOf(want));
+        }
+        long epoch = ((Number) taken.get(0)).longValue();
+        if (epoch == NOT_LOADED) {
+            // 만들자마자 지워진 경우 (remove)
+            return new long[]{NO_EPOCH, 0};
+        }
+        return new long[]{epoch, ((Number) taken.get(1)).longValue()};
+    }
+
+    private void giveBack(Long id, long epoch, long tokens) {
+        if (epoch != NO_EPOCH && tokens > 0) {
+            redisTemplate.execute(GIVE_BACK_SCRIPT, List.of(generateKey(id)), String.valueOf(epoch), String.valueOf(tokens));
+        }
+    }
+
+    private String generateKey(Long id) {
+        return "stock:admission:{" + id + "}";
+    }
+
+    //==redis counter 의 한 epoch 에서 가져온 로컬 token==//
+    private final class Bucket {
+
+        private final long epoch;
+
+        private final AtomicLong tokens;
+
+        private Bucket(long epoch, long tokens) {
+            this.epoch = epoch;
+            this.tokens = new AtomicLong(tokens);
+        }
+
+        private boolean take(long quantity) {
+            long current;
+            do {
+                current = tokens.get();
+                // 닫힌 bucket (CLOSED) 도 여기서 걸러진다.
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        private void giveBack(Long id, long quantity) {
+            long current;
+            do {
+                current = tokens.get();
+                if (current == CLOSED) {
+                    StockAdmission.this.giveBack(id, epoch, quantity);
+                    return;
+                }
+            } while (!tokens.compareAndSet(current, current + quantity));
+        }
+
+        // 남은 token 수 (이미 닫혔으면 0)
+        private long close() {
+            long unused = tokens.getAndSet(CLOSED);
+            return unused == CLOSED ? 0 : unused;
+        }
+    }
+
+    private record Held(Long id, long quantity, Bucket bucket) {
+    }
+
+    //==들여보낸 요청이 가진 token (감소하지 못하면 release 로 돌려놓는다)==//
+    public static final class Permit {
+
+        private final List<Held> held;
+
+        private final Long rejectedId;
+
+        private Permit(List<Held> held, Long rejectedId) {
+            this.held = held;
+            this.rejectedId = rejectedId;
+        }
+
+        private static Permit admitted(List<Held> held) {
+            return new Permit(held, null);
+        }
+
+        private static Permit rejected(Long id) {
+            return new Permit(List.of(), id);
+        }
+
+        public boolean isAdmitted() {
+            return rejectedId == null;
+        }
+
+        // 들이지 못한 상품 id
+        public Long rejectedId() {
+            return rejectedId;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.order.global.admission;
+
+import com.example.order.global.exception.AdmissionRejectedException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.global.product.ProductStockIndex;
+import com.example.order.service.dto.DecreaseItem;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Aspect
+@Component
+@ConditionalOnProperty(name = "stock.admission.enabled", havingValue = "true", matchIfMissing = true)
+// 품절 필터 안쪽 (품절 상품은 token 을 쓰지 않고 거절), 트랜잭션 / lock 보다 바깥
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class StockAdmissionAspect {
+
+    /**
+     * facade 의 decrease* 앞에서 StockAdmission token 을 받은 요청만 실행
+     * token 이 없으면 lock 을 기다리지 않고 바로 AdmissionRejectedException (429)
+     *
+     * - 가장 바깥 facade 에서만 받는다. (router 가 다른 facade 를 호출할 때는 다시 받지 않음)
+     * - 실패하면 token 을 돌려놓는다. CompletableFuture / Mono 는 완료 시점에 판단
+     * - Mono 는 구독할 때 token 을 받는다.
+     * - decreaseByProduct* 는 productId 의 stockId 로 token 을 받는다.
+     */
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private final StockAdmission stockAdmission;
+
+    private final StockMetrics stockMetrics;
+
+    private final ProductStockIndex productStockIndex;
+
+    public StockAdmissionAspect(StockAdmission stockAdmission, StockMetrics stockMetrics, ProductStockIndex productStockIndex) {
+        this.stockAdmission = stockAdmission;
+        this.stockMetrics = stockMetrics;
+        this.productStockIndex = productStockIndex;
+    }
+
+    @Around("execution(public * com.example.order.global.facade..decrease*(..))")
+    public Object admit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ACTIVE.get() != null) {
+            return joinPoint.proceed();
+        }
+        Object[] args = productStockIndex.toStockArgs(joinPoint.getSignature().getName(), joinPoint.getArgs());
+        if (!isDecrease(args)) {
+            return joinPoint.proceed();
+        }
+        String strategy = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (returnType == Mono.class) {
+            Mono<?> decrease = (Mono<?>) proceedNested(joinPoint);
+            return Mono.defer(() -> {
+                StockAdmission.Permit permit = acquire(args);
+                if (!permit.isAdmitted()) {
+                    stockMetrics.rejected(strategy, "admission");
+                    return Mono.error(new AdmissionRejectedException(permit.rejectedId()));
+                }
+                return decrease
+                        .doOnError(e -> stockAdmission.release(permit))
+                        .doOnCancel(() -> stockAdmission.release(permit));
+            });
+        }
+
+        StockAdmission.Permit permit = acquire(args);
+        if (!permit.isAdmitted()) {
+            stockMetrics.rejected(strategy, "admission");
+            AdmissionRejectedException e = new AdmissionRejectedException(permit.rejectedId());
+            if (returnType == CompletableFuture.class) {
+                return CompletableFuture.failedFuture(e);
+            }
+            throw e;
+        }
+        Object result;
+        try {
+            result = proceedNested(joinPoint);
+        } catch (Throwable e) {
+            stockAdmission.release(permit);
+            throw e;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            return future.whenComplete((value, failure) -> {
+                if (failure != null) {
+                    stockAdmission.release(permit);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static Object proceedNested(ProceedingJoinPoint joinPoint) throws Throwable {
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    private static boolean isDecrease(Object[] args) {
+        // 잘못된 수량은 facade 에서 그대로 실패하도록 token 없이 실행
+        return args.length == 2 && args[0] instanceof Long && args[1] instanceof Long quantity && quantity > 0
+                || args.length == 1 && args[0] instanceof List;
+    }
+
+    @SuppressWarnings("unchecked")
+    private StockAdmission.Permit acquire(Object[] args) {
+        if (args.length == 2) {
+            return stockAdmission.tryAcquire((Long) args[0], (Long) args[1]);
+        }
+        return stockAdmission.tryAcquireAll((List<DecreaseItem>) args[0]);
+    }
+}
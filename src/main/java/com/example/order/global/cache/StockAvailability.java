@@ -0,0 +1,23 @@
+package com.example.order.global.cache;
+
+/**
+ * 캐시에 저장되는 가용 재고
+ * version 은 Stock 의 @Version 값으로, 더 오래된 값이 최신 값을 덮어쓰지 않도록 비교에 사용
+ */
+public record StockAvailability(Long stockId, Long available, Long version) {
+
+    public boolean isSoldOut() {
+        return available <= 0;
+    }
+
+    String serialize() {
+        return version + ":" + available;
+    }
+
+    static StockAvailability deserialize(Long stockId, String value) {
+        int separator = value.indexOf(':');
+        return new StockAvailability(stockId,
+                Long.valueOf(value.substring(separator + 1)),
+                Long.valueOf(value.substring(0, separator)));
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.order.global.cache;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedBatchEvent;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.repository.StockRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class StockAvailabilityCache {
+
+    /**
+     * 가용 재고 조회용 2단 캐시
+     * 1단 : 서버 로컬 (caffeine) / 2단 : redis / 없으면 DB 조회 후 적재
+     *
+     * - 재고 변경이 commit 되면 로컬 캐시는 바로 변경 후 값으로 갱신 (값을 모르면 삭제) 하고,
+     *   redis 갱신 / 다른 서버 무효화 메시지는 모아서 flush-interval 마다 pipeline 한 번 + 메시지 하나로 보낸다.
+     *   (감소 commit 마다 redis 를 기다리지 않음, 메시지 형식 : stockId[,stockId...]:nodeId, 자기가 보낸 메시지는 무시)
+     * - 삭제가 redis 에 반영되기 전에는 redis 를 건너뛰고 DB 에서 읽는다.
+     *   같은 flush 에서는 갱신 후 삭제하기 때문에 삭제 대상이 된 값이 다시 남지 않는다.
+     * - 두 단계 모두 staleness-bound 만큼만 유지되기 때문에 메시지가 유실되어도 그 이상 오래된 값을 보여주지 않는다.
+     * - 더 낮은 version 의 값은 높은 version 의 값을 덮어쓰지 않는다.
+     */
+
+    private static final String INVALIDATE_CHANNEL = "stock:availability:invalidate";
+
+    // KEYS[1] = 캐시 key / ARGV[1] = version, ARGV[2] = 저장할 값, ARGV[3] = ttl(ms)
+    private static final RedisScript<Long> PUT_IF_NEWER_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if current then " +
+            "  local version = tonumber(string.sub(current, 1, string.find(current, ':') - 1)) " +
+            "  if version > tonumber(ARGV[1]) then return 0 end " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    private final StockRepository stockRepository;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final Duration stalenessBound;
+
+    private final Cache<Long, StockAvailability> localCache;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // flush 전 redis 에 반영할 값 (같은 재고는 높은 version 만 남긴다) / 삭제할 재고
+    private final ConcurrentHashMap<Long, StockAvailability> pendingPuts = new ConcurrentHashMap<>();
+
+    // stockId -> 삭제 요청 순번 (flush 중에 다시 들어온 삭제는 남긴다)
+    private final ConcurrentHashMap<Long, Long> pendingEvicts = new ConcurrentHashMap<>();
+
+    private final AtomicLong evictSequence = new AtomicLong();
+
+    public StockAvailabilityCache(StockRepository stockRepository,
+                                  RedisTemplate<String, String> redisTemplate,
+                                  RedisMessageListenerContainer redisMessageListenerContainer,
+                                  @Value("${stock.cache.staleness-bound:1s}") Duration stalenessBound,
+                                  @Value("${stock.cache.local-max-size:100000}") long localMaxSize) {
+        this.stockRepository = stockRepository;
+        this.redisTemplate = redisTemplate;
+        this.stalenessBound = stalenessBound;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(stalenessBound)
+                .build();
+        // 다른 서버에서 변경된 재고는 로컬 캐시만 비우고 다음 조회 시 redis 에서 가져온다.
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidate(new String(message.getBody())),
+                new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    public StockAvailability get(Long stockId) {
+        StockAvailability local = localCache.getIfPresent(stockId);
+        if (local != null) {
+            return local;
+        }
+
+        String cached = pendingEvicts.containsKey(stockId) ? null : redisTemplate.opsForValue().get(generateKey(stockId));
+        if (cached != null) {
+            StockAvailability availability = StockAvailability.deserialize(stockId, cached);
+            putLocal(availability);
+            return availability;
+        }
+
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        StockAvailability availability = new StockAvailability(stockId, stock.getAvailableQuantity(), stock.getVersion());
+        put(availability);
+        return availability;
+    }
+
+    //==재고 변경 commit 이후 갱신 (트랜잭션이 없는 경로도 처리)==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.isKnown()) {
+            StockAvailability availability = new StockAvailability(event.stockId(), event.available(), event.version());
+            putLocal(availability);
+            pendingPuts.merge(availability.stockId(), availability,
+                    (current, updated) -> updated.version() >= current.version() ? updated : current);
+        } else {
+            evictLater(event.stockId());
+        }
+    }
+
+    //==입고 import 한 묶음 : 값을 모르기 때문에 모두 삭제==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChangedBatch(StockChangedBatchEvent event) {
+        for (StockChangedEvent change : event.changes()) {
+            evictLater(change.stockId());
+        }
+    }
+
+    /**
+     * 모아둔 갱신 / 삭제를 redis pipeline 한 번으로 반영하고 무효화 메시지 하나를 발행
+     * 갱신을 먼저 보내고 삭제를 나중에 보낸다.
+     * redis 오류로 실패하면 갱신 값은 버리고 (staleness-bound 안에 만료) 삭제는 다음 flush 에서 다시 보낸다.
+     */
+    @Scheduled(fixedDelayString = "${stock.cache.flush-interval-ms:50}")
+    public void flush() {
+        if (pendingPuts.isEmpty() && pendingEvicts.isEmpty()) {
+            return;
+        }
+        List<StockAvailability> puts = new ArrayList<>(pendingPuts.size());
+        for (Long stockId : pendingPuts.keySet()) {
+            StockAvailability availability = pendingPuts.remove(stockId);
+            if (availability != null) {
+                puts.add(availability);
+            }
+        }
+        // 삭제는 redis 에 반영된 뒤에 pending 에서 뺀다. (그 전까지 조회는 DB 로)
+        Map<Long, Long> evicts = new HashMap<>(pendingEvicts);
+        String ttlMillis = String.valueOf(stalenessBound.toMillis());
+        String putIfNewer = PUT_IF_NEWER_SCRIPT.getScriptAsString();
+        StringBuilder message = new StringBuilder();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (StockAvailability availability : puts) {
+                stringConnection.eval(putIfNewer, ReturnType.INTEGER, 1, generateKey(availability.stockId()),
+                        availability.version().toString(), availability.serialize(), ttlMillis);
+                message.append(message.isEmpty() ? "" : ",").append(availability.stockId());
+            }
+            if (!evicts.isEmpty()) {
+                stringConnection.del(evicts.keySet().stream().map(this::generateKey).toArray(String[]::new));
+                evicts.keySet().forEach(stockId -> message.append(message.isEmpty() ? "" : ",").append(stockId));
+            }
+            stringConnection.publish(INVALIDATE_CHANNEL, message + ":" + nodeId);
+            return null;
+        });
+        evicts.forEach((stockId, sequence) -> pendingEvicts.remove(stockId, sequence));
+    }
+
+    public void evict(Long stockId) {
+        localCache.invalidate(stockId);
+        redisTemplate.delete(generateKey(stockId));
+    }
+
+    //==로컬은 바로 비우고 redis 는 다음 flush 에서 삭제 (그 전의 갱신 대기 값은 버린다)==//
+    private void evictLater(Long stockId) {
+        pendingEvicts.put(stockId, evictSequence.incrementAndGet());
+        pendingPuts.remove(stockId);
+        localCache.invalidate(stockId);
+    }
+
+    //==stockId[,stockId...]:nodeId==//
+    private void onInvalidate(String message) {
+        int separator = message.lastIndexOf(':');
+        if (nodeId.equals(message.substring(separator + 1))) {
+            return;
+        }
+        for (String stockId : message.substring(0, separator).split(",")) {
+            localCache.invalidate(Long.valueOf(stockId));
+        }
+    }
+
+    private void put(StockAvailability availability) {
+        putLocal(availability);
+        redisTemplate.execute(PUT_IF_NEWER_SCRIPT, List.of(generateKey(availability.stockId())),
+                availability.version().toString(), availability.serialize(), String.valueOf(stalenessBound.toMillis()));
+    }
+
+    private void putLocal(StockAvailability availability) {
+        localCache.asMap().merge(availability.stockId(), availability,
+                (current, updated) -> updated.version() >= current.version() ? updated : current);
+    }
+
+    private String generateKey(Long stockId) {
+        return "stock:availability:" + stockId;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.order.global.collection;
+
+import java.util.Arrays;
+
+/**
+ * long -> long 전용 hash map (open addressing, linear probing)
+ * Long boxing 과 Entry 객체가 없기 때문에 수백만 개의 상품을 담아도 배열 두 개만 사용한다.
+ *
+ * 동기화하지 않는다. 여러 스레드에서 쓰려면 사용하는 쪽에서 lock 을 잡아야 한다.
+ */
+public class LongLongHashMap {
+
+    // 빈 칸 표시용 key, 0 이 실제 key 로 들어오면 별도 필드에 저장
+    private static final long EMPTY = 0L;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    private int threshold;
+
+    private boolean hasZeroKey;
+
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        return keys[indexOf(key)] == key;
+    }
+
+    //==key 가 없으면 defaultValue==//
+    public long get(long key, long defaultValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return keys[index] == key ? values[index] : defaultValue;
+    }
+
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int index = indexOf(key);
+        if (keys[index] == key) {
+            values[index] = value;
+            return;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    //==key 가 없으면 value 로 넣고, 있으면 기존 값에 더한다. 결과 값을 반환==//
+    public long addTo(long key, long delta) {
+        long value = get(key, 0L) + delta;
+        put(key, value);
+        return value;
+    }
+
+    public void remove(long key) {
+        if (key == EMPTY) {
+            hasZeroKey = false;
+            return;
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            return;
+        }
+        size--;
+        // 뒤에 이어진 칸을 당겨서 probe 경로가 끊기지 않도록 한다. (tombstone 없이 삭제)
+        int mask = keys.length - 1;
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0L;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0L);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(EMPTY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public LongLongHashMap copy() {
+        LongLongHashMap copy = new LongLongHashMap();
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        copy.threshold = threshold;
+        copy.hasZeroKey = hasZeroKey;
+        copy.zeroValue = zeroValue;
+        return copy;
+    }
+
+    // key 가 있는 칸 혹은 key 를 넣을 빈 칸
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // 연속된 id 가 한곳에 몰리지 않도록 섞는다.
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
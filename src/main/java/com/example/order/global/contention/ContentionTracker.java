@@ -0,0 +1,141 @@
+package com.example.order.global.contention;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class ContentionTracker {
+
+    /**
+     * 상품별 요청 수 / 충돌 수를 sliding window 로 집계
+     * window 는 slot-count 개의 slot 으로 나뉘고, 시간이 지난 slot 은 재사용할 때 초기화한다.
+     * 모든 값은 lock 없이 AtomicLongArray 로 갱신
+     *
+     * 충돌률이 hot-threshold 를 넘으면 hot 상품으로 판단
+     *
+     * 요청이 한 번이라도 들어온 상품마다 window 가 생기기 때문에, 모든 slot 이 window 밖으로 밀려난 (집계값이 0 인) window 는
+     * evict-interval 마다 제거한다. 제거와 동시에 들어온 요청 한 건은 집계에서 빠질 수 있다. (근사치 집계)
+     */
+
+    private final int slotCount;
+
+    private final long slotMillis;
+
+    private final double hotThreshold;
+
+    private final long minSamples;
+
+    private final ConcurrentHashMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    public ContentionTracker(@Value("${stock.contention.slot-count:10}") int slotCount,
+                             @Value("${stock.contention.slot-millis:1000}") long slotMillis,
+                             @Value("${stock.contention.hot-threshold:0.5}") double hotThreshold,
+                             @Value("${stock.contention.min-samples:20}") long minSamples) {
+        this.slotCount = slotCount;
+        this.slotMillis = slotMillis;
+        this.hotThreshold = hotThreshold;
+        this.minSamples = minSamples;
+    }
+
+    public void recordArrival(Long id) {
+        window(id).add(Window.ARRIVAL, System.currentTimeMillis() / slotMillis);
+    }
+
+    public void recordConflict(Long id) {
+        window(id).add(Window.CONFLICT, System.currentTimeMillis() / slotMillis);
+    }
+
+    //==window 내 초당 요청 수==//
+    public double arrivalRate(Long id) {
+        Window window = windows.get(id);
+        if (window == null) {
+            return 0;
+        }
+        long arrivals = window.sum(Window.ARRIVAL, System.currentTimeMillis() / slotMillis);
+        return arrivals * 1000.0 / (slotMillis * slotCount);
+    }
+
+    //==window 내 요청 대비 충돌 비율==//
+    public double conflictRate(Long id) {
+        Window window = windows.get(id);
+        if (window == null) {
+            return 0;
+        }
+        long epoch = System.currentTimeMillis() / slotMillis;
+        long arrivals = window.sum(Window.ARRIVAL, epoch);
+        if (arrivals < minSamples) {
+            return 0;
+        }
+        return (double) window.sum(Window.CONFLICT, epoch) / arrivals;
+    }
+
+    public boolean isHot(Long id) {
+        return conflictRate(id) >= hotThreshold;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.contention.evict-interval-ms:10000}")
+    public void evictIdle() {
+        long epoch = System.currentTimeMillis() / slotMillis;
+        windows.values().removeIf(window -> window.isIdle(epoch));
+    }
+
+    //==집계 중인 상품 수==//
+    int size() {
+        return windows.size();
+    }
+
+    private Window window(Long id) {
+        return windows.computeIfAbsent(id, key -> new Window(slotCount));
+    }
+
+    private static class Window {
+
+        private static final int ARRIVAL = 0;
+        private static final int CONFLICT = 1;
+
+        private final int slotCount;
+        private final AtomicLongArray epochs;
+        // slot i 의 요청 수 = counts[i * 2], 충돌 수 = counts[i * 2 + 1]
+        private final AtomicLongArray counts;
+
+        private Window(int slotCount) {
+            this.slotCount = slotCount;
+            this.epochs = new AtomicLongArray(slotCount);
+            this.counts = new AtomicLongArray(slotCount * 2);
+        }
+
+        private void add(int type, long epoch) {
+            int slot = (int) (epoch % slotCount);
+            long current = epochs.get(slot);
+            if (current != epoch && epochs.compareAndSet(slot, current, epoch)) {
+                // 오래된 slot 을 처음 재사용하는 스레드만 초기화 (근사치 집계)
+                counts.set(slot * 2, 0);
+                counts.set(slot * 2 + 1, 0);
+            }
+            counts.incrementAndGet(slot * 2 + type);
+        }
+
+        private boolean isIdle(long epoch) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (epoch - epochs.get(slot) < slotCount) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long sum(int type, long epoch) {
+            long sum = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (epoch - epochs.get(slot) < slotCount) {
+                    sum += counts.get(slot * 2 + type);
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.order.global.dispatch;
+
+import com.example.order.global.engine.InMemoryStockEngine;
+import com.example.order.global.exception.UnsupportedStrategyException;
+import com.example.order.global.facade.ConditionalUpdateStockFacade;
+import com.example.order.global.facade.FairRedisLockStockFacade;
+import com.example.order.global.facade.GroupCommitStockFacade;
+import com.example.order.global.facade.LettuceLockStockFacade;
+import com.example.order.global.facade.NamedLockStockFacade;
+import com.example.order.global.facade.OptimisticLockStockFacade;
+import com.example.order.global.facade.ReactiveRedisLockStockFacade;
+import com.example.order.global.facade.RedisCounterStockFacade;
+import com.example.order.global.facade.RedissonLockStockFacade;
+import com.example.order.global.facade.StockDecreaseRouter;
+import com.example.order.global.product.ProductStockIndex;
+import com.example.order.service.PessimisticLockStockService;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+@Component
+public class StockDecreaseDispatcher {
+
+    /**
+     * 이름으로 재고 감소 방식을 골라 실행 (HTTP API 에서 strategy 파라미터로 선택)
+     * 요청마다 분기하지 않도록 이름 -> 실행 함수를 시작 시점에 한 번 만들어 둔다.
+     *
+     * facade / service package 밖에 두어야 metrics / ledger 의 strategy 가 실제 facade 이름으로 남는다.
+     * 비동기 facade (group-commit, reactive) 는 결과를 기다린 뒤 돌려준다.
+     *
+     * productId 로 들어온 요청
+     * - pessimistic / optimistic / conditional 은 productId (unique index) 로 바로 lock / update 하는 경로
+     * - 나머지는 ProductStockIndex 로 stockId 를 찾아 같은 경로로 보낸다. (DB 조회 없음)
+     */
+
+    public static final String DEFAULT_STRATEGY = "router";
+
+    private final Map<String, Decrease> decreases;
+
+    private final Map<String, DecreaseAll> decreaseAlls;
+
+    // productId 를 그대로 받는 경로
+    private final Map<String, Decrease> productDecreases;
+
+    private final ProductStockIndex productStockIndex;
+
+    public StockDecreaseDispatcher(StockDecreaseRouter stockDecreaseRouter,
+                                   OptimisticLockStockFacade optimisticLockStockFacade,
+                                   PessimisticLockStockService pessimisticLockStockService,
+                                   NamedLockStockFacade namedLockStockFacade,
+                                   LettuceLockStockFacade lettuceLockStockFacade,
+                                   RedissonLockStockFacade redissonLockStockFacade,
+                                   FairRedisLockStockFacade fairRedisLockStockFacade,
+                                   ConditionalUpdateStockFacade conditionalUpdateStockFacade,
+                                   RedisCounterStockFacade redisCounterStockFacade,
+                                   GroupCommitStockFacade groupCommitStockFacade,
+                                   ReactiveRedisLockStockFacade reactiveRedisLockStockFacade,
+                                   ObjectProvider<InMemoryStockEngine> inMemoryStockEngine,
+                                   ProductStockIndex productStockIndex) {
+        Map<String, Decrease> decreases = new HashMap<>();
+        Map<String, DecreaseAll> decreaseAlls = new HashMap<>();
+        Map<String, Decrease> productDecreases = new HashMap<>();
+
+        decreases.put(DEFAULT_STRATEGY, stockDecreaseRouter::decrease);
+        decreaseAlls.put(DEFAULT_STRATEGY, stockDecreaseRouter::decreaseAll);
+        decreases.put("optimistic", optimisticLockStockFacade::decrease);
+        decreaseAlls.put("optimistic", optimisticLockStockFacade::decreaseAll);
+        decreases.put("pessimistic", pessimisticLockStockService::decrease);
+        decreaseAlls.put("pessimistic", pessimisticLockStockService::decreaseAll);
+        decreases.put("named", namedLockStockFacade::decrease);
+        decreaseAlls.put("named", namedLockStockFacade::decreaseAll);
+        decreases.put("lettuce", lettuceLockStockFacade::decrease);
+        decreaseAlls.put("lettuce", lettuceLockStockFacade::decreaseAll);
+        decreases.put("redisson", redissonLockStockFacade::decrease);
+        decreaseAlls.put("redisson", redissonLockStockFacade::decreaseAll);
+        decreases.put("fair", fairRedisLockStockFacade::decrease);
+        decreaseAlls.put("fair", fairRedisLockStockFacade::decreaseAll);
+        decreases.put("conditional", conditionalUpdateStockFacade::decrease);
+        decreaseAlls.put("conditional", conditionalUpdateStockFacade::decreaseAll);
+        decreases.put("redis-counter", redisCounterStockFacade::decrease);
+        decreaseAlls.put("redis-counter", redisCounterStockFacade::decreaseAll);
+        decreases.put("group-commit", (id, quantity) -> join(() -> groupCommitStockFacade.decrease(id, quantity).join()));
+        decreases.put("reactive", (id, quantity) -> reactiveRedisLockStockFacade.decrease(id, quantity).block());
+        decreaseAlls.put("reactive", items -> reactiveRedisLockStockFacade.decreaseAll(items).block());
+        productDecreases.put("optimistic", optimisticLockStockFacade::decreaseByProduct);
+        productDecreases.put("pessimistic", pessimisticLockStockService::decreaseByProduct);
+        productDecreases.put("conditional", conditionalUpdateStockFacade::decreaseByProduct);
+        // stock.engine.enabled=true 일 때만 등록
+        inMemoryStockEngine.ifAvailable(engine -> decreases.put("engine", engine::decrease));
+
+        this.decreases = Map.copyOf(decreases);
+        this.decreaseAlls = Map.copyOf(decreaseAlls);
+        this.productDecreases = Map.copyOf(productDecreases);
+        this.productStockIndex = productStockIndex;
+    }
+
+    public void decrease(String strategy, Long id, Long quantity) throws InterruptedException {
+        Decrease decrease = decreases.get(strategy);
+        if (decrease == null) {
+            throw new UnsupportedStrategyException(strategy, decreases.keySet());
+        }
+        decrease.apply(id, quantity);
+    }
+
+    public void decreaseAll(String strategy, List<DecreaseItem> items) throws InterruptedException {
+        DecreaseAll decreaseAll = decreaseAlls.get(strategy);
+        if (decreaseAll == null) {
+            throw new UnsupportedStrategyException(strategy, decreaseAlls.keySet());
+        }
+        decreaseAll.apply(items);
+    }
+
+    public void decreaseByProduct(String strategy, Long productId, Long quantity) throws InterruptedException {
+        Decrease productDecrease = productDecreases.get(strategy);
+        if (productDecrease != null) {
+            productDecrease.apply(productId, quantity);
+            return;
+        }
+        decrease(strategy, productStockIndex.stockId(productId), quantity);
+    }
+
+    //==items 의 id 는 productId==//
+    public void decreaseAllByProduct(String strategy, List<DecreaseItem> items) throws InterruptedException {
+        decreaseAll(strategy, productStockIndex.toStockItems(items));
+    }
+
+    public boolean supports(String strategy) {
+        return decreases.containsKey(strategy);
+    }
+
+    public Set<String> strategies() {
+        return Collections.unmodifiableSet(decreases.keySet());
+    }
+
+    //==CompletableFuture 의 CompletionException 을 벗겨서 원래 예외 (SoldOutException 등) 를 그대로 던진다==//
+    private static void join(Runnable action) {
+        try {
+            action.run();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Decrease {
+        void apply(Long id, Long quantity) throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface DecreaseAll {
+        void apply(List<DecreaseItem> items) throws InterruptedException;
+    }
+}
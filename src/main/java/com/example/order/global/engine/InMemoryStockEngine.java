@@ -0,0 +1,261 @@
+package com.example.order.global.engine;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.collection.LongLongHashMap;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.exception.StockOutcomeUnknownException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.InMemoryStockService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "stock.engine.enabled", havingValue = "true")
+public class InMemoryStockEngine {
+
+    /**
+     * 재고를 메모리 (LongLongHashMap) 에서 감소시키고, 모든 변경은 write-ahead log 에 먼저 남긴다.
+     * - 감소 : lock 안에서 수량 확인 + log 기록 + 메모리 반영, lock 밖에서 fsync 대기 (group fsync)
+     *   fsync 가 끝나야 응답하기 때문에 응답한 감소는 서버가 죽어도 사라지지 않는다. (재고는 휘발되면 안 된다)
+     *   fsync 를 확인하지 못하면 (interrupt / 종료 / flusher 실패) StockOutcomeUnknownException
+     *   이미 메모리와 log 에 반영된 변경은 되돌리지 않는다. (log 에 남은 record 는 재시작 시 다시 재생되기 때문에 되돌리면 어긋난다)
+     * - snapshot 주기마다 전체 수량을 파일로 남기고 그 이전 log 는 삭제
+     * - 시작 시 snapshot + 이후 log 를 재생해서 상태 복구
+     * - DB (stock 테이블) 에는 persist 주기마다 바뀐 상품의 수량을 그대로 덮어쓴다. (여러 번 반영해도 결과가 같다)
+     *
+     * 엔진으로 처리하는 상품은 다른 경로로 quantity 를 바꾸면 안 된다. (다음 persist 때 엔진 값으로 덮어쓴다)
+     * 입고도 increase / increaseAll 로 엔진을 거친다. (StockRestockService)
+     * 예약 (reserved) 은 엔진에서 다루지 않는다.
+     */
+
+    private final StockRepository stockRepository;
+
+    private final InMemoryStockService inMemoryStockService;
+
+    private final StockMetrics stockMetrics;
+
+    private final StockWriteAheadLog writeAheadLog;
+
+    private final StockSnapshot snapshot;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // stockId -> 수량
+    private final LongLongHashMap quantities = new LongLongHashMap(1024);
+
+    // 아직 DB 에 반영하지 않은 stockId -> 수량
+    private LongLongHashMap dirty = new LongLongHashMap();
+
+    public InMemoryStockEngine(StockRepository stockRepository,
+                               InMemoryStockService inMemoryStockService,
+                               StockMetrics stockMetrics,
+                               @Value("${stock.engine.directory:./data/stock-engine}") Path directory,
+                               @Value("${stock.engine.segment-bytes:67108864}") int segmentBytes,
+                               @Value("${stock.engine.fsync:true}") boolean fsync,
+                               @Value("${stock.engine.flush-interval-micros:100}") long flushIntervalMicros) {
+        this.stockRepository = stockRepository;
+        this.inMemoryStockService = inMemoryStockService;
+        this.stockMetrics = stockMetrics;
+        this.snapshot = new StockSnapshot(directory);
+        this.writeAheadLog = new StockWriteAheadLog(directory, segmentBytes, fsync, flushIntervalMicros);
+
+        long snapshotSeq = snapshot.load(quantities);
+        writeAheadLog.recover(snapshotSeq, (type, seq, stockId, value) -> {
+            if (type == StockWriteAheadLog.LOAD) {
+                quantities.put(stockId, value);
+            } else if (type == StockWriteAheadLog.DECREASE) {
+                quantities.addTo(stockId, -value);
+            } else if (type == StockWriteAheadLog.INCREASE) {
+                quantities.addTo(stockId, value);
+            }
+        });
+        // 마지막 persist 이후 변경분을 알 수 없으므로 복구한 전체 수량을 다시 반영
+        quantities.forEach(dirty::put);
+        log.info("in-memory 재고 복구 완료 snapshotSeq={}, lastSeq={}, size={}",
+                snapshotSeq, writeAheadLog.lastSeq(), quantities.size());
+    }
+
+    public void decrease(Long id, Long quantity) {
+        long seq;
+        while ((seq = tryDecrease(id, quantity)) < 0) {
+            load(id);
+        }
+        awaitDurable(id, seq);
+    }
+
+    //==입고 : 엔진으로 처리하는 상품은 DB 가 아니라 엔진에서 늘려야 persist 때 덮어써지지 않는다==//
+    public void increase(Long id, Long quantity) {
+        long seq;
+        while ((seq = tryIncrease(id, quantity)) < 0) {
+            load(id);
+        }
+        awaitDurable(id, seq);
+    }
+
+    /**
+     * 여러 상품 입고 (stockId -> 증가 수량)
+     * 상품마다 log 를 남기고 fsync 는 마지막 record 까지 한 번만 기다린다.
+     */
+    public void increaseAll(LongLongHashMap increments) {
+        long[] lastSeq = {-1};
+        increments.forEach((id, quantity) -> {
+            long seq;
+            while ((seq = tryIncrease(id, quantity)) < 0) {
+                load(id);
+            }
+            lastSeq[0] = Math.max(lastSeq[0], seq);
+        });
+        if (lastSeq[0] >= 0) {
+            // 여러 상품이라 특정 상품을 지정하지 않는다.
+            awaitDurable(null, lastSeq[0]);
+        }
+    }
+
+    public Long getQuantity(Long id) {
+        while (true) {
+            lock.lock();
+            try {
+                if (quantities.containsKey(id)) {
+                    return quantities.get(id, 0L);
+                }
+            } finally {
+                lock.unlock();
+            }
+            load(id);
+        }
+    }
+
+    //==바뀐 수량을 DB 에 반영, 실패하면 다음 주기에 다시 반영==//
+    @Scheduled(fixedDelayString = "${stock.engine.persist-interval-ms:200}")
+    public void persist() {
+        LongLongHashMap pending;
+        lock.lock();
+        try {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            pending = dirty;
+            dirty = new LongLongHashMap(pending.size());
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            inMemoryStockService.persist(pending);
+        } catch (Exception e) {
+            log.warn("in-memory 재고 DB 반영 실패, 다음 주기에 재시도 합니다. size={}", pending.size(), e);
+            lock.lock();
+            try {
+                // 그 사이 더 최신 값이 생긴 상품은 그대로 둔다.
+                pending.forEach((stockId, value) -> {
+                    if (!dirty.containsKey(stockId)) {
+                        dirty.put(stockId, value);
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    //==전체 수량을 snapshot 으로 남기고 그 이전 log 삭제==//
+    @Scheduled(fixedDelayString = "${stock.engine.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        LongLongHashMap copy;
+        long seq;
+        lock.lock();
+        try {
+            copy = quantities.copy();
+            seq = writeAheadLog.lastSeq();
+        } finally {
+            lock.unlock();
+        }
+        snapshot.write(seq, copy);
+        writeAheadLog.truncateUpTo(seq);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        persist();
+        snapshot();
+        writeAheadLog.close();
+    }
+
+    // 테스트용 : persist / snapshot 없이 log 만 닫는다. (비정상 종료 재현)
+    void closeLog() throws IOException {
+        writeAheadLog.close();
+    }
+
+    private void awaitDurable(Long id, long seq) {
+        try {
+            writeAheadLog.awaitDurable(seq);
+        } catch (UncheckedIOException e) {
+            throw new StockOutcomeUnknownException(id, e);
+        }
+    }
+
+    // 메모리에 없는 상품이면 -1
+    private long tryDecrease(long id, long quantity) {
+        lock.lock();
+        try {
+            if (!quantities.containsKey(id)) {
+                return -1;
+            }
+            long current = quantities.get(id, 0L);
+            if (current < quantity) {
+                stockMetrics.soldOut("memory", id);
+                throw new SoldOutException(id, current);
+            }
+            long seq = writeAheadLog.append(StockWriteAheadLog.DECREASE, id, quantity);
+            quantities.put(id, current - quantity);
+            dirty.put(id, current - quantity);
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 메모리에 없는 상품이면 -1
+    private long tryIncrease(long id, long quantity) {
+        lock.lock();
+        try {
+            if (!quantities.containsKey(id)) {
+                return -1;
+            }
+            long seq = writeAheadLog.append(StockWriteAheadLog.INCREASE, id, quantity);
+            long increased = quantities.addTo(id, quantity);
+            dirty.put(id, increased);
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //==DB 에서 처음 한 번만 적재 (조회는 lock 밖에서)==//
+    private void load(long id) {
+        Stock stock = stockRepository.findById(id).orElseThrow();
+        long seq;
+        lock.lock();
+        try {
+            if (quantities.containsKey(id)) {
+                return;
+            }
+            seq = writeAheadLog.append(StockWriteAheadLog.LOAD, id, stock.getQuantity());
+            quantities.put(id, stock.getQuantity());
+        } finally {
+            lock.unlock();
+        }
+        writeAheadLog.awaitDurable(seq);
+    }
+}
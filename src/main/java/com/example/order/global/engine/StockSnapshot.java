@@ -0,0 +1,128 @@
+package com.example.order.global.engine;
+
+import com.example.order.global.collection.LongLongHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * in-memory 재고 엔진의 snapshot 파일 (snapshot-<seq>.dat)
+ * - 형식 : seq(8) count(4) [stockId(8) quantity(8)] * count crc32c(4)
+ * - 임시 파일에 쓰고 fsync 후 rename 하기 때문에 쓰다 만 snapshot 은 보이지 않는다.
+ * - 가장 최신 snapshot 하나만 남긴다.
+ */
+class StockSnapshot {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".dat";
+
+    private final Path directory;
+
+    StockSnapshot(Path directory) {
+        this.directory = directory;
+    }
+
+    //==가장 최신 snapshot 을 quantities 에 적재하고 seq 반환 (없으면 0)==//
+    long load(LongLongHashMap quantities) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> snapshots = list();
+            for (int i = snapshots.size() - 1; i >= 0; i--) {
+                Long seq = read(snapshots.get(i), quantities);
+                if (seq != null) {
+                    return seq;
+                }
+                // 손상된 snapshot 은 건너뛰고 이전 snapshot 사용
+                quantities.clear();
+            }
+            return 0L;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void write(long seq, LongLongHashMap quantities) {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, seq, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                CRC32C crc = new CRC32C();
+                OutputStream stream = Channels.newOutputStream(channel);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(stream, crc)));
+                out.writeLong(seq);
+                out.writeInt(quantities.size());
+                IOException[] failure = new IOException[1];
+                quantities.forEach((stockId, quantity) -> {
+                    try {
+                        out.writeLong(stockId);
+                        out.writeLong(quantity);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                out.flush();
+                new DataOutputStream(stream).writeInt((int) crc.getValue());
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for (Path snapshot : list()) {
+                if (!snapshot.equals(target)) {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Long read(Path snapshot, LongLongHashMap quantities) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot)), crc))) {
+            long seq = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                quantities.put(in.readLong(), in.readLong());
+            }
+            int expected = (int) crc.getValue();
+            // 마지막 4 byte (crc 자체) 는 checksum 대상이 아니므로 읽기 전에 값을 구한다.
+            int actual = in.readInt();
+            return expected == actual ? seq : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.order.global.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * in-memory 재고 엔진의 write-ahead log
+ * - 고정 크기 segment 파일 (wal-<첫 seq>.log) 을 memory-mapped 로 열어 record 를 이어 쓴다.
+ * - record : type(1) seq(8) stockId(8) value(8) crc32c(4)
+ * - fsync 는 flusher 스레드 하나가 모아서 한다. (group fsync)
+ *   기록한 스레드는 자기 seq 까지 fsync 될 때까지 기다린 뒤 응답한다.
+ *   flusher 가 실패로 멈추거나 log 가 닫히면 기다리던 스레드는 예외로 깨어난다. (응답하지 않은 요청을 성공으로 보지 않는다)
+ * - 재시작 시 crc 가 맞지 않거나 비어 있는 record 를 만나면 그 이전까지만 유효한 log 로 본다. (쓰다 만 tail)
+ *
+ * append 는 한 스레드씩 호출해야 한다. (InMemoryStockEngine 의 lock 안에서 호출)
+ */
+class StockWriteAheadLog implements Closeable {
+
+    static final byte LOAD = 1;
+    static final byte DECREASE = 2;
+    static final byte INCREASE = 3;
+
+    static final int RECORD_SIZE = 1 + 8 + 8 + 8 + 4;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final boolean fsync;
+
+    private final long flushIntervalNanos;
+
+    private final CRC32C crc = new CRC32C();
+
+    // 파일 이름 순 (= 첫 seq 순)
+    private final List<Path> segments = new ArrayList<>();
+
+    private final Object durableMonitor = new Object();
+
+    private final Thread flusher;
+
+    private FileChannel channel;
+
+    private volatile MappedByteBuffer buffer;
+
+    private long nextSeq;
+
+    private volatile long writtenSeq;
+
+    private volatile long durableSeq;
+
+    private volatile boolean running = true;
+
+    // flusher 를 멈추게 한 예외
+    private volatile Throwable failure;
+
+    StockWriteAheadLog(Path directory, int segmentBytes, boolean fsync, long flushIntervalMicros) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_SIZE;
+        this.fsync = fsync;
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros);
+        this.flusher = new Thread(this::flushLoop, "stock-wal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * 남아 있는 log 중 afterSeq 이후 record 를 순서대로 전달하고, 마지막 유효 record 다음부터 이어 쓸 준비
+     */
+    void recover(long afterSeq, RecordConsumer consumer) {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted()
+                        .forEach(segments::add);
+            }
+
+            long lastSeq = afterSeq;
+            int lastPosition = 0;
+            for (Path segment : segments) {
+                try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                    lastPosition = 0;
+                    while (readBuffer.remaining() >= RECORD_SIZE) {
+                        int position = readBuffer.position();
+                        byte type = readBuffer.get();
+                        long seq = readBuffer.getLong();
+                        long stockId = readBuffer.getLong();
+                        long value = readBuffer.getLong();
+                        int checksum = readBuffer.getInt();
+                        if (type == 0 || checksum != checksum(type, seq, stockId, value)) {
+                            break;
+                        }
+                        lastPosition = position + RECORD_SIZE;
+                        if (seq > afterSeq) {
+                            consumer.accept(type, seq, stockId, value);
+                        }
+                        lastSeq = Math.max(lastSeq, seq);
+                    }
+                }
+            }
+
+            nextSeq = lastSeq + 1;
+            writtenSeq = lastSeq;
+            durableSeq = lastSeq;
+            if (segments.isEmpty()) {
+                openSegment(newSegment(nextSeq), 0);
+            } else {
+                openSegment(segments.get(segments.size() - 1), lastPosition);
+            }
+            flusher.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //==기록 후 seq 반환 (아직 fsync 전)==//
+    long append(byte type, long stockId, long value) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            roll();
+        }
+        long seq = nextSeq++;
+        MappedByteBuffer current = buffer;
+        current.put(type);
+        current.putLong(seq);
+        current.putLong(stockId);
+        current.putLong(value);
+        current.putInt(checksum(type, seq, stockId, value));
+        writtenSeq = seq;
+        return seq;
+    }
+
+    //==seq 까지 fsync 될 때까지 대기 (fsync 를 확인하지 못하면 UncheckedIOException)==//
+    void awaitDurable(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        LockSupport.unpark(flusher);
+        synchronized (durableMonitor) {
+            while (durableSeq < seq) {
+                if (failure != null) {
+                    throw new UncheckedIOException(new IOException("wal flusher stopped", failure));
+                }
+                if (!running) {
+                    throw new UncheckedIOException(new IOException("wal closed before seq " + seq + " was durable"));
+                }
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new InterruptedIOException("interrupted waiting for seq " + seq));
+                }
+            }
+        }
+    }
+
+    long lastSeq() {
+        return writtenSeq;
+    }
+
+    /**
+     * snapshot 에 포함된 seq 까지만 있는 segment 삭제
+     * 다음 segment 의 첫 seq 가 snapshotSeq + 1 이하라면 그 앞 segment 는 모두 snapshot 에 포함된다.
+     */
+    synchronized void truncateUpTo(long snapshotSeq) {
+        try {
+            while (segments.size() > 1 && firstSeq(segments.get(1)) <= snapshotSeq + 1) {
+                Files.deleteIfExists(segments.remove(0));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(flusher);
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // 현재 segment 를 fsync 한 뒤 새 segment 로 교체
+    private synchronized void roll() {
+        buffer.force();
+        try {
+            channel.close();
+            openSegment(newSegment(nextSeq), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path newSegment(long firstSeq) {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        segments.add(segment);
+        return segment;
+    }
+
+    private void openSegment(Path segment, int position) throws IOException {
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        mapped.position(position);
+        buffer = mapped;
+    }
+
+    private void flushLoop() {
+        try {
+            while (running) {
+                long target = writtenSeq;
+                if (target > durableSeq) {
+                    if (fsync) {
+                        buffer.force();
+                    }
+                    durableSeq = target;
+                    synchronized (durableMonitor) {
+                        durableMonitor.notifyAll();
+                    }
+                } else {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // 기다리던 스레드가 끝없이 대기하지 않도록 실패를 알린다.
+            failure = e;
+            synchronized (durableMonitor) {
+                durableMonitor.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private int checksum(byte type, long seq, long stockId, long value) {
+        crc.reset();
+        crc.update(type);
+        updateLong(seq);
+        updateLong(stockId);
+        updateLong(value);
+        return (int) crc.getValue();
+    }
+
+    private void updateLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (value >>> shift));
+        }
+    }
+
+    private static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(byte type, long seq, long stockId, long value);
+    }
+}
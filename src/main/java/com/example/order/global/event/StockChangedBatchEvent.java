@@ -0,0 +1,11 @@
+package com.example.order.global.event;
+
+import java.util.List;
+
+/**
+ * 여러 재고가 한 번에 변경되었을 때 발행 (입고 import 한 묶음)
+ * 상품마다 StockChangedEvent 를 발행하면 listener 마다 상품 수만큼 redis 왕복이 생기기 때문에
+ * listener 는 묶음 단위로 한 번에 (script / pipeline / 메시지 하나) 처리한다.
+ */
+public record StockChangedBatchEvent(List<StockChangedEvent> changes) {
+}
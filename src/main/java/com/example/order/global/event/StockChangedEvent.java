@@ -0,0 +1,51 @@
+package com.example.order.global.event;
+
+import com.example.order.domain.Stock;
+
+/**
+ * 재고 수량이 변경되었을 때 발행
+ * 조건부 update 처럼 변경 후 상태를 조회하지 않는 경우 productId / available / version 은 null
+ *
+ * delta : 이번 변경으로 바뀐 quantity (감소는 음수, 입고는 양수, 예약처럼 quantity 가 그대로면 0)
+ * strategy / requestId : 발행 시점의 StockOperationContext
+ * released : 예약 반환처럼 quantity 는 그대로지만 판매 가능 수량이 늘어난 변경
+ */
+public record StockChangedEvent(Long stockId, Long productId, long delta, Long available, Long version,
+                                String strategy, String requestId, boolean released) {
+
+    public static StockChangedEvent of(Stock stock, long delta) {
+        return new StockChangedEvent(stock.getId(), stock.getProductId(), delta,
+                stock.getAvailableQuantity(), stock.getVersion(),
+                StockOperationContext.strategy(), StockOperationContext.requestId(), false);
+    }
+
+    public static StockChangedEvent unknown(Long stockId, long delta) {
+        return new StockChangedEvent(stockId, null, delta, null, null,
+                StockOperationContext.strategy(), StockOperationContext.requestId(), false);
+    }
+
+    //==변경 후 상태는 모르지만 productId 는 아는 경우 (입고 import)==//
+    public static StockChangedEvent unknown(Long stockId, Long productId, long delta) {
+        return new StockChangedEvent(stockId, productId, delta, null, null,
+                StockOperationContext.strategy(), StockOperationContext.requestId(), false);
+    }
+
+    //==quantity 는 그대로인 변경 (예약 / 예약 반환 등)==//
+    public static StockChangedEvent unknown(Long stockId) {
+        return unknown(stockId, 0L);
+    }
+
+    //==예약 취소 / 만료로 예약 수량을 돌려준 경우==//
+    public static StockChangedEvent released(Long stockId) {
+        return new StockChangedEvent(stockId, null, 0L, null, null,
+                StockOperationContext.strategy(), StockOperationContext.requestId(), true);
+    }
+
+    public boolean isKnown() {
+        return available != null && version != null;
+    }
+
+    public boolean isMovement() {
+        return delta != 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.order.global.event;
+
+import org.slf4j.MDC;
+
+/**
+ * 현재 스레드에서 처리 중인 재고 요청 정보 (MDC)
+ * - strategy : 요청을 처음 받은 facade / service 이름 (StockOperationMetricsAspect 가 기록)
+ * - requestId : 요청 식별자 = idempotency key (없으면 null)
+ *
+ * 로그에도 그대로 찍히도록 MDC 에 둔다.
+ */
+public final class StockOperationContext {
+
+    public static final String STRATEGY = "strategy";
+
+    public static final String REQUEST_ID = "requestId";
+
+    private StockOperationContext() {
+    }
+
+    public static String strategy() {
+        return MDC.get(STRATEGY);
+    }
+
+    public static String requestId() {
+        return MDC.get(REQUEST_ID);
+    }
+
+    /**
+     * requestId 를 지정해서 실행 (재고 감소 진입점에서 중복 요청을 걸러낸다. IdempotencyAspect)
+     * 실행이 끝나면 이전 값으로 되돌린다.
+     */
+    public static <T, E extends Exception> T withRequestId(String requestId, ThrowingSupplier<T, E> action) throws E {
+        String previous = MDC.get(REQUEST_ID);
+        if (requestId == null) {
+            MDC.remove(REQUEST_ID);
+        } else {
+            MDC.put(REQUEST_ID, requestId);
+        }
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                MDC.remove(REQUEST_ID);
+            } else {
+                MDC.put(REQUEST_ID, previous);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T, E extends Exception> {
+        T get() throws E;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 남은 재고보다 많은 요청이 이미 처리 중이라 lock 경로에 들이지 않을 때 발생 (잠시 후 재시도)
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class AdmissionRejectedException extends RuntimeException {
+
+    public AdmissionRejectedException(Long stockId) {
+        super("처리 중인 요청이 많아 받을 수 없습니다. stockId=" + stockId);
+    }
+}
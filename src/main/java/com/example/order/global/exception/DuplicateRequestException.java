@@ -0,0 +1,15 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 같은 request key 의 요청이 아직 처리 중일 때 발생 (처리가 끝난 뒤 다시 요청하면 같은 결과를 받는다)
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateRequestException extends RuntimeException {
+
+    public DuplicateRequestException(String requestKey) {
+        super("처리 중인 요청입니다. requestKey=" + requestKey);
+    }
+}
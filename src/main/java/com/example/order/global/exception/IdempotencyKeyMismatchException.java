@@ -0,0 +1,16 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 같은 request key 로 다른 요청 (다른 상품 / 수량) 이 들어왔을 때 발생
+ * 처음 요청의 결과를 돌려주면 다른 요청이 처리된 것처럼 보이기 때문에 거절한다.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String requestKey) {
+        super("다른 요청에 사용된 request key 입니다. requestKey=" + requestKey);
+    }
+}
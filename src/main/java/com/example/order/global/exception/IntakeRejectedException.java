@@ -0,0 +1,15 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * intake queue 가 가득 차서 요청을 받을 수 없을 때 발생 (잠시 후 재시도)
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IntakeRejectedException extends RuntimeException {
+
+    public IntakeRejectedException(Long stockId) {
+        super("요청이 많아 접수할 수 없습니다. stockId=" + stockId);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 정해진 시간 안에 lock 을 획득하지 못했을 때 발생
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LockAcquisitionException extends RuntimeException {
+
+    public LockAcquisitionException(String key) {
+        super("lock 획득 실패 key=" + key);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 재고 부족으로 감소가 불가능 할 때 발생
+ * 락 획득 실패 / 버전 충돌과 구분하기 위해 별도의 예외로 분리
+ *
+ * 감소를 시도한 시점의 재고 (stockId / available) 를 알면 함께 담는다. (SoldOutFilter 가 품절 표시에 사용)
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SoldOutException extends RuntimeException {
+
+    private final Long stockId;
+
+    private final long available;
+
+    public SoldOutException() {
+        this(null, -1);
+    }
+
+    public SoldOutException(Long stockId, long available) {
+        super("재고는 0개 미만이 될 수 없습니다.");
+        this.stockId = stockId;
+        this.available = available;
+    }
+
+    public Long getStockId() {
+        return stockId;
+    }
+
+    //==남은 재고가 0 인 것을 확인한 경우 (요청 수량보다 적게 남은 경우와 구분)==//
+    public boolean isExhausted() {
+        return stockId != null && available <= 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.order.global.exception;
+
+/**
+ * 입고 import 도중 반영에 실패했을 때 발생
+ * 이미 반영된 chunk 는 되돌리지 않기 때문에 반영된 row 수를 같이 남긴다.
+ */
+public class StockImportException extends RuntimeException {
+
+    public StockImportException(long appliedRows, Throwable cause) {
+        super("입고 import 실패, 이미 반영된 row 수=" + appliedRows, cause);
+    }
+}
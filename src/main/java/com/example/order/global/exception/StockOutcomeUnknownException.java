@@ -0,0 +1,19 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 재고 변경은 반영했지만 유지되는지 확인하지 못했을 때 발생 (in-memory 엔진의 fsync 대기 중 interrupt / 종료 / flusher 실패)
+ * 메모리와 log 에는 이미 반영되어 있어서 서버가 계속 뜨면 DB 에도 반영되고, log 가 디스크에 남기 전에 죽으면 사라진다.
+ *
+ * 실패로 보고 같은 요청을 다시 보내면 두 번 감소할 수 있다. (재시도 전에 재고 / ledger 로 확인)
+ * idempotency key 로 들어온 요청은 처리 중 표시를 남겨서 pending-ttl 동안 다시 처리하지 않는다.
+ */
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class StockOutcomeUnknownException extends RuntimeException {
+
+    public StockOutcomeUnknownException(Long stockId, Throwable cause) {
+        super("재고 변경 결과를 확인하지 못했습니다. stockId=" + stockId, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.order.global.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * 지원하지 않는 재고 감소 방식 이름으로 요청했을 때 발생
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedStrategyException extends RuntimeException {
+
+    public UnsupportedStrategyException(String strategy, Collection<String> supported) {
+        super("지원하지 않는 strategy 입니다. strategy=" + strategy + ", supported=" + new TreeSet<>(supported));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.order.global.executor;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+@Component
+public class StockTaskExecutor {
+
+    /**
+     * 락 대기가 있는 재고 요청을 별도의 실행기로 넘겨서 Tomcat worker 가 대기하지 않도록 한다.
+     *
+     * mode
+     * - platform : 고정 크기 스레드 풀 (기존 방식과 동일)
+     * - virtual  : 요청마다 virtual thread (Java 21 이상), 락 대기 중에는 carrier thread 를 반납한다.
+     *
+     * virtual thread 는 사실상 무제한으로 만들어지기 때문에 semaphore 로 동시 실행 수를 제한한다.
+     * - 상품별 semaphore : 같은 상품의 락 대기열이 끝없이 길어지지 않도록
+     *   실행 / 대기 중인 요청이 있는 상품만 map 에 두고, 마지막 요청이 끝나면 지운다.
+     * - 전체 semaphore : hikari pool (maximum-pool-size) 보다 많은 요청이 커넥션을 기다리지 않도록
+     *
+     * 빌드는 Java 17 이기 때문에 virtual thread 는 reflection 으로 생성하고, 지원하지 않는 JVM 이면 platform 으로 동작
+     */
+
+    public interface StockTask {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService executorService;
+
+    private final Semaphore globalPermits;
+
+    private final int permitsPerProduct;
+
+    private final ConcurrentHashMap<Long, ProductPermits> productPermits = new ConcurrentHashMap<>();
+
+    public StockTaskExecutor(@Value("${stock.execution.mode:platform}") String mode,
+                             @Value("${stock.execution.platform-threads:200}") int platformThreads,
+                             @Value("${stock.execution.max-concurrency:30}") int maxConcurrency,
+                             @Value("${stock.execution.permits-per-product:8}") int permitsPerProduct) {
+        this.executorService = "virtual".equalsIgnoreCase(mode)
+                ? newVirtualThreadExecutor(platformThreads)
+                : Executors.newFixedThreadPool(platformThreads);
+        this.globalPermits = new Semaphore(maxConcurrency, true);
+        this.permitsPerProduct = permitsPerProduct;
+    }
+
+    public CompletableFuture<Void> submit(Long id, StockTask task) {
+        return execute(() -> {
+            ProductPermits product = productPermits.compute(id, (key, current) -> {
+                ProductPermits joined = current != null ? current : new ProductPermits(permitsPerProduct);
+                joined.users++;
+                return joined;
+            });
+            try {
+                product.semaphore.acquire();
+                try {
+                    runWithGlobalPermit(task);
+                } finally {
+                    product.semaphore.release();
+                }
+            } finally {
+                productPermits.computeIfPresent(id, (key, current) -> --current.users == 0 ? null : current);
+            }
+        });
+    }
+
+    //==여러 상품 : 상품별 대기열은 lock 순서대로 facade 가 지키고, 전체 동시 실행 수만 제한==//
+    public CompletableFuture<Void> submit(StockTask task) {
+        return execute(() -> runWithGlobalPermit(task));
+    }
+
+    private void runWithGlobalPermit(StockTask task) throws Exception {
+        globalPermits.acquire();
+        try {
+            task.run();
+        } finally {
+            globalPermits.release();
+        }
+    }
+
+    private CompletableFuture<Void> execute(StockTask task) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                task.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executorService);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    // 실행 / 대기 중인 요청이 있는 상품 수 (테스트 확인용)
+    int activeProducts() {
+        return productPermits.size();
+    }
+
+    //==users 는 같은 key 의 compute 안에서만 바꾼다==//
+    private static class ProductPermits {
+        private final Semaphore semaphore;
+        private int users;
+
+        private ProductPermits(int permits) {
+            this.semaphore = new Semaphore(permits, true);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor(int platformThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtual thread 를 지원하지 않는 JVM 입니다. platform 스레드 풀로 실행합니다.");
+            return Executors.newFixedThreadPool(platformThreads);
+        }
+    }
+}
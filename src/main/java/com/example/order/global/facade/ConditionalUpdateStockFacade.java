@@ -0,0 +1,54 @@
+package com.example.order.global.facade;
+
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.service.ConditionalUpdateStockService;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ConditionalUpdateStockFacade {
+
+    /**
+     * 별도의 lock 획득 / 재시도가 필요 없다.
+     * 다른 facade 들과 같은 형태로 벤치마크 하기 위해 분리
+     */
+
+    private final ConditionalUpdateStockService conditionalUpdateStockService;
+
+    private final StockMetrics stockMetrics;
+
+    public ConditionalUpdateStockFacade(ConditionalUpdateStockService conditionalUpdateStockService, StockMetrics stockMetrics) {
+        this.conditionalUpdateStockService = conditionalUpdateStockService;
+        this.stockMetrics = stockMetrics;
+    }
+
+    public void decrease(Long id, Long quantity) {
+        try {
+            conditionalUpdateStockService.decrease(id, quantity);
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("conditional", id);
+            throw e;
+        }
+    }
+
+    public void decreaseByProduct(Long productId, Long quantity) {
+        try {
+            conditionalUpdateStockService.decreaseByProduct(productId, quantity);
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("conditional", e.getStockId());
+            throw e;
+        }
+    }
+
+    public void decreaseAll(List<DecreaseItem> items) {
+        try {
+            conditionalUpdateStockService.decreaseAll(items);
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("conditional", e.getStockId());
+            throw e;
+        }
+    }
+}
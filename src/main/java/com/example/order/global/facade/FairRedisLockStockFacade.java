@@ -0,0 +1,78 @@
+package com.example.order.global.facade;
+
+import com.example.order.global.exception.LockAcquisitionException;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.lock.FairRedisLock;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.service.StockService;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class FairRedisLockStockFacade {
+
+    /**
+     * 번호표 순서대로 lock 을 넘겨주는 공정 lock
+     * lettuce 처럼 spin 하지 않고 자기 차례 알림 (pub / sub) 을 기다린다.
+     * 재고 감소가 lease 보다 길어져도 watchdog 이 lease 를 연장하기 때문에 작업 도중 lock 이 풀리지 않는다.
+     */
+
+    private final FairRedisLock fairRedisLock;
+
+    private final StockService stockService;
+
+    private final StockMetrics stockMetrics;
+
+    public FairRedisLockStockFacade(FairRedisLock fairRedisLock, StockService stockService, StockMetrics stockMetrics) {
+        this.fairRedisLock = fairRedisLock;
+        this.stockService = stockService;
+        this.stockMetrics = stockMetrics;
+    }
+
+    public void decrease(Long id, Long quantity) throws InterruptedException {
+        long waitStartedAt = System.nanoTime();
+        FairRedisLock.Handle handle;
+        try {
+            handle = fairRedisLock.lock(id);
+        } catch (LockAcquisitionException e) {
+            stockMetrics.lockFailure("fair", id, "timeout");
+            throw e;
+        }
+        stockMetrics.recordLockWait("fair", id, waitStartedAt);
+        long holdStartedAt = System.nanoTime();
+        try {
+            stockService.decrease(id, quantity);
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("fair", id);
+            throw e;
+        } finally {
+            fairRedisLock.unlock(handle);
+            stockMetrics.recordLockHold("fair", id, holdStartedAt);
+        }
+    }
+
+    //==여러 상품 : id 순서로 lock 을 모두 잡은 뒤 한 트랜잭션에서 감소==//
+    public void decreaseAll(List<DecreaseItem> items) throws InterruptedException {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<FairRedisLock.Handle> handles = new ArrayList<>(canonical.size());
+        try {
+            for (Long id : DecreaseItem.ids(canonical)) {
+                handles.add(fairRedisLock.lock(id));
+            }
+            stockService.decreaseAll(canonical);
+        } catch (LockAcquisitionException e) {
+            stockMetrics.lockFailure("fair", null, "timeout");
+            throw e;
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("fair", e.getStockId());
+            throw e;
+        } finally {
+            for (int i = handles.size() - 1; i >= 0; i--) {
+                fairRedisLock.unlock(handles.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.order.global.facade;
+
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.service.GroupCommitStockService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class GroupCommitStockFacade {
+
+    /**
+     * 상품별로 요청을 queue 에 쌓고, 먼저 들어온 스레드 하나가 대표로 batch 를 처리한다. (flat combining)
+     * 대표 스레드는 max-wait 동안 혹은 max-batch-size 가 찰 때까지 기다린 후 한 트랜잭션으로 반영
+     * 나머지 스레드는 lock 을 기다리지 않고 자신의 future 가 완료되기만 기다리면 된다.
+     *
+     * - 대표 스레드는 batch 가 찰 때까지 condition 으로 기다린다. (batch 를 채운 요청이 깨운다)
+     * - 처리할 요청이 없는 batch 는 map 에서 뺀다. 요청 등록 / 제거는 같은 key 의 compute 안에서 해서
+     *   빠진 batch 에 요청이 남지 않는다.
+     *
+     * 단점: 요청 하나의 응답 시간은 최대 max-wait 만큼 늘어날 수 있다.
+     */
+
+    private final GroupCommitStockService groupCommitStockService;
+
+    private final int maxBatchSize;
+
+    private final long maxWaitNanos;
+
+    private final StockMetrics stockMetrics;
+
+    private final ConcurrentHashMap<Long, Batch> batches = new ConcurrentHashMap<>();
+
+    public GroupCommitStockFacade(GroupCommitStockService groupCommitStockService,
+                                  @Value("${stock.group-commit.max-batch-size:100}") int maxBatchSize,
+                                  @Value("${stock.group-commit.max-wait-micros:500}") long maxWaitMicros,
+                                  StockMetrics stockMetrics) {
+        this.groupCommitStockService = groupCommitStockService;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        this.stockMetrics = stockMetrics;
+    }
+
+    public CompletableFuture<Void> decrease(Long id, Long quantity) {
+        Request request = new Request(quantity);
+        Batch batch = batches.compute(id, (key, current) -> {
+            Batch joined = current != null ? current : new Batch();
+            joined.pending.incrementAndGet();
+            return joined;
+        });
+        batch.queue.offer(request);
+        if (batch.pending.get() >= maxBatchSize) {
+            batch.signalFull();
+        }
+        combine(id, batch);
+        return request.future;
+    }
+
+    //==대표 스레드가 batch 처리==//
+    private void combine(Long id, Batch batch) {
+        while (batch.draining.compareAndSet(false, true)) {
+            try {
+                while (batch.pending.get() > 0) {
+                    awaitBatch(batch);
+                    commit(id, poll(batch));
+                }
+            } finally {
+                batch.draining.set(false);
+            }
+            // flag 해제 직전에 들어온 요청이 있다면 다시 대표가 되어 처리
+            if (batch.pending.get() == 0) {
+                batches.computeIfPresent(id, (key, current) -> current == batch && batch.pending.get() == 0 ? null : current);
+                return;
+            }
+        }
+    }
+
+    private void awaitBatch(Batch batch) {
+        batch.lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (batch.pending.get() < maxBatchSize && remaining > 0) {
+                remaining = batch.full.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            // 기다리지 않고 지금까지 모인 요청을 처리
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.lock.unlock();
+        }
+    }
+
+    private List<Request> poll(Batch batch) {
+        List<Request> requests = new ArrayList<>(maxBatchSize);
+        Request request;
+        while (requests.size() < maxBatchSize && (request = batch.queue.poll()) != null) {
+            requests.add(request);
+        }
+        batch.pending.addAndGet(-requests.size());
+        return requests;
+    }
+
+    private void commit(Long id, List<Request> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<Long> quantities = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            quantities.add(request.quantity);
+        }
+
+        List<Boolean> results;
+        long holdStartedAt = System.nanoTime();
+        try {
+            results = groupCommitStockService.decreaseInArrivalOrder(id, quantities);
+            stockMetrics.recordLockHold("group_commit", id, holdStartedAt);
+        } catch (Exception e) {
+            // batch 전체가 rollback 되었으므로 모든 요청을 실패 처리
+            requests.forEach(request -> request.future.completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (results.get(i)) {
+                requests.get(i).future.complete(null);
+            } else {
+                stockMetrics.soldOut("group_commit", id);
+                requests.get(i).future.completeExceptionally(new SoldOutException());
+            }
+        }
+    }
+
+    // 처리 중인 상품 수 (테스트 확인용)
+    int activeBatches() {
+        return batches.size();
+    }
+
+    private static class Batch {
+        private final Queue<Request> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition full = lock.newCondition();
+
+        private void signalFull() {
+            lock.lock();
+            try {
+                full.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class Request {
+        private final Long quantity;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Request(Long quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
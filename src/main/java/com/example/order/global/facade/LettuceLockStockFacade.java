@@ -1,9 +1,14 @@
 package com.example.order.global.facade;
 
-import com.example.order.repository.RedisLockRepository;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.lock.TwoLevelRedisLock;
+import com.example.order.global.metrics.StockMetrics;
 import com.example.order.service.StockService;
+import com.example.order.service.dto.DecreaseItem;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 // 실무에서는 재시도가 필요하지 않은 Lock일 때 lettuce 사용
 @Component
 public class LettuceLockStockFacade {
@@ -11,27 +16,51 @@ public class LettuceLockStockFacade {
      * 구현이 간단하다
      * spring data redis를 이용하면 기본이기 때문에 별도의 라이브러리를 사용하지 않아도 된다.
      * spin lock 방식이기 때문에 동시에 많은 스레드가 lock 획득 대기 상태라면 redis에 부하가 갈 수 있다.
+     * -> TwoLevelRedisLock 으로 서버 내부에서 먼저 줄을 세워 redis 를 두드리는 스레드를 서버당 하나로 줄임
      */
 
 
 
-    private final RedisLockRepository redisLockRepository;
+    private final TwoLevelRedisLock twoLevelRedisLock;
 
     private final StockService stockService;
 
-    public LettuceLockStockFacade(RedisLockRepository redisLockRepository, StockService stockService) {
-        this.redisLockRepository = redisLockRepository;
+    private final StockMetrics stockMetrics;
+
+    public LettuceLockStockFacade(TwoLevelRedisLock twoLevelRedisLock, StockService stockService, StockMetrics stockMetrics) {
+        this.twoLevelRedisLock = twoLevelRedisLock;
         this.stockService = stockService;
+        this.stockMetrics = stockMetrics;
     }
 
     public void decrease(Long id, Long quantity) throws InterruptedException {
-        while (!redisLockRepository.lock(id)) { // 락 획득 실패시 텀을 주고 재실행 redis 로 가는 부하 방지
-            Thread.sleep(100);
-        }
+        long waitStartedAt = System.nanoTime();
+        twoLevelRedisLock.lock(id);
+        stockMetrics.recordLockWait("lettuce", id, waitStartedAt);
+        long holdStartedAt = System.nanoTime();
         try {
             stockService.decrease(id,quantity);
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("lettuce", id);
+            throw e;
+        } finally {
+            twoLevelRedisLock.unlock(id);
+            stockMetrics.recordLockHold("lettuce", id, holdStartedAt);
+        }
+    }
+
+    //==여러 상품 : id 순서로 lock 을 모두 잡은 뒤 한 트랜잭션에서 감소==//
+    public void decreaseAll(List<DecreaseItem> items) throws InterruptedException {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<Long> ids = DecreaseItem.ids(canonical);
+        twoLevelRedisLock.lockAll(ids);
+        try {
+            stockService.decreaseAll(canonical);
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("lettuce", e.getStockId());
+            throw e;
         } finally {
-            redisLockRepository.unlock(id);
+            twoLevelRedisLock.unlockAll(ids);
         }
     }
 
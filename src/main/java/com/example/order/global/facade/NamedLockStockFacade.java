@@ -1,29 +1,71 @@
 package com.example.order.global.facade;
 
-import com.example.order.repository.LockRepository;
+import com.example.order.global.exception.LockAcquisitionException;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.repository.JdbcNamedLockRepository;
 import com.example.order.service.StockService;
+import com.example.order.service.dto.DecreaseItem;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Service
 public class NamedLockStockFacade {
 
-    private final LockRepository lockRepository;
+    /**
+     * lock 은 JdbcNamedLockRepository 의 전용 pool 에서 잡고
+     * 재고 감소는 StockService (REQUIRES_NEW) 에서 기존 pool 로 처리
+     * facade 에서 트랜잭션을 열지 않기 때문에 요청당 재고 pool 커넥션은 하나만 사용한다.
+     */
+
+    private final JdbcNamedLockRepository jdbcNamedLockRepository;
     private final StockService stockService;
+    private final StockMetrics stockMetrics;
 
-    public NamedLockStockFacade(LockRepository lockRepository, StockService stockService) {
-        this.lockRepository = lockRepository;
+    public NamedLockStockFacade(JdbcNamedLockRepository jdbcNamedLockRepository, StockService stockService, StockMetrics stockMetrics) {
+        this.jdbcNamedLockRepository = jdbcNamedLockRepository;
         this.stockService = stockService;
+        this.stockMetrics = stockMetrics;
     }
 
-    @Transactional
     public void decrease(Long id, Long quantity) {
+        long waitStartedAt = System.nanoTime();
+        try {
+            jdbcNamedLockRepository.executeWithLock(id.toString(), () -> {
+                stockMetrics.recordLockWait("named", id, waitStartedAt);
+                long holdStartedAt = System.nanoTime();
+                try {
+                    stockService.decrease(id, quantity);
+                } finally {
+                    stockMetrics.recordLockHold("named", id, holdStartedAt);
+                }
+                return null;
+            });
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("named", id);
+            throw e;
+        } catch (LockAcquisitionException e) {
+            stockMetrics.lockFailure("named", id, "timeout");
+            throw e;
+        }
+    }
+
+    //==여러 상품 : 전용 커넥션 하나에서 정렬된 순서로 named lock 을 모두 잡은 뒤 감소==//
+    public void decreaseAll(List<DecreaseItem> items) {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<String> keys = DecreaseItem.ids(canonical).stream().map(String::valueOf).toList();
         try {
-            lockRepository.getLock(id.toString());
-            stockService.decrease(id,quantity);
-        } finally {
-            // 모든 로직 종료시 락 해제
-            lockRepository.releaseLock(id.toString());
+            jdbcNamedLockRepository.executeWithLocks(keys, () -> {
+                stockService.decreaseAll(canonical);
+                return null;
+            });
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("named", e.getStockId());
+            throw e;
+        } catch (LockAcquisitionException e) {
+            stockMetrics.lockFailure("named", null, "timeout");
+            throw e;
         }
     }
 }
@@ -1,27 +1,165 @@
 package com.example.order.global.facade;
 
+import com.example.order.global.contention.ContentionTracker;
+import com.example.order.global.exception.LockAcquisitionException;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.global.product.ProductStockIndex;
+import com.example.order.global.retry.RetryPolicy;
 import com.example.order.service.OptimisticLockSockService;
+import com.example.order.service.PessimisticLockStockService;
+import com.example.order.service.dto.DecreaseItem;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 
 @Component
 public class OptimisticLockStockFacade {
 
+    /**
+     * 버전 충돌 시 RetryPolicy 에 따라 재시도
+     * - 재고 부족처럼 재시도해도 소용없는 예외는 바로 던진다.
+     * - 재시도 횟수 / 시간을 넘기면 LockAcquisitionException
+     * - 충돌이 많은 상품(hot)은 재시도 대신 pessimistic lock 으로 전환
+     *
+     * StockDecreaseRouter 를 거치는 요청은 router 가 단계를 정하므로 전환하지 않는 ...WithoutEscalation 을 사용한다.
+     * (router 의 escalate-conflict-rate 가 hot-threshold 보다 낮아서 router 의 단계가 항상 먼저 적용된다.)
+     */
+
     private final OptimisticLockSockService optimisticLockSockService;
 
-    public OptimisticLockStockFacade(OptimisticLockSockService optimisticLockSockService) {
+    private final PessimisticLockStockService pessimisticLockStockService;
+
+    private final RetryPolicy retryPolicy;
+
+    private final ContentionTracker contentionTracker;
+
+    private final StockMetrics stockMetrics;
+
+    private final ProductStockIndex productStockIndex;
+
+    public OptimisticLockStockFacade(OptimisticLockSockService optimisticLockSockService,
+                                     PessimisticLockStockService pessimisticLockStockService,
+                                     RetryPolicy retryPolicy,
+                                     ContentionTracker contentionTracker,
+                                     StockMetrics stockMetrics,
+                                     ProductStockIndex productStockIndex) {
         this.optimisticLockSockService = optimisticLockSockService;
+        this.pessimisticLockStockService = pessimisticLockStockService;
+        this.retryPolicy = retryPolicy;
+        this.contentionTracker = contentionTracker;
+        this.stockMetrics = stockMetrics;
+        this.productStockIndex = productStockIndex;
     }
 
     public void decrease(Long id, Long quantity) throws InterruptedException {
-        while (true) {
-            try{
-                optimisticLockSockService.decrease(id,quantity);
-                break;
-            } catch (Exception e) {
-                // 수량 감소 실패시 50밀리세컨드 이후에 진행
-                Thread.sleep(50);
+        try {
+            decreaseWithRetry(id,
+                    () -> optimisticLockSockService.decrease(id, quantity),
+                    () -> pessimisticLockStockService.decrease(id, quantity));
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("optimistic", id);
+            throw e;
+        }
+    }
+
+    //==router 의 OPTIMISTIC 단계 : hot 이어도 pessimistic 으로 전환하지 않고 재시도만==//
+    public void decreaseWithoutEscalation(Long id, Long quantity) throws InterruptedException {
+        try {
+            decreaseWithRetry(id, () -> optimisticLockSockService.decrease(id, quantity), null);
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("optimistic", id);
+            throw e;
+        }
+    }
+
+    //==productId (unique index) 로 조회, 충돌 통계는 같은 재고끼리 모이도록 stockId 기준==//
+    public void decreaseByProduct(Long productId, Long quantity) throws InterruptedException {
+        try {
+            decreaseWithRetry(productStockIndex.stockId(productId),
+                    () -> optimisticLockSockService.decreaseByProduct(productId, quantity),
+                    () -> pessimisticLockStockService.decreaseByProduct(productId, quantity));
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("optimistic", e.getStockId());
+            throw e;
+        }
+    }
+
+    //==pessimistic : null 이면 hot 이어도 전환하지 않는다.==//
+    private void decreaseWithRetry(Long id, Runnable optimistic, Runnable pessimistic) throws InterruptedException {
+        contentionTracker.recordArrival(id);
+        long startedAt = System.nanoTime();
+        long delay = 0;
+        for (int attempt = 1; ; attempt++) {
+            if (pessimistic != null && contentionTracker.isHot(id)) {
+                pessimistic.run();
+                return;
+            }
+            try {
+                optimistic.run();
+                return;
+            } catch (RuntimeException e) {
+                if (!retryPolicy.isRetryable(e)) {
+                    throw e;
+                }
+                contentionTracker.recordConflict(id);
+                if (!retryPolicy.canRetry(attempt, startedAt)) {
+                    stockMetrics.lockFailure("optimistic", id, "retry_exhausted");
+                    throw new LockAcquisitionException(id.toString());
+                }
+            }
+            // 수량 감소 실패시 jitter 를 준 간격 이후에 진행
+            stockMetrics.retry("optimistic", id);
+            delay = retryPolicy.nextDelayMillis(delay);
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * 여러 상품 : IN 쿼리로 조회 후 한 트랜잭션에서 감소, 버전 충돌 시 전체 재시도
+     * hot 상품이 하나라도 포함되면 pessimistic lock 으로 전환 (id 순서로 lock)
+     */
+    public void decreaseAll(List<DecreaseItem> items) throws InterruptedException {
+        decreaseAllWithRetry(DecreaseItem.canonicalize(items), true);
+    }
+
+    //==router 의 OPTIMISTIC 단계 (여러 상품)==//
+    public void decreaseAllWithoutEscalation(List<DecreaseItem> items) throws InterruptedException {
+        decreaseAllWithRetry(DecreaseItem.canonicalize(items), false);
+    }
+
+    private void decreaseAllWithRetry(List<DecreaseItem> canonical, boolean escalate) throws InterruptedException {
+        List<Long> ids = DecreaseItem.ids(canonical);
+        ids.forEach(contentionTracker::recordArrival);
+        long startedAt = System.nanoTime();
+        long delay = 0;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                if (escalate && ids.stream().anyMatch(contentionTracker::isHot)) {
+                    pessimisticLockStockService.decreaseAll(canonical);
+                    return;
+                }
+                try {
+                    optimisticLockSockService.decreaseAll(canonical);
+                    return;
+                } catch (RuntimeException e) {
+                    if (!retryPolicy.isRetryable(e)) {
+                        throw e;
+                    }
+                    ids.forEach(contentionTracker::recordConflict);
+                    if (!retryPolicy.canRetry(attempt, startedAt)) {
+                        stockMetrics.lockFailure("optimistic", null, "retry_exhausted");
+                        throw new LockAcquisitionException(ids.toString());
+                    }
+                }
+                stockMetrics.retry("optimistic", null);
+                delay = retryPolicy.nextDelayMillis(delay);
+                Thread.sleep(delay);
             }
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("optimistic", e.getStockId());
+            throw e;
         }
     }
 }
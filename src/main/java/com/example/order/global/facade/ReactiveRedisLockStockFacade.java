@@ -0,0 +1,120 @@
+package com.example.order.global.facade;
+
+import com.example.order.global.exception.LockAcquisitionException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.repository.ReactiveRedisLockRepository;
+import com.example.order.service.StockService;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+public class ReactiveRedisLockStockFacade {
+
+    /**
+     * LettuceLockStockFacade 의 non-blocking 버전
+     * - 락 획득 실패 시 Thread.sleep 대신 Mono.delay 로 대기하기 때문에 대기 중에 스레드를 점유하지 않는다.
+     * - 대기 간격은 jitter 를 준 exponential backoff (동시에 재시도하는 요청이 몰리지 않도록)
+     * - 락이 해제되면 release 알림을 받고 backoff 를 기다리지 않고 바로 재시도
+     * - max-wait 안에 획득하지 못하면 LockAcquisitionException
+     *
+     * StockService 는 JPA(blocking) 이기 때문에 boundedElastic 에서 실행
+     */
+
+    private final ReactiveRedisLockRepository reactiveRedisLockRepository;
+
+    private final StockService stockService;
+
+    private final Duration maxWait;
+
+    private final long baseBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final StockMetrics stockMetrics;
+
+    public ReactiveRedisLockStockFacade(ReactiveRedisLockRepository reactiveRedisLockRepository,
+                                        StockService stockService,
+                                        @Value("${stock.reactive-lock.max-wait:10s}") Duration maxWait,
+                                        @Value("${stock.reactive-lock.base-backoff-ms:10}") long baseBackoffMillis,
+                                        @Value("${stock.reactive-lock.max-backoff-ms:200}") long maxBackoffMillis,
+                                        StockMetrics stockMetrics) {
+        this.reactiveRedisLockRepository = reactiveRedisLockRepository;
+        this.stockService = stockService;
+        this.maxWait = maxWait;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.stockMetrics = stockMetrics;
+    }
+
+    public Mono<Void> decrease(Long id, Long quantity) {
+        return Mono.defer(() -> {
+            long waitStartedAt = System.nanoTime();
+            String token = UUID.randomUUID().toString();
+            return Mono.usingWhen(
+                    acquire(id, token, waitStartedAt + maxWait.toNanos(), 0)
+                            .doOnNext(locked -> stockMetrics.recordLockWait("reactive", id, waitStartedAt)),
+                    locked -> Mono.fromRunnable(() -> stockService.decrease(id, quantity))
+                            .subscribeOn(Schedulers.boundedElastic()),
+                    locked -> reactiveRedisLockRepository.unlock(id, token));
+        });
+    }
+
+    /**
+     * 여러 상품 : id 순서대로 하나씩 lock 을 잡고 모두 잡으면 한 트랜잭션에서 감소
+     * 중간에 실패해도 그때까지 잡은 lock 은 해제된다.
+     */
+    public Mono<Void> decreaseAll(List<DecreaseItem> items) {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        return Mono.defer(() -> {
+            long deadline = System.nanoTime() + maxWait.toNanos();
+            String token = UUID.randomUUID().toString();
+            List<Long> held = Collections.synchronizedList(new ArrayList<>());
+            return Mono.usingWhen(
+                    Mono.just(held),
+                    locks -> Flux.fromIterable(canonical)
+                            .concatMap(item -> acquire(item.id(), token, deadline, 0).doOnNext(locked -> locks.add(item.id())))
+                            .then(Mono.<Void>fromRunnable(() -> stockService.decreaseAll(canonical))
+                                    .subscribeOn(Schedulers.boundedElastic())),
+                    locks -> Flux.fromIterable(new ArrayList<>(locks))
+                            .concatMap(id -> reactiveRedisLockRepository.unlock(id, token))
+                            .then());
+        });
+    }
+
+    private Mono<Boolean> acquire(Long id, String token, long deadline, int attempt) {
+        return reactiveRedisLockRepository.lock(id, token)
+                .flatMap(locked -> {
+                    if (locked) {
+                        return Mono.just(true);
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        stockMetrics.lockFailure("reactive", id, "timeout");
+                        return Mono.<Boolean>error(new LockAcquisitionException(id.toString()));
+                    }
+                    // 해제 알림 / backoff 중 먼저 오는 쪽에서 재시도
+                    Duration backoff = Duration.ofMillis(Math.min(backoff(attempt), Duration.ofNanos(remaining).toMillis() + 1));
+                    return Mono.firstWithSignal(
+                                    reactiveRedisLockRepository.awaitRelease(id).then(),
+                                    Mono.delay(backoff).then())
+                            .then(Mono.defer(() -> acquire(id, token, deadline, attempt + 1)));
+                });
+    }
+
+    //==full jitter : 0 ~ min(max, base * 2^attempt)==//
+    private long backoff(int attempt) {
+        long exponential = baseBackoffMillis << Math.min(attempt, 16);
+        return ThreadLocalRandom.current().nextLong(Math.min(maxBackoffMillis, exponential) + 1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.global.soldout.SoldOutFilter;
+import com.example.order.repository.RedisStockRepository;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Component
+public class RedisCounterStockFacade {
+
+    /**
+     * 재고 수량을 redis 가 기준으로 관리하는 방식
+     * lock 획득 / 해제 왕복과 DB 트랜잭션이 요청 경로에서 사라진다.
+     * DB 반영은 RedisStockWriteBehind 가 비동기로 처리
+     *
+     * 단점: flush 전에 redis 가 유실되면 그 사이 감소분이 사라질 수 있다. (AOF 설정 필요)
+     */
+
+    private final RedisStockRepository redisStockRepository;
+
+    private final StockRepository stockRepository;
+
+    private final StockMetrics stockMetrics;
+
+    private final SoldOutFilter soldOutFilter;
+
+    public RedisCounterStockFacade(RedisStockRepository redisStockRepository, StockRepository stockRepository,
+                                   StockMetrics stockMetrics, SoldOutFilter soldOutFilter) {
+        this.redisStockRepository = redisStockRepository;
+        this.stockRepository = stockRepository;
+        this.stockMetrics = stockMetrics;
+        this.soldOutFilter = soldOutFilter;
+    }
+
+    public Long decrease(Long id, Long quantity) {
+        Long remaining = redisStockRepository.decrease(id, quantity);
+        if (remaining == RedisStockRepository.NOT_LOADED) {
+            // 아직 redis 에 적재되지 않은 재고라면 DB 에서 적재 후 한 번 더 시도
+            Stock stock = stockRepository.findById(id).orElseThrow();
+            redisStockRepository.load(id, stock.getAvailableQuantity());
+            remaining = redisStockRepository.decrease(id, quantity);
+        }
+        if (remaining == RedisStockRepository.SOLD_OUT) {
+            stockMetrics.soldOut("redis_counter", id);
+            throw new SoldOutException();
+        }
+        // DB 반영 (write-behind) 을 기다리지 않고 마지막 재고를 가져간 시점에 품절 표시
+        if (remaining == 0) {
+            soldOutFilter.markSoldOut(id);
+        }
+        return remaining;
+    }
+
+    //==여러 상품 : lua script 한 번으로 전부 감소하거나 전부 실패==//
+    public void decreaseAll(List<DecreaseItem> items) {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<Long> ids = DecreaseItem.ids(canonical);
+        List<Long> quantities = canonical.stream().map(DecreaseItem::quantity).toList();
+        Long result = redisStockRepository.decreaseAll(ids, quantities);
+        if (result == RedisStockRepository.NOT_LOADED) {
+            for (Stock stock : stockRepository.findAllById(ids)) {
+                redisStockRepository.load(stock.getId(), stock.getAvailableQuantity());
+            }
+            result = redisStockRepository.decreaseAll(ids, quantities);
+        }
+        if (result == RedisStockRepository.NOT_LOADED) {
+            throw new NoSuchElementException("재고가 존재하지 않습니다. ids=" + ids);
+        }
+        if (result == RedisStockRepository.SOLD_OUT) {
+            stockMetrics.soldOut("redis_counter", null);
+            throw new SoldOutException();
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.order.global.facade;
 
+import com.example.order.global.exception.LockAcquisitionException;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.lock.LocalLockStripes;
+import com.example.order.global.metrics.StockMetrics;
 import com.example.order.service.StockService;
+import com.example.order.service.dto.DecreaseItem;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 // 실무에서는 재시도가 필요한 Lock 일 때  Redisson 사용
 @Component
@@ -16,33 +23,111 @@ public class RedissonLockStockFacade {
      * pub-sub 방식으로 구현이 되어있기 때문에 lettuce와 비교했을 때 redis 부하가 덜 간다.
      * 별도의 라이브러리를 사용해야한다.
      * lock을 라이브러리 차원에서 제공해주기 때문에 사용법을 공부해야한다.
+     *
+     * 같은 서버의 요청은 LocalLockStripes 에서 먼저 줄을 세워 redis 로 가는 lock 요청을 줄인다.
+     * RLock 은 스레드 단위로 소유되기 때문에 다른 스레드에게 넘겨줄 수는 없다.
      */
 
     private RedissonClient redissonClient;
 
     private StockService stockService;
 
-    public RedissonLockStockFacade(RedissonClient redissonClient, StockService stockService) {
+    private StockMetrics stockMetrics;
+
+    private LocalLockStripes localLockStripes;
+
+    public RedissonLockStockFacade(RedissonClient redissonClient, StockService stockService, StockMetrics stockMetrics,
+                                   LocalLockStripes localLockStripes) {
         this.redissonClient = redissonClient;
         this.stockService = stockService;
+        this.stockMetrics = stockMetrics;
+        this.localLockStripes = localLockStripes;
     }
 
     public void decrease(Long id, Long quantity) {
+        ReentrantLock local = localLockStripes.get(id);
+        try {
+            local.lockInterruptibly();
+        } catch (InterruptedException e) {
+            stockMetrics.lockFailure("redisson", id, "interrupted");
+            throw new RuntimeException(e);
+        }
+        try {
+            decreaseWithRedisLock(id, quantity);
+        } finally {
+            local.unlock();
+        }
+    }
+
+    private void decreaseWithRedisLock(Long id, Long quantity) {
         RLock lock = redissonClient.getLock(id.toString()); // 락 객체 가지고 오기
+        long holdStartedAt = 0;
         try {
-            // 몇 초 동안 락 획득을 시도 할 것인지 와 점유할 것인지
-            boolean available = lock.tryLock(10,1, TimeUnit.SECONDS);
+            // 몇 초 동안 락 획득을 시도 할 것인지
+            // 점유 시간을 지정하지 않아야 redisson watchdog 이 작업이 끝날 때까지 lease 를 연장한다.
+            long waitStartedAt = System.nanoTime();
+            boolean available = lock.tryLock(10, TimeUnit.SECONDS);
+            stockMetrics.recordLockWait("redisson", id, waitStartedAt);
             if (!available) {
-                System.out.println("lock 획득 실패");
-                return;
+                stockMetrics.lockFailure("redisson", id, "timeout");
+                throw new LockAcquisitionException(id.toString());
             }
+            holdStartedAt = System.nanoTime();
             stockService.decrease(id,quantity);
-        } catch (Exception e) {
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("redisson", id);
+            throw e;
+        } catch (InterruptedException e) {
+            stockMetrics.lockFailure("redisson", id, "interrupted");
             throw new RuntimeException(e);
         } finally {
-            // 락 해제
-            lock.unlock();
+            // 락 해제 (획득하지 못했으면 해제할 lock 이 없다)
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+            if (holdStartedAt != 0) {
+                stockMetrics.recordLockHold("redisson", id, holdStartedAt);
+            }
         }
 
     }
+
+    /**
+     * 여러 상품 : 로컬 stripe 를 모두 잡은 뒤 MultiLock 으로 id 순서대로 redis lock 획득
+     * 하나라도 획득하지 못하면 이미 잡은 lock 은 MultiLock 이 해제한다.
+     */
+    public void decreaseAll(List<DecreaseItem> items) {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<Long> ids = DecreaseItem.ids(canonical);
+        List<ReentrantLock> locals = localLockStripes.getAll(ids);
+        int locked = 0;
+        try {
+            for (ReentrantLock local : locals) {
+                local.lockInterruptibly();
+                locked++;
+            }
+            RLock multiLock = redissonClient.getMultiLock(ids.stream()
+                    .map(id -> redissonClient.getLock(id.toString()))
+                    .toArray(RLock[]::new));
+            if (!multiLock.tryLock(10, TimeUnit.SECONDS)) {
+                stockMetrics.lockFailure("redisson", null, "timeout");
+                throw new LockAcquisitionException(ids.toString());
+            }
+            try {
+                stockService.decreaseAll(canonical);
+            } finally {
+                multiLock.unlock();
+            }
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut("redisson", e.getStockId());
+            throw e;
+        } catch (InterruptedException e) {
+            stockMetrics.lockFailure("redisson", null, "interrupted");
+            throw new RuntimeException(e);
+        } finally {
+            for (int i = 0; i < locked; i++) {
+                locals.get(i).unlock();
+            }
+        }
+    }
 }
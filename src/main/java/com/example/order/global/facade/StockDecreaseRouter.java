@@ -0,0 +1,190 @@
+package com.example.order.global.facade;
+
+import com.example.order.global.contention.ContentionTracker;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.service.PessimisticLockStockService;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class StockDecreaseRouter {
+
+    /**
+     * 상품별 경합 정도 (ContentionTracker 의 sliding window) 에 따라 가장 싼 감소 방식으로 보낸다.
+     * - OPTIMISTIC  -> PESSIMISTIC : 충돌률이 escalate-conflict-rate 이상
+     * - PESSIMISTIC -> FAIR_REDIS  : 초당 요청 수가 hot-arrival-rate 이상
+     * - 내려올 때는 요청 수가 올라갈 때 기준의 relax-ratio 배 아래로 떨어지고, 현재 단계에 min-dwell 이상 머문 경우에만 한 단계씩
+     *   (lock 을 쓰는 동안에는 충돌이 생기지 않기 때문에 내려오는 기준은 요청 수로 본다.)
+     *
+     * 단계 전환은 router 만 한다. OPTIMISTIC 단계는 facade 의 hot -> pessimistic 전환을 쓰지 않는 경로로 보낸다.
+     * (두 기준이 따로 움직이면 router 는 OPTIMISTIC 인데 실제로는 pessimistic lock 을 잡는 상태가 생긴다.)
+     *
+     * 대부분의 상품은 OPTIMISTIC 이므로 그 외 단계인 상품만 routes 에 저장한다.
+     * 상태는 (단계 전환 시각 << 8 | 단계) 를 AtomicLong 하나에 담아 CAS 로 바꾼다.
+     */
+
+    private static final StockDecreaseStrategy[] STRATEGIES = StockDecreaseStrategy.values();
+
+    private final OptimisticLockStockFacade optimisticLockStockFacade;
+
+    private final PessimisticLockStockService pessimisticLockStockService;
+
+    private final FairRedisLockStockFacade fairRedisLockStockFacade;
+
+    private final ContentionTracker contentionTracker;
+
+    private final StockMetrics stockMetrics;
+
+    private final double escalateConflictRate;
+
+    private final double hotArrivalRate;
+
+    private final double warmArrivalRate;
+
+    private final double relaxRatio;
+
+    private final long minDwellMillis;
+
+    private final ConcurrentHashMap<Long, AtomicLong> routes = new ConcurrentHashMap<>();
+
+    public StockDecreaseRouter(OptimisticLockStockFacade optimisticLockStockFacade,
+                               PessimisticLockStockService pessimisticLockStockService,
+                               FairRedisLockStockFacade fairRedisLockStockFacade,
+                               ContentionTracker contentionTracker,
+                               StockMetrics stockMetrics,
+                               @Value("${stock.router.escalate-conflict-rate:0.3}") double escalateConflictRate,
+                               @Value("${stock.router.warm-arrival-rate:20}") double warmArrivalRate,
+                               @Value("${stock.router.hot-arrival-rate:200}") double hotArrivalRate,
+                               @Value("${stock.router.relax-ratio:0.5}") double relaxRatio,
+                               @Value("${stock.router.min-dwell-ms:5000}") long minDwellMillis) {
+        this.optimisticLockStockFacade = optimisticLockStockFacade;
+        this.pessimisticLockStockService = pessimisticLockStockService;
+        this.fairRedisLockStockFacade = fairRedisLockStockFacade;
+        this.contentionTracker = contentionTracker;
+        this.stockMetrics = stockMetrics;
+        this.escalateConflictRate = escalateConflictRate;
+        this.warmArrivalRate = warmArrivalRate;
+        this.hotArrivalRate = hotArrivalRate;
+        this.relaxRatio = relaxRatio;
+        this.minDwellMillis = minDwellMillis;
+    }
+
+    public void decrease(Long id, Long quantity) throws InterruptedException {
+        StockDecreaseStrategy strategy = route(id);
+        switch (strategy) {
+            case OPTIMISTIC -> optimisticLockStockFacade.decreaseWithoutEscalation(id, quantity);
+            case PESSIMISTIC -> {
+                // optimistic facade 는 직접 요청 수를 기록하므로 나머지 경로만 기록
+                contentionTracker.recordArrival(id);
+                decreasePessimistic(id, () -> pessimisticLockStockService.decrease(id, quantity));
+            }
+            case FAIR_REDIS -> {
+                contentionTracker.recordArrival(id);
+                fairRedisLockStockFacade.decrease(id, quantity);
+            }
+        }
+    }
+
+    //==여러 상품 : 포함된 상품 중 가장 높은 단계로 처리==//
+    public void decreaseAll(List<DecreaseItem> items) throws InterruptedException {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<Long> ids = DecreaseItem.ids(canonical);
+        StockDecreaseStrategy strategy = StockDecreaseStrategy.OPTIMISTIC;
+        for (Long id : ids) {
+            StockDecreaseStrategy current = route(id);
+            if (current.compareTo(strategy) > 0) {
+                strategy = current;
+            }
+        }
+        if (strategy != StockDecreaseStrategy.OPTIMISTIC) {
+            ids.forEach(contentionTracker::recordArrival);
+        }
+        switch (strategy) {
+            case OPTIMISTIC -> optimisticLockStockFacade.decreaseAllWithoutEscalation(canonical);
+            case PESSIMISTIC -> decreasePessimistic(null, () -> pessimisticLockStockService.decreaseAll(canonical));
+            case FAIR_REDIS -> fairRedisLockStockFacade.decreaseAll(canonical);
+        }
+    }
+
+    //==현재 경합 기준으로 단계를 다시 계산해서 반환==//
+    public StockDecreaseStrategy route(Long id) {
+        AtomicLong state = routes.get(id);
+        long current = state == null ? 0 : state.get();
+        StockDecreaseStrategy from = strategy(current);
+        StockDecreaseStrategy to = next(id, from, since(current));
+        if (to == from) {
+            return from;
+        }
+
+        long now = System.currentTimeMillis();
+        if (state == null) {
+            state = routes.computeIfAbsent(id, key -> new AtomicLong());
+        }
+        // 다른 스레드가 먼저 바꿨으면 그 결과를 따른다.
+        if (state.compareAndSet(current, pack(to, now))) {
+            stockMetrics.routeSwitch(from.tag(), to.tag());
+            if (to == StockDecreaseStrategy.OPTIMISTIC) {
+                routes.remove(id, state);
+            }
+            return to;
+        }
+        return strategy(state.get());
+    }
+
+    private StockDecreaseStrategy next(Long id, StockDecreaseStrategy from, long since) {
+        double arrivalRate = contentionTracker.arrivalRate(id);
+        switch (from) {
+            case OPTIMISTIC -> {
+                if (contentionTracker.conflictRate(id) >= escalateConflictRate) {
+                    return from.escalate();
+                }
+            }
+            case PESSIMISTIC -> {
+                if (arrivalRate >= hotArrivalRate) {
+                    return from.escalate();
+                }
+                if (arrivalRate < warmArrivalRate * relaxRatio && dwelled(since)) {
+                    return from.relax();
+                }
+            }
+            case FAIR_REDIS -> {
+                if (arrivalRate < hotArrivalRate * relaxRatio && dwelled(since)) {
+                    return from.relax();
+                }
+            }
+        }
+        return from;
+    }
+
+    //==id : 여러 상품이면 null (품절을 확인한 상품으로 기록)==//
+    private void decreasePessimistic(Long id, Runnable decrease) {
+        try {
+            decrease.run();
+        } catch (SoldOutException e) {
+            stockMetrics.soldOut(StockDecreaseStrategy.PESSIMISTIC.tag(), id != null ? id : e.getStockId());
+            throw e;
+        }
+    }
+
+    private boolean dwelled(long since) {
+        return System.currentTimeMillis() - since >= minDwellMillis;
+    }
+
+    private static long pack(StockDecreaseStrategy strategy, long sinceMillis) {
+        return sinceMillis << 8 | strategy.ordinal();
+    }
+
+    private static StockDecreaseStrategy strategy(long state) {
+        return STRATEGIES[(int) (state & 0xFF)];
+    }
+
+    private static long since(long state) {
+        return state >>> 8;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.order.global.facade;
+
+/**
+ * StockDecreaseRouter 가 고르는 재고 감소 방식
+ * 선언 순서 = 경합이 심해질수록 올라가는 단계 (뒤로 갈수록 요청당 비용은 크지만 경합에 강하다)
+ */
+public enum StockDecreaseStrategy {
+
+    // 충돌이 거의 없을 때 : lock 없이 version 비교
+    OPTIMISTIC("optimistic"),
+    // 충돌이 잦을 때 : 재시도 대신 select for update 로 줄 세움
+    PESSIMISTIC("pessimistic"),
+    // 요청이 몰릴 때 : DB 커넥션을 잡고 기다리지 않도록 redis 공정 lock 으로 줄 세움
+    FAIR_REDIS("fair");
+
+    private final String tag;
+
+    StockDecreaseStrategy(String tag) {
+        this.tag = tag;
+    }
+
+    //==metrics strategy tag==//
+    public String tag() {
+        return tag;
+    }
+
+    public StockDecreaseStrategy escalate() {
+        StockDecreaseStrategy[] values = values();
+        return ordinal() + 1 < values.length ? values[ordinal() + 1] : this;
+    }
+
+    public StockDecreaseStrategy relax() {
+        return ordinal() > 0 ? values()[ordinal() - 1] : this;
+    }
+}
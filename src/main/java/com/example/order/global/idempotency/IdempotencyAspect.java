@@ -0,0 +1,179 @@
+package com.example.order.global.idempotency;
+
+import com.example.order.global.event.StockOperationContext;
+import com.example.order.global.exception.AdmissionRejectedException;
+import com.example.order.global.exception.DuplicateRequestException;
+import com.example.order.global.exception.LockAcquisitionException;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.exception.UnsupportedStrategyException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Slf4j
+@Aspect
+@Component
+// metrics aspect 안쪽, 트랜잭션 / lock 보다 바깥에서 중복을 걸러야 한다.
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class IdempotencyAspect {
+
+    /**
+     * 재고 감소 진입점 (facade / service / engine 의 decrease*) 중복 제거
+     * 호출한 쪽이 StockOperationContext 에 requestId 를 넣었을 때만 동작한다.
+     *
+     * - 가장 바깥 호출에서만 확인 (facade 안에서 service 를 호출할 때는 다시 확인하지 않음)
+     * - 이미 끝난 요청은 lock / DB 를 거치지 않고 저장된 결과를 그대로 돌려준다. (재고 부족이면 SoldOutException)
+     * - 반환 타입 : void, Long (결과값 저장), CompletableFuture (완료 시점에 저장)
+     *   그 외 (Mono 등) 는 그대로 실행한다.
+     * - 같은 key 는 같은 요청 (메서드 + 인자) 에만 사용할 수 있다. 다르면 422 (IdempotencyKeyMismatchException)
+     * - 반영되지 않은 것이 확실한 예외 (lock 획득 실패, 버전 충돌, 재고 없음 등) 는 결과를 남기지 않기 때문에 같은 key 로 다시 시도할 수 있다.
+     * - 그 외 예외 (commit 이후 unlock 실패 등 반영 여부를 모르는 경우) 와 결과 저장 실패는
+     *   처리 중 표시를 pending-ttl 동안 남겨서 그 사이 같은 key 는 처리 중으로 응답한다.
+     */
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private final IdempotencyStore idempotencyStore;
+
+    public IdempotencyAspect(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    @Around("execution(public * com.example.order.global.facade..decrease*(..)) " +
+            "|| execution(public * com.example.order.service..decrease*(..)) " +
+            "|| execution(public * com.example.order.global.engine..decrease*(..))")
+    public Object deduplicate(ProceedingJoinPoint joinPoint) throws Throwable {
+        String requestKey = StockOperationContext.requestId();
+        if (requestKey == null || ACTIVE.get() != null) {
+            return joinPoint.proceed();
+        }
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (returnType == void.class || returnType == Long.class) {
+            return proceedOnce(joinPoint, requestKey);
+        }
+        if (returnType == CompletableFuture.class) {
+            return proceedOnceAsync(joinPoint, requestKey);
+        }
+        return joinPoint.proceed();
+    }
+
+    private Object proceedOnce(ProceedingJoinPoint joinPoint, String requestKey) throws Throwable {
+        IdempotencyStore.Claim claim = idempotencyStore.claim(requestKey, fingerprint(joinPoint));
+        if (claim.isDone()) {
+            return replay(claim.outcome());
+        }
+
+        Object result;
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            result = joinPoint.proceed();
+        } catch (SoldOutException e) {
+            saveOutcome(claim, IdempotentOutcome.soldOut());
+            throw e;
+        } catch (Throwable e) {
+            fail(claim, e);
+            throw e;
+        } finally {
+            ACTIVE.remove();
+        }
+        // 감소는 이미 commit 되었으므로 결과 저장이 실패해도 release 하지 않는다.
+        saveOutcome(claim, IdempotentOutcome.succeeded((Long) result));
+        return result;
+    }
+
+    private Object proceedOnceAsync(ProceedingJoinPoint joinPoint, String requestKey) throws Throwable {
+        IdempotencyStore.Claim claim = idempotencyStore.claim(requestKey, fingerprint(joinPoint));
+        if (claim.isDone()) {
+            try {
+                return CompletableFuture.completedFuture(replay(claim.outcome()));
+            } catch (SoldOutException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        CompletableFuture<?> future;
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            future = (CompletableFuture<?>) joinPoint.proceed();
+        } catch (Throwable e) {
+            fail(claim, e);
+            throw e;
+        } finally {
+            ACTIVE.remove();
+        }
+        return future.whenComplete((result, failure) -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause == null) {
+                saveOutcome(claim, IdempotentOutcome.succeeded(null));
+            } else if (cause instanceof SoldOutException) {
+                saveOutcome(claim, IdempotentOutcome.soldOut());
+            } else {
+                fail(claim, cause);
+            }
+        });
+    }
+
+    /**
+     * 결과 저장이 실패하면 처리 중 표시를 그대로 두고 pending-ttl 뒤 만료되도록 한다.
+     * (release 하면 같은 key 의 재시도가 한 번 더 감소시킨다)
+     */
+    private void saveOutcome(IdempotencyStore.Claim claim, IdempotentOutcome outcome) {
+        try {
+            idempotencyStore.complete(claim, outcome);
+        } catch (RuntimeException e) {
+            idempotencyStore.abandon(claim);
+            log.warn("idempotency 결과 저장 실패 requestKey={}, status={}", claim.requestKey(), outcome.status(), e);
+        }
+    }
+
+    private void fail(IdempotencyStore.Claim claim, Throwable cause) {
+        if (notApplied(cause)) {
+            idempotencyStore.release(claim);
+            return;
+        }
+        idempotencyStore.abandon(claim);
+        log.warn("반영 여부를 알 수 없어 idempotency 처리 중 표시를 유지합니다. requestKey={}", claim.requestKey(), cause);
+    }
+
+    /**
+     * 감소 전에 실패했거나 트랜잭션이 rollback 되어 반영되지 않은 것이 확실한 예외
+     * - lock / admission 획득 실패, 지원하지 않는 strategy, 처리 중인 중복 요청
+     * - 버전 충돌 / lock 대기 시간 초과 / 데드락 (ConcurrencyFailureException) : 트랜잭션 안에서 발생해 rollback
+     * - 재고 없음, lock 대기 중 interrupt
+     */
+    private static boolean notApplied(Throwable cause) {
+        return cause instanceof LockAcquisitionException
+                || cause instanceof AdmissionRejectedException
+                || cause instanceof UnsupportedStrategyException
+                || cause instanceof DuplicateRequestException
+                || cause instanceof ConcurrencyFailureException
+                || cause instanceof NoSuchElementException
+                || cause instanceof InterruptedException;
+    }
+
+    //==같은 key 로 다른 요청이 들어왔는지 확인하기 위한 메서드 + 인자 hash==//
+    private static String fingerprint(ProceedingJoinPoint joinPoint) {
+        String call = joinPoint.getSignature().getName() + Arrays.deepToString(joinPoint.getArgs());
+        return UUID.nameUUIDFromBytes(call.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static Object replay(IdempotentOutcome outcome) {
+        if (outcome.status() == IdempotentOutcome.Status.SOLD_OUT) {
+            throw new SoldOutException();
+        }
+        return outcome.value();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.order.global.idempotency;
+
+import com.example.order.global.exception.DuplicateRequestException;
+import com.example.order.global.exception.IdempotencyKeyMismatchException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class IdempotencyStore {
+
+    /**
+     * request key -> 처리 결과
+     * 1단 : 서버 로컬, 시간 bucket 단위로 묶어서 bucket 째로 버린다. (항목마다 만료 시각을 두지 않음)
+     * 2단 : redis (ttl), 처리 시작 시 SET NX 로 처리 중 표시를 남겨서 동시에 들어온 중복 요청은 한 번만 실행된다.
+     *
+     * 처리 중인 key 로 들어온 요청은 in-flight-wait 동안 결과를 기다리고, 그래도 처리 중이면 DuplicateRequestException
+     *
+     * - 처리 중 표시는 실행이 끝날 때까지 watchdog 이 pending-ttl / 3 마다 연장한다. (lock 대기 / 재시도가 길어져도 만료되지 않음)
+     *   서버가 죽으면 연장이 멈추고 pending-ttl 뒤 만료된다.
+     * - key 마다 요청 인자의 fingerprint 를 같이 저장하고, 같은 key 로 다른 요청이 들어오면 IdempotencyKeyMismatchException
+     *
+     * 저장 형식 : <fingerprint>|<IdempotentOutcome>, 처리 중이면 <fingerprint>|P:<token>
+     */
+
+    private static final String KEY_PREFIX = "stock:idempotency:";
+
+    // 내 처리 중 표시일 때만 삭제 (실패한 요청은 다시 시도할 수 있도록)
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    // 내 처리 중 표시일 때만 연장
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+            "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final Duration ttl;
+
+    private final Duration pendingTtl;
+
+    private final long inFlightWaitNanos;
+
+    private final long bucketMillis;
+
+    private final AtomicLongArray epochs;
+
+    private final ConcurrentHashMap<String, Stored>[] buckets;
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @SuppressWarnings("unchecked")
+    public IdempotencyStore(RedisTemplate<String, String> redisTemplate,
+                            @Value("${stock.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${stock.idempotency.pending-ttl:30s}") Duration pendingTtl,
+                            @Value("${stock.idempotency.in-flight-wait:3s}") Duration inFlightWait,
+                            @Value("${stock.idempotency.local-ttl:60s}") Duration localTtl,
+                            @Value("${stock.idempotency.local-buckets:6}") int localBuckets) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+        this.inFlightWaitNanos = inFlightWait.toNanos();
+        // bucket 하나를 더 두고 가장 오래된 bucket 은 조회하지 않는다. (local-ttl 이상 남지 않도록)
+        this.bucketMillis = Math.max(1, localTtl.toMillis() / localBuckets);
+        this.epochs = new AtomicLongArray(localBuckets + 1);
+        this.buckets = new ConcurrentHashMap[localBuckets + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ConcurrentHashMap<>();
+            epochs.set(i, -1);
+        }
+    }
+
+    /**
+     * 처리 권한을 얻으면 연장 중인 claim, 이미 끝난 요청이면 그 결과를 담은 claim (isDone)
+     * fingerprint 가 다른 요청이 이미 사용한 key 면 IdempotencyKeyMismatchException
+     */
+    public Claim claim(String requestKey, String fingerprint) throws InterruptedException {
+        Stored local = getLocal(requestKey);
+        if (local != null) {
+            return done(requestKey, fingerprint, local);
+        }
+
+        String pendingValue = fingerprint + '|' + IdempotentOutcome.PENDING_VALUE + ':' + UUID.randomUUID();
+        long deadline = System.nanoTime() + inFlightWaitNanos;
+        while (true) {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(generateKey(requestKey), pendingValue, pendingTtl))) {
+                return new Claim(requestKey, fingerprint, null, pendingValue, scheduleRenewal(requestKey, pendingValue));
+            }
+            String value = redisTemplate.opsForValue().get(generateKey(requestKey));
+            if (value != null) {
+                Stored stored = Stored.deserialize(value);
+                if (!stored.matches(fingerprint)) {
+                    throw new IdempotencyKeyMismatchException(requestKey);
+                }
+                if (stored.outcome().isDone()) {
+                    putLocal(requestKey, stored);
+                    return done(requestKey, fingerprint, stored);
+                }
+                if (System.nanoTime() >= deadline) {
+                    throw new DuplicateRequestException(requestKey);
+                }
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            // value == null : 앞 요청이 실패해서 처리 중 표시가 지워짐 -> 다시 처리 권한 획득 시도
+        }
+    }
+
+    public void complete(Claim claim, IdempotentOutcome outcome) {
+        claim.renewal().cancel(false);
+        Stored stored = new Stored(claim.fingerprint(), outcome);
+        redisTemplate.opsForValue().set(generateKey(claim.requestKey()), stored.serialize(), ttl);
+        putLocal(claim.requestKey(), stored);
+    }
+
+    //==반영되지 않은 것이 확실한 예외 (lock 획득 실패 등) : 결과를 남기지 않고 다시 시도할 수 있게==//
+    public void release(Claim claim) {
+        claim.renewal().cancel(false);
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(generateKey(claim.requestKey())), claim.pendingValue());
+    }
+
+    //==반영 여부를 모르는 예외 : 연장만 멈추고 pending-ttl 뒤 만료되도록 둔다==//
+    public void abandon(Claim claim) {
+        claim.renewal().cancel(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    private Claim done(String requestKey, String fingerprint, Stored stored) {
+        if (!stored.matches(fingerprint)) {
+            throw new IdempotencyKeyMismatchException(requestKey);
+        }
+        return new Claim(requestKey, fingerprint, stored.outcome(), null, null);
+    }
+
+    private ScheduledFuture<?> scheduleRenewal(String requestKey, String pendingValue) {
+        long period = Math.max(1, pendingTtl.toMillis() / 3);
+        return watchdog.scheduleAtFixedRate(
+                () -> redisTemplate.execute(RENEW_SCRIPT, List.of(generateKey(requestKey)),
+                        pendingValue, String.valueOf(pendingTtl.toMillis())),
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private Stored getLocal(String requestKey) {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        for (int i = 0; i < buckets.length; i++) {
+            // 가장 오래된 bucket (재사용 직전) 은 건너뛴다.
+            if (epoch - epochs.get(i) < buckets.length - 1) {
+                Stored stored = buckets[i].get(requestKey);
+                if (stored != null) {
+                    return stored;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void putLocal(String requestKey, Stored stored) {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        int slot = (int) (epoch % buckets.length);
+        long current = epochs.get(slot);
+        if (current != epoch && epochs.compareAndSet(slot, current, epoch)) {
+            // 오래된 bucket 을 처음 재사용하는 스레드만 비운다.
+            buckets[slot].clear();
+        }
+        buckets[slot].put(requestKey, stored);
+    }
+
+    private String generateKey(String requestKey) {
+        return KEY_PREFIX + requestKey;
+    }
+
+    /**
+     * 처리 권한 (outcome == null) 혹은 이미 끝난 요청의 결과
+     */
+    public record Claim(String requestKey, String fingerprint, IdempotentOutcome outcome, String pendingValue,
+                        ScheduledFuture<?> renewal) {
+
+        public boolean isDone() {
+            return outcome != null;
+        }
+    }
+
+    // fingerprint 가 null 이면 fingerprint 를 저장하기 전 형식 (어떤 요청과도 일치하는 것으로 본다)
+    private record Stored(String fingerprint, IdempotentOutcome outcome) {
+
+        boolean matches(String other) {
+            return fingerprint == null || fingerprint.equals(other);
+        }
+
+        String serialize() {
+            return fingerprint + '|' + outcome.serialize();
+        }
+
+        static Stored deserialize(String value) {
+            int separator = value.indexOf('|');
+            if (separator < 0) {
+                return new Stored(null, IdempotentOutcome.deserialize(value));
+            }
+            return new Stored(value.substring(0, separator), IdempotentOutcome.deserialize(value.substring(separator + 1)));
+        }
+    }
+}
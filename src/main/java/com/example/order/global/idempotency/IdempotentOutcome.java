@@ -0,0 +1,44 @@
+package com.example.order.global.idempotency;
+
+/**
+ * request key 로 저장하는 처리 결과
+ * value : 반환값이 있는 메서드 (남은 재고 등) 의 결과, 없으면 null
+ *
+ * 저장 형식 : P:<token> (처리 중) / S 혹은 S:<value> (성공) / X (재고 부족)
+ */
+public record IdempotentOutcome(Status status, Long value) {
+
+    public enum Status {
+        PENDING, SUCCEEDED, SOLD_OUT
+    }
+
+    static final String PENDING_VALUE = "P";
+
+    public static IdempotentOutcome succeeded(Long value) {
+        return new IdempotentOutcome(Status.SUCCEEDED, value);
+    }
+
+    public static IdempotentOutcome soldOut() {
+        return new IdempotentOutcome(Status.SOLD_OUT, null);
+    }
+
+    public boolean isDone() {
+        return status != Status.PENDING;
+    }
+
+    public String serialize() {
+        return switch (status) {
+            case PENDING -> PENDING_VALUE;
+            case SUCCEEDED -> value == null ? "S" : "S:" + value;
+            case SOLD_OUT -> "X";
+        };
+    }
+
+    public static IdempotentOutcome deserialize(String serialized) {
+        return switch (serialized.charAt(0)) {
+            case 'P' -> new IdempotentOutcome(Status.PENDING, null);
+            case 'X' -> soldOut();
+            default -> succeeded(serialized.length() > 2 ? Long.valueOf(serialized.substring(2)) : null);
+        };
+    }
+}
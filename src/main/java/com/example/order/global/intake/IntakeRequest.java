@@ -0,0 +1,17 @@
+package com.example.order.global.intake;
+
+import java.util.UUID;
+
+/**
+ * 접수된 재고 감소 요청 (ticketId 로 결과 조회)
+ */
+public record IntakeRequest(String ticketId, Long stockId, Long quantity) {
+
+    public static IntakeRequest of(Long stockId, Long quantity) {
+        return new IntakeRequest(UUID.randomUUID().toString(), stockId, quantity);
+    }
+
+    public IntakeResult result(IntakeStatus status) {
+        return new IntakeResult(ticketId, stockId, quantity, status);
+    }
+}
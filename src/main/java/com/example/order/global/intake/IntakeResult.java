@@ -0,0 +1,4 @@
+package com.example.order.global.intake;
+
+public record IntakeResult(String ticketId, Long stockId, Long quantity, IntakeStatus status) {
+}
@@ -0,0 +1,14 @@
+package com.example.order.global.intake;
+
+public enum IntakeStatus {
+    // queue 에 들어가 처리 대기 중
+    ACCEPTED,
+    SUCCEEDED,
+    SOLD_OUT,
+    // 처리 중 예외 (batch 전체 rollback)
+    FAILED;
+
+    public boolean isDone() {
+        return this != ACCEPTED;
+    }
+}
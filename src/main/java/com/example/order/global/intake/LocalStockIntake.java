@@ -0,0 +1,134 @@
+package com.example.order.global.intake;
+
+import com.example.order.global.exception.IntakeRejectedException;
+import com.example.order.global.metrics.StockMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "stock.intake.mode", havingValue = "local", matchIfMissing = true)
+public class LocalStockIntake implements StockIntake {
+
+    /**
+     * 서버 내부 intake
+     * partition 마다 고정 크기 ring buffer (ArrayBlockingQueue) 와 전용 worker 스레드 하나
+     * worker 는 쌓인 요청을 batch-size 만큼 한 번에 꺼내 StockIntakeProcessor 로 반영한다.
+     *
+     * 결과는 result-ttl 동안만 조회 가능
+     */
+
+    private final StockIntakeProcessor stockIntakeProcessor;
+
+    private final StockMetrics stockMetrics;
+
+    private final int batchSize;
+
+    private final List<ArrayBlockingQueue<IntakeRequest>> partitions;
+
+    private final List<Thread> workers;
+
+    private final Cache<String, IntakeResult> results;
+
+    private final ConcurrentHashMap<String, Consumer<IntakeResult>> callbacks = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    public LocalStockIntake(StockIntakeProcessor stockIntakeProcessor,
+                            StockMetrics stockMetrics,
+                            @Value("${stock.intake.partitions:16}") int partitionCount,
+                            @Value("${stock.intake.capacity:1024}") int capacity,
+                            @Value("${stock.intake.batch-size:100}") int batchSize,
+                            @Value("${stock.intake.result-ttl:10m}") Duration resultTtl) {
+        this.stockIntakeProcessor = stockIntakeProcessor;
+        this.stockMetrics = stockMetrics;
+        this.batchSize = batchSize;
+        this.results = Caffeine.newBuilder().expireAfterWrite(resultTtl).build();
+        this.partitions = new ArrayList<>(partitionCount);
+        this.workers = new ArrayList<>(partitionCount);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            ArrayBlockingQueue<IntakeRequest> queue = new ArrayBlockingQueue<>(capacity);
+            Thread worker = new Thread(() -> consume(queue), "stock-intake-" + partition);
+            worker.setDaemon(true);
+            partitions.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public IntakeResult submit(Long stockId, Long quantity) {
+        return submit(stockId, quantity, null);
+    }
+
+    @Override
+    public IntakeResult submit(Long stockId, Long quantity, Consumer<IntakeResult> callback) {
+        IntakeRequest request = IntakeRequest.of(stockId, quantity);
+        IntakeResult accepted = request.result(IntakeStatus.ACCEPTED);
+        results.put(request.ticketId(), accepted);
+        if (callback != null) {
+            callbacks.put(request.ticketId(), callback);
+        }
+        if (!partitions.get(partition(stockId)).offer(request)) {
+            results.invalidate(request.ticketId());
+            callbacks.remove(request.ticketId());
+            stockMetrics.rejected("intake", "queue_full");
+            throw new IntakeRejectedException(stockId);
+        }
+        return accepted;
+    }
+
+    @Override
+    public Optional<IntakeResult> status(String ticketId) {
+        return Optional.ofNullable(results.getIfPresent(ticketId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void consume(ArrayBlockingQueue<IntakeRequest> queue) {
+        List<IntakeRequest> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            complete(stockIntakeProcessor.process(batch));
+            batch.clear();
+        }
+    }
+
+    private void complete(List<IntakeResult> processed) {
+        for (IntakeResult result : processed) {
+            results.put(result.ticketId(), result);
+            Consumer<IntakeResult> callback = callbacks.remove(result.ticketId());
+            if (callback != null) {
+                try {
+                    callback.accept(result);
+                } catch (RuntimeException e) {
+                    // callback 실패가 worker 를 멈추지 않도록 무시
+                }
+            }
+        }
+    }
+
+    private int partition(Long stockId) {
+        return Math.floorMod(Long.hashCode(stockId), partitions.size());
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.order.global.intake;
+
+import com.example.order.global.exception.IntakeRejectedException;
+import com.example.order.global.metrics.StockMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "stock.intake.mode", havingValue = "redis-stream")
+public class RedisStreamStockIntake implements StockIntake {
+
+    /**
+     * redis stream 기반 intake
+     * - partition 마다 stream 하나 (stock:intake:stream:<p>), 상품 id 로 partition 을 고른다.
+     * - partition 소유권은 lease key (stock:intake:owner:<p>) 로 서버끼리 나눠 가지고, 소유한 서버의 worker 하나만 읽는다.
+     *   consumer 이름을 partition 으로 고정했기 때문에 소유권이 넘어가면 새 소유자가 이전 소유자의 pending 을 이어서 처리한다.
+     *   worker 는 로컬 lease 만료 시각이 지나면 (연장이 늦어진 경우 포함) 새 batch 를 처리하기 전에 멈춘다.
+     * - 처리한 record 는 ack 후 삭제하기 때문에 stream 길이 = 처리 대기 중인 요청 수 (capacity 초과 시 429)
+     * - 결과는 redis 에 result-ttl 동안 저장하고 stock:intake:done 채널로 접수한 서버에 알려 callback 을 실행한다.
+     *
+     * 반영 후 ack 전에 서버가 죽으면 다음 소유자가 한 번 더 처리할 수 있다. (at-least-once)
+     * 재고 감소는 ticketId 로 한 번만 반영되기 때문에 (StockIntakeProcessor) 다시 처리해도 처음 결과를 다시 알릴 뿐이다.
+     */
+
+    private static final String STREAM_PREFIX = "stock:intake:stream:";
+
+    private static final String OWNER_PREFIX = "stock:intake:owner:";
+
+    private static final String RESULT_PREFIX = "stock:intake:result:";
+
+    private static final String DONE_CHANNEL = "stock:intake:done";
+
+    private static final String GROUP = "stock-intake";
+
+    // 내 lease 일 때만 연장
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+            "return 0",
+            Long.class);
+
+    // 내 lease 일 때만 반납
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final StockIntakeProcessor stockIntakeProcessor;
+
+    private final StockMetrics stockMetrics;
+
+    private final int partitionCount;
+
+    private final long capacity;
+
+    private final int batchSize;
+
+    private final Duration resultTtl;
+
+    private final long leaseMillis;
+
+    private final Duration blockTimeout;
+
+    private final int maxOwnedPartitions;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 소유 중인 partition -> worker
+    private final ConcurrentHashMap<Integer, PartitionWorker> owned = new ConcurrentHashMap<>();
+
+    // 이 서버에서 접수한 요청 중 callback 이 있는 요청
+    private final ConcurrentHashMap<String, java.util.function.Consumer<IntakeResult>> callbacks = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    public RedisStreamStockIntake(StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer redisMessageListenerContainer,
+                                  StockIntakeProcessor stockIntakeProcessor,
+                                  StockMetrics stockMetrics,
+                                  @Value("${stock.intake.partitions:16}") int partitionCount,
+                                  @Value("${stock.intake.capacity:1024}") long capacity,
+                                  @Value("${stock.intake.batch-size:100}") int batchSize,
+                                  @Value("${stock.intake.result-ttl:10m}") Duration resultTtl,
+                                  @Value("${stock.intake.stream.lease-ms:5000}") long leaseMillis,
+                                  @Value("${stock.intake.stream.block-timeout:1s}") Duration blockTimeout,
+                                  @Value("${stock.intake.stream.max-owned-partitions:16}") int maxOwnedPartitions) {
+        this.redisTemplate = redisTemplate;
+        this.stockIntakeProcessor = stockIntakeProcessor;
+        this.stockMetrics = stockMetrics;
+        this.partitionCount = partitionCount;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.resultTtl = resultTtl;
+        this.leaseMillis = leaseMillis;
+        this.blockTimeout = blockTimeout;
+        this.maxOwnedPartitions = maxOwnedPartitions;
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onDone(new String(message.getBody())),
+                new ChannelTopic(DONE_CHANNEL));
+    }
+
+    @Override
+    public IntakeResult submit(Long stockId, Long quantity) {
+        return submit(stockId, quantity, null);
+    }
+
+    @Override
+    public IntakeResult submit(Long stockId, Long quantity, java.util.function.Consumer<IntakeResult> callback) {
+        String stream = STREAM_PREFIX + partition(stockId);
+        // 동시에 들어온 요청끼리는 capacity 를 조금 넘을 수 있다. (근사치)
+        Long size = redisTemplate.opsForStream().size(stream);
+        if (size != null && size >= capacity) {
+            stockMetrics.rejected("intake", "queue_full");
+            throw new IntakeRejectedException(stockId);
+        }
+
+        IntakeRequest request = IntakeRequest.of(stockId, quantity);
+        IntakeResult accepted = request.result(IntakeStatus.ACCEPTED);
+        if (callback != null) {
+            callbacks.put(request.ticketId(), callback);
+        }
+        redisTemplate.opsForValue().set(RESULT_PREFIX + request.ticketId(), serialize(accepted), resultTtl);
+        redisTemplate.opsForStream().add(MapRecord.create(stream, Map.of(
+                "ticketId", request.ticketId(),
+                "stockId", stockId.toString(),
+                "quantity", quantity.toString())));
+        return accepted;
+    }
+
+    @Override
+    public Optional<IntakeResult> status(String ticketId) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(RESULT_PREFIX + ticketId))
+                .map(value -> deserialize(ticketId, value));
+    }
+
+    //==소유 중인 partition 은 lease 연장, 빈 partition 은 획득 시도==//
+    @Scheduled(fixedDelayString = "${stock.intake.stream.rebalance-interval-ms:1000}")
+    public void rebalance() {
+        for (int partition = 0; partition < partitionCount && running; partition++) {
+            String ownerKey = OWNER_PREFIX + partition;
+            PartitionWorker worker = owned.get(partition);
+            if (worker != null) {
+                // 요청을 보내기 전 시각 기준으로 연장 -> 로컬 만료 시각이 redis 보다 늦어지지 않는다.
+                long renewedAt = System.nanoTime();
+                Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(ownerKey), nodeId, String.valueOf(leaseMillis));
+                if (renewed == null || renewed == 0) {
+                    // lease 를 잃었으면 다른 서버가 이어서 처리하도록 멈춘다.
+                    worker.active = false;
+                    owned.remove(partition);
+                } else {
+                    worker.extendLease(renewedAt);
+                }
+                continue;
+            }
+            if (owned.size() >= maxOwnedPartitions) {
+                continue;
+            }
+            long acquiredAt = System.nanoTime();
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(ownerKey, nodeId, Duration.ofMillis(leaseMillis)))) {
+                start(partition, acquiredAt);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        owned.forEach((partition, worker) -> {
+            worker.active = false;
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(OWNER_PREFIX + partition), nodeId);
+        });
+        owned.clear();
+    }
+
+    private void start(int partition, long acquiredAt) {
+        String stream = STREAM_PREFIX + partition;
+        try {
+            redisTemplate.opsForStream().createGroup(stream, ReadOffset.from("0"), GROUP);
+        } catch (DataAccessException e) {
+            // 이미 group 이 있으면 BUSYGROUP
+        }
+        PartitionWorker worker = new PartitionWorker(partition, stream);
+        worker.extendLease(acquiredAt);
+        owned.put(partition, worker);
+        Thread thread = new Thread(worker, "stock-intake-stream-" + partition);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void complete(List<IntakeResult> results) {
+        long ttlMillis = resultTtl.toMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (IntakeResult result : results) {
+                stringConnection.pSetEx(RESULT_PREFIX + result.ticketId(), ttlMillis, serialize(result));
+                stringConnection.publish(DONE_CHANNEL, result.ticketId() + ":" + serialize(result));
+            }
+            return null;
+        });
+    }
+
+    //==접수한 서버에서 callback 실행==//
+    private void onDone(String message) {
+        int separator = message.indexOf(':');
+        String ticketId = message.substring(0, separator);
+        java.util.function.Consumer<IntakeResult> callback = callbacks.remove(ticketId);
+        if (callback == null) {
+            return;
+        }
+        try {
+            callback.accept(deserialize(ticketId, message.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            // callback 실패가 listener 를 멈추지 않도록 무시
+        }
+    }
+
+    private int partition(Long stockId) {
+        return Math.floorMod(Long.hashCode(stockId), partitionCount);
+    }
+
+    //==status:stockId:quantity==//
+    private static String serialize(IntakeResult result) {
+        return result.status().name() + ':' + result.stockId() + ':' + result.quantity();
+    }
+
+    private static IntakeResult deserialize(String ticketId, String value) {
+        String[] parts = value.split(":");
+        return new IntakeResult(ticketId, Long.valueOf(parts[1]), Long.valueOf(parts[2]), IntakeStatus.valueOf(parts[0]));
+    }
+
+    private class PartitionWorker implements Runnable {
+
+        private final int partition;
+
+        private final Consumer consumer;
+
+        private final String stream;
+
+        private volatile boolean active = true;
+
+        // 로컬 기준 lease 만료 시각 (nanoTime)
+        private volatile long leaseDeadline;
+
+        private PartitionWorker(int partition, String stream) {
+            // consumer 이름을 partition 으로 고정 -> 소유자가 바뀌어도 같은 pending 목록을 본다.
+            this.partition = partition;
+            this.consumer = Consumer.from(GROUP, "partition-" + partition);
+            this.stream = stream;
+        }
+
+        @Override
+        public void run() {
+            // 이전 소유자가 ack 하지 못한 요청부터 처리
+            boolean recovering = true;
+            while (active && running) {
+                if (!holdsLease()) {
+                    // rebalance 가 늦어져 연장하지 못했다 -> 다른 서버가 가져갔을 수 있으니 멈춘다.
+                    stop();
+                    return;
+                }
+                try {
+                    List<MapRecord<String, String, String>> records = read(recovering);
+                    if (records == null || records.isEmpty()) {
+                        recovering = false;
+                        continue;
+                    }
+                    if (!process(records)) {
+                        stop();
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    // redis 연결 오류 등 : 잠시 후 pending 부터 다시 읽는다.
+                    recovering = true;
+                    sleep();
+                }
+            }
+        }
+
+        private List<MapRecord<String, String, String>> read(boolean recovering) {
+            StreamReadOptions options = StreamReadOptions.empty().count(batchSize);
+            if (recovering) {
+                return redisTemplate.<String, String>opsForStream()
+                        .read(consumer, options, StreamOffset.create(stream, ReadOffset.from("0")));
+            }
+            return redisTemplate.<String, String>opsForStream()
+                    .read(consumer, options.block(blockTimeout), StreamOffset.create(stream, ReadOffset.lastConsumed()));
+        }
+
+        private void extendLease(long renewedAt) {
+            leaseDeadline = renewedAt + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        }
+
+        private boolean holdsLease() {
+            return leaseDeadline - System.nanoTime() > 0;
+        }
+
+        private void stop() {
+            active = false;
+            owned.remove(partition, this);
+        }
+
+        /**
+         * lease 가 만료되어 처리하지 않았거나 처리 중에 만료되었으면 false
+         * 반영이 끝난 batch 는 lease 와 상관없이 결과를 알리고 ack 한다. (다음 소유자가 다시 처리해도 ticket 으로 걸러진다)
+         */
+        private boolean process(List<MapRecord<String, String, String>> records) {
+            if (!holdsLease()) {
+                return false;
+            }
+            List<IntakeRequest> requests = new ArrayList<>(records.size());
+            RecordId[] recordIds = new RecordId[records.size()];
+            for (int i = 0; i < records.size(); i++) {
+                Map<String, String> value = records.get(i).getValue();
+                requests.add(new IntakeRequest(value.get("ticketId"),
+                        Long.valueOf(value.get("stockId")), Long.valueOf(value.get("quantity"))));
+                recordIds[i] = records.get(i).getId();
+            }
+            complete(stockIntakeProcessor.process(requests));
+            redisTemplate.opsForStream().acknowledge(stream, GROUP, recordIds);
+            redisTemplate.opsForStream().delete(stream, recordIds);
+            return holdsLease();
+        }
+
+        private void sleep() {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                active = false;
+            }
+        }
+    }
+}
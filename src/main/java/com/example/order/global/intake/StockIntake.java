@@ -0,0 +1,21 @@
+package com.example.order.global.intake;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 재고 감소 요청을 바로 접수하고 비동기로 처리하는 intake pipeline
+ * - 상품 id 로 partition 을 나누고 partition 당 worker 하나가 순서대로 처리한다.
+ * - partition 이 가득 차면 IntakeRejectedException (429)
+ *
+ * stock.intake.mode : local (서버 내부 ring buffer) / redis-stream (redis stream, partition 을 서버끼리 나눠 가짐)
+ */
+public interface StockIntake {
+
+    IntakeResult submit(Long stockId, Long quantity);
+
+    //==처리가 끝나면 callback 호출 (접수한 서버에서 실행)==//
+    IntakeResult submit(Long stockId, Long quantity, Consumer<IntakeResult> callback);
+
+    Optional<IntakeResult> status(String ticketId);
+}
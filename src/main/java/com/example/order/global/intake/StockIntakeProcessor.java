@@ -0,0 +1,90 @@
+package com.example.order.global.intake;
+
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.repository.StockIntakeTicketJdbcRepository;
+import com.example.order.service.GroupCommitStockService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class StockIntakeProcessor {
+
+    /**
+     * partition worker 가 꺼낸 요청을 상품별로 묶어서 group commit 으로 반영
+     * 같은 상품의 요청은 접수 순서대로 재고를 할당받는다.
+     * partition 당 worker 가 하나라 같은 서버 안에서는 상품 lock 을 두고 경쟁하지 않는다.
+     * 같은 ticket 을 다시 처리하면 재고를 다시 줄이지 않고 처음 결과를 돌려준다. (redis stream 의 at-least-once 재처리)
+     * 반영한 ticket 기록은 ticket-retention 이 지나면 정리한다.
+     */
+
+    private final GroupCommitStockService groupCommitStockService;
+
+    private final StockIntakeTicketJdbcRepository stockIntakeTicketJdbcRepository;
+
+    private final StockMetrics stockMetrics;
+
+    private final Duration ticketRetention;
+
+    public StockIntakeProcessor(GroupCommitStockService groupCommitStockService,
+                                StockIntakeTicketJdbcRepository stockIntakeTicketJdbcRepository,
+                                StockMetrics stockMetrics,
+                                @Value("${stock.intake.ticket-retention:1h}") Duration ticketRetention) {
+        this.groupCommitStockService = groupCommitStockService;
+        this.stockIntakeTicketJdbcRepository = stockIntakeTicketJdbcRepository;
+        this.stockMetrics = stockMetrics;
+        this.ticketRetention = ticketRetention;
+    }
+
+    //==요청 순서와 같은 순서로 결과 반환==//
+    public List<IntakeResult> process(List<IntakeRequest> requests) {
+        Map<Long, List<Integer>> byStock = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            byStock.computeIfAbsent(requests.get(i).stockId(), key -> new ArrayList<>()).add(i);
+        }
+
+        IntakeResult[] results = new IntakeResult[requests.size()];
+        for (Map.Entry<Long, List<Integer>> entry : byStock.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            List<String> ticketIds = new ArrayList<>(indexes.size());
+            List<Long> quantities = new ArrayList<>(indexes.size());
+            indexes.forEach(index -> {
+                ticketIds.add(requests.get(index).ticketId());
+                quantities.add(requests.get(index).quantity());
+            });
+
+            long holdStartedAt = System.nanoTime();
+            List<Boolean> decreased;
+            try {
+                decreased = groupCommitStockService.decreaseInArrivalOrder(entry.getKey(), ticketIds, quantities);
+                stockMetrics.recordLockHold("intake", entry.getKey(), holdStartedAt);
+            } catch (Exception e) {
+                // 상품 단위로 rollback 되었으므로 그 상품의 요청만 실패 처리
+                indexes.forEach(index -> results[index] = requests.get(index).result(IntakeStatus.FAILED));
+                continue;
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                if (decreased.get(i)) {
+                    results[index] = requests.get(index).result(IntakeStatus.SUCCEEDED);
+                } else {
+                    stockMetrics.soldOut("intake", entry.getKey());
+                    results[index] = requests.get(index).result(IntakeStatus.SOLD_OUT);
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.intake.ticket-cleanup-interval-ms:60000}")
+    public void purgeTickets() {
+        stockIntakeTicketJdbcRepository.deleteCreatedBefore(LocalDateTime.now().minus(ticketRetention));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.order.global.ledger;
+
+import com.example.order.global.event.StockChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * insert 대기 중인 ledger 한 줄
+ */
+public record StockLedgerEntry(Long stockId, Long productId, long delta, String strategy, String requestId,
+                               Long version, LocalDateTime createdAt) {
+
+    public static StockLedgerEntry of(StockChangedEvent event) {
+        return new StockLedgerEntry(event.stockId(), event.productId(), event.delta(), event.strategy(),
+                event.requestId(), event.version(), LocalDateTime.now());
+    }
+
+    public StockLedgerEntry withProductId(Long productId) {
+        return new StockLedgerEntry(stockId, productId, delta, strategy, requestId, version, createdAt);
+    }
+}
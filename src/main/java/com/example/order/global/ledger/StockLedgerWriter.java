@@ -0,0 +1,166 @@
+package com.example.order.global.ledger;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedBatchEvent;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.repository.StockLedgerJdbcRepository;
+import com.example.order.repository.StockRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class StockLedgerWriter {
+
+    /**
+     * 재고 변경이 commit 되면 ledger 한 줄을 buffer 에 넣고 바로 반환한다.
+     * flusher 스레드가 batch-size 만큼 모이거나 max-wait 이 지나면 한 번에 batch insert
+     *
+     * - buffer 가 가득 차면 유실하지 않도록 호출한 스레드가 직접 insert 한다.
+     * - insert 실패 시 같은 batch 를 다시 시도한다.
+     * - productId 를 모르는 이벤트 (조건부 update 등) 는 insert 직전에 한 번에 조회해서 채운다.
+     */
+
+    private final StockLedgerJdbcRepository stockLedgerJdbcRepository;
+
+    private final StockRepository stockRepository;
+
+    private final int batchSize;
+
+    private final long maxWaitNanos;
+
+    private final long retryDelayMillis;
+
+    private final ArrayBlockingQueue<StockLedgerEntry> buffer;
+
+    // stockId -> productId (바뀌지 않는 값이라 계속 재사용)
+    private final ConcurrentHashMap<Long, Long> productIds = new ConcurrentHashMap<>();
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    public StockLedgerWriter(StockLedgerJdbcRepository stockLedgerJdbcRepository,
+                             StockRepository stockRepository,
+                             @Value("${stock.ledger.buffer-capacity:65536}") int bufferCapacity,
+                             @Value("${stock.ledger.batch-size:500}") int batchSize,
+                             @Value("${stock.ledger.max-wait-ms:50}") long maxWaitMillis,
+                             @Value("${stock.ledger.retry-delay-ms:1000}") long retryDelayMillis) {
+        this.stockLedgerJdbcRepository = stockLedgerJdbcRepository;
+        this.stockRepository = stockRepository;
+        this.batchSize = batchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.retryDelayMillis = retryDelayMillis;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.flusher = new Thread(this::flushLoop, "stock-ledger-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    //==commit 이후 기록 (트랜잭션이 없는 경로도 처리)==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (!event.isMovement()) {
+            return;
+        }
+        if (event.productId() != null) {
+            productIds.putIfAbsent(event.stockId(), event.productId());
+        }
+        StockLedgerEntry entry = StockLedgerEntry.of(event);
+        if (!buffer.offer(entry)) {
+            try {
+                write(List.of(entry));
+            } catch (Exception e) {
+                // 이미 commit 된 재고 변경을 실패로 만들지 않는다.
+                log.error("ledger 기록 실패 stockId={}, delta={}", entry.stockId(), entry.delta(), e);
+            }
+        }
+    }
+
+    //==입고 import 한 묶음==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChangedBatch(StockChangedBatchEvent event) {
+        event.changes().forEach(this::onStockChanged);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void flushLoop() {
+        List<StockLedgerEntry> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            try {
+                long timeout = batch.isEmpty() ? maxWaitNanos : Math.max(0, deadline - System.nanoTime());
+                StockLedgerEntry entry = running ? buffer.poll(timeout, TimeUnit.NANOSECONDS) : buffer.poll();
+                if (entry != null) {
+                    if (batch.isEmpty()) {
+                        deadline = System.nanoTime() + maxWaitNanos;
+                    }
+                    batch.add(entry);
+                    buffer.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // 종료 중 : 남은 buffer 를 모두 기록하고 끝낸다.
+                continue;
+            }
+            if (!batch.isEmpty() && (batch.size() >= batchSize || System.nanoTime() >= deadline || !running)) {
+                if (writeWithRetry(batch)) {
+                    batch = new ArrayList<>(batchSize);
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    // 종료 중에 실패하면 false
+    private boolean writeWithRetry(List<StockLedgerEntry> batch) {
+        while (true) {
+            try {
+                write(batch);
+                return true;
+            } catch (Exception e) {
+                log.warn("ledger batch insert 실패, 다시 시도합니다. size={}", batch.size(), e);
+                if (!running) {
+                    return false;
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void write(List<StockLedgerEntry> entries) {
+        Set<Long> unknown = entries.stream()
+                .filter(entry -> entry.productId() == null && !productIds.containsKey(entry.stockId()))
+                .map(StockLedgerEntry::stockId)
+                .collect(Collectors.toSet());
+        if (!unknown.isEmpty()) {
+            for (Stock stock : stockRepository.findAllById(unknown)) {
+                productIds.putIfAbsent(stock.getId(), stock.getProductId());
+            }
+        }
+        stockLedgerJdbcRepository.insertAll(entries.stream()
+                .map(entry -> entry.productId() != null ? entry : entry.withProductId(productIds.get(entry.stockId())))
+                .toList());
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.order.global.lock;
+
+import com.example.order.global.exception.LockAcquisitionException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class FairRedisLock {
+
+    /**
+     * 번호표 방식의 공정(FIFO) 분산 lock
+     * - INCR 로 번호표(ticket)를 받고, serving 번호와 같아질 때까지 기다린다.
+     * - 대기자는 자기 번호 전용 채널 (stock:fair-lock:{id}:notify:<ticket>) 에서 알림을 받기 때문에 redis 를 spin 으로 두드리지 않는다.
+     *   알림이 유실되어도 poll-interval 마다 한 번씩 직접 확인한다.
+     * - 대기자는 heartbeat key 를 유지하고, heartbeat 가 끊긴 (죽은) 대기자의 번호는 건너뛴다.
+     * - lock 값은 소유 token 이라 다른 소유자의 lock 을 풀 수 없고, 잡고 있는 동안 watchdog 이 lease 를 연장한다.
+     *
+     * key 는 {id} hash tag 로 묶어 cluster 에서도 같은 slot 에 둔다.
+     */
+
+    private static final String KEY_PREFIX = "stock:fair-lock:";
+
+    private static final String NOTIFY_PATTERN = KEY_PREFIX + "*:notify:*";
+
+    // lock 이 비어 있으면 heartbeat 가 없는 번호를 건너뛴다. (serving 이 다음에 발급될 번호까지 갈 수 있음)
+    // KEYS[1] = lock, KEYS[2] = serving, KEYS[3] = ticket / ARGV[1] = waiter prefix
+    private static final String SKIP_DEAD_WAITERS =
+            "local serving = tonumber(redis.call('GET', KEYS[2]) or '1') " +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  local last = tonumber(redis.call('GET', KEYS[3]) or '0') " +
+            "  while serving <= last and redis.call('EXISTS', ARGV[1] .. serving) == 0 do serving = serving + 1 end " +
+            "  redis.call('SET', KEYS[2], serving) " +
+            "end ";
+
+    // KEYS[1] = serving, KEYS[2] = ticket / ARGV[1] = waiter prefix, ARGV[2] = heartbeat(ms)
+    private static final RedisScript<Long> ENQUEUE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('SETNX', KEYS[1], 1) " +
+            "local ticket = redis.call('INCR', KEYS[2]) " +
+            "redis.call('SET', ARGV[1] .. ticket, '1', 'PX', ARGV[2]) " +
+            "return ticket",
+            Long.class);
+
+    // 1 : 획득 / 0 : 대기 (heartbeat 연장) / -1 : heartbeat 가 끊겨 번호를 잃음
+    // ARGV[2] = ticket, ARGV[3] = token, ARGV[4] = lease(ms), ARGV[5] = heartbeat(ms)
+    private static final RedisScript<Long> TRY_ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            SKIP_DEAD_WAITERS +
+            "local ticket = tonumber(ARGV[2]) " +
+            "if serving == ticket and redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  redis.call('SET', KEYS[1], ARGV[3], 'PX', ARGV[4]) " +
+            "  redis.call('DEL', ARGV[1] .. ticket) " +
+            "  return 1 " +
+            "end " +
+            "if redis.call('PEXPIRE', ARGV[1] .. ticket, ARGV[5]) == 0 and serving > ticket then return -1 end " +
+            "return 0",
+            Long.class);
+
+    // 내 token 일 때만 해제 후 다음 번호에게 알림
+    // ARGV[2] = token, ARGV[3] = notify channel prefix
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[2] then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('INCR', KEYS[2]) " +
+            SKIP_DEAD_WAITERS +
+            "redis.call('PUBLISH', ARGV[3] .. serving, serving) " +
+            "return 1",
+            Long.class);
+
+    // 대기 포기 : heartbeat 를 지우고, 내 차례였다면 다음 번호에게 알림
+    // ARGV[2] = ticket, ARGV[3] = notify channel prefix
+    private static final RedisScript<Long> ABANDON_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', ARGV[1] .. ARGV[2]) " +
+            SKIP_DEAD_WAITERS +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then redis.call('PUBLISH', ARGV[3] .. serving, serving) end " +
+            "return 1",
+            Long.class);
+
+    // KEYS[1] = lock / ARGV[1] = token, ARGV[2] = lease(ms)
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+            "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final long leaseMillis;
+
+    private final long maxWaitNanos;
+
+    private final long heartbeatMillis;
+
+    private final long pollIntervalNanos;
+
+    // notify 채널 -> 그 번호를 기다리는 로컬 스레드
+    private final ConcurrentHashMap<String, Semaphore> signals = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fair-lock-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FairRedisLock(RedisTemplate<String, String> redisTemplate,
+                         RedisMessageListenerContainer redisMessageListenerContainer,
+                         @Value("${stock.fair-lock.lease-ms:3000}") long leaseMillis,
+                         @Value("${stock.fair-lock.max-wait:10s}") Duration maxWait,
+                         @Value("${stock.fair-lock.heartbeat-ms:2000}") long heartbeatMillis,
+                         @Value("${stock.fair-lock.poll-interval-ms:200}") long pollIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.leaseMillis = leaseMillis;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.heartbeatMillis = heartbeatMillis;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> {
+                    Semaphore signal = signals.get(new String(message.getChannel()));
+                    if (signal != null) {
+                        signal.release();
+                    }
+                },
+                new PatternTopic(NOTIFY_PATTERN));
+    }
+
+    public Handle lock(Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        String token = UUID.randomUUID().toString();
+        Semaphore signal = new Semaphore(0);
+        long ticket = enqueue(id);
+        String channel = notifyChannel(id, ticket);
+        signals.put(channel, signal);
+        try {
+            while (true) {
+                long result = tryAcquire(id, ticket, token);
+                if (result == 1) {
+                    return new Handle(id, token, scheduleRenewal(id, token));
+                }
+                if (result == -1) {
+                    // 오래 멈춰 있어 번호를 잃었으면 다시 줄을 선다.
+                    signals.remove(channel);
+                    ticket = enqueue(id);
+                    channel = notifyChannel(id, ticket);
+                    signals.put(channel, signal);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    abandon(id, ticket);
+                    throw new LockAcquisitionException(generateKey(id, "lock"));
+                }
+                signal.tryAcquire(Math.min(remaining, pollIntervalNanos), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            abandon(id, ticket);
+            throw e;
+        } finally {
+            signals.remove(channel);
+        }
+    }
+
+    public void unlock(Handle handle) {
+        handle.renewal().cancel(false);
+        redisTemplate.execute(RELEASE_SCRIPT, keys(handle.id()),
+                waiterPrefix(handle.id()), handle.token(), notifyChannelPrefix(handle.id()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    private long enqueue(Long id) {
+        return redisTemplate.execute(ENQUEUE_SCRIPT,
+                List.of(generateKey(id, "serving"), generateKey(id, "ticket")),
+                waiterPrefix(id), String.valueOf(heartbeatMillis));
+    }
+
+    private long tryAcquire(Long id, long ticket, String token) {
+        return redisTemplate.execute(TRY_ACQUIRE_SCRIPT, keys(id),
+                waiterPrefix(id), String.valueOf(ticket), token,
+                String.valueOf(leaseMillis), String.valueOf(heartbeatMillis));
+    }
+
+    private void abandon(Long id, long ticket) {
+        redisTemplate.execute(ABANDON_SCRIPT, keys(id),
+                waiterPrefix(id), String.valueOf(ticket), notifyChannelPrefix(id));
+    }
+
+    //==작업이 lease 보다 길어져도 lock 이 풀리지 않도록 lease / 3 마다 연장==//
+    private ScheduledFuture<?> scheduleRenewal(Long id, String token) {
+        long period = Math.max(1, leaseMillis / 3);
+        return watchdog.scheduleAtFixedRate(
+                () -> redisTemplate.execute(RENEW_SCRIPT, List.of(generateKey(id, "lock")), token, String.valueOf(leaseMillis)),
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private List<String> keys(Long id) {
+        return List.of(generateKey(id, "lock"), generateKey(id, "serving"), generateKey(id, "ticket"));
+    }
+
+    private String waiterPrefix(Long id) {
+        return generateKey(id, "waiter:");
+    }
+
+    private String notifyChannelPrefix(Long id) {
+        return generateKey(id, "notify:");
+    }
+
+    private String notifyChannel(Long id, long ticket) {
+        return notifyChannelPrefix(id) + ticket;
+    }
+
+    private String generateKey(Long id, String suffix) {
+        return KEY_PREFIX + "{" + id + "}:" + suffix;
+    }
+
+    public record Handle(Long id, String token, ScheduledFuture<?> renewal) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.order.global.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class LocalLockStripes {
+
+    /**
+     * 상품 id 의 hash 로 나눈 JVM 내부 lock
+     * 같은 서버의 요청끼리는 여기서 먼저 줄을 서기 때문에 redis / named lock 을 두고 경쟁하는 스레드는 서버당 하나가 된다.
+     *
+     * 상품마다 lock 을 만들지 않고 고정된 개수의 stripe 를 재사용 (메모리 제한)
+     * 서로 다른 상품이 같은 stripe 에 걸릴 수 있지만 stripe 수를 충분히 크게 두면 거의 발생하지 않는다.
+     */
+
+    private final ReentrantLock[] stripes;
+
+    private final int mask;
+
+    public LocalLockStripes(@Value("${stock.local-lock.stripes:1024}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            // 먼저 기다린 요청이 먼저 처리되도록 fair lock
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.mask = size - 1;
+    }
+
+    public ReentrantLock get(Long id) {
+        return stripes[index(id)];
+    }
+
+    /**
+     * 여러 상품의 stripe 를 중복 없이 stripe 순서대로 반환
+     * 상품 id 순서가 아니라 stripe 순서로 잡아야 서로 다른 주문이 같은 stripe 를 반대 순서로 기다리지 않는다.
+     */
+    public List<ReentrantLock> getAll(Collection<Long> ids) {
+        return ids.stream()
+                .mapToInt(this::index)
+                .distinct()
+                .sorted()
+                .mapToObj(index -> stripes[index])
+                .toList();
+    }
+
+    private int index(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
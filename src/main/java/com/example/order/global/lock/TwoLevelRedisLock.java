@@ -0,0 +1,137 @@
+package com.example.order.global.lock;
+
+import com.example.order.repository.RedisLockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class TwoLevelRedisLock {
+
+    /**
+     * 1단계 : LocalLockStripes 로 같은 서버의 요청을 줄 세움
+     * 2단계 : 줄의 맨 앞 스레드만 redis lock (setnx) 을 시도
+     *
+     * 해제 시 같은 상품을 기다리는 로컬 스레드가 있고, redis lock 을 잡은 지 handoff-window 가 지나지 않았다면
+     * redis lock 을 풀지 않고 다음 스레드에게 그대로 넘긴다. (redis 왕복 2번 절약)
+     * handoff-window 는 redis lock 만료(3초) 전에 다음 스레드의 작업이 끝날 수 있도록 충분히 짧게 둔다.
+     *
+     * 여러 상품은 stripe 순서로 로컬 lock 을 모두 잡은 뒤 id 순서로 redis lock 을 잡는다.
+     */
+
+    private final RedisLockRepository redisLockRepository;
+
+    private final LocalLockStripes localLockStripes;
+
+    private final long handoffWindowNanos;
+
+    // 이 서버가 redis lock 을 잡고 있는 상품 -> 소유 token, 잡은 시각
+    private final ConcurrentHashMap<Long, Held> held = new ConcurrentHashMap<>();
+
+    // 상품별 로컬 대기 스레드 수 (0 이 되면 항목을 지운다)
+    private final ConcurrentHashMap<Long, Integer> waiters = new ConcurrentHashMap<>();
+
+    public TwoLevelRedisLock(RedisLockRepository redisLockRepository,
+                             LocalLockStripes localLockStripes,
+                             @Value("${stock.local-lock.handoff-window-ms:1000}") long handoffWindowMillis) {
+        this.redisLockRepository = redisLockRepository;
+        this.localLockStripes = localLockStripes;
+        this.handoffWindowNanos = TimeUnit.MILLISECONDS.toNanos(handoffWindowMillis);
+    }
+
+    public void lock(Long id) throws InterruptedException {
+        lockAll(List.of(id));
+    }
+
+    public void unlock(Long id) {
+        unlockAll(List.of(id));
+    }
+
+    //==ids 는 정렬되어 있어야 한다 (DecreaseItem.canonicalize)==//
+    public void lockAll(List<Long> ids) throws InterruptedException {
+        List<ReentrantLock> locals = localLockStripes.getAll(ids);
+        for (Long id : ids) {
+            waiters.merge(id, 1, Integer::sum);
+        }
+
+        List<ReentrantLock> lockedLocals = new ArrayList<>(locals.size());
+        try {
+            for (ReentrantLock local : locals) {
+                local.lockInterruptibly();
+                lockedLocals.add(local);
+            }
+        } catch (InterruptedException e) {
+            lockedLocals.forEach(ReentrantLock::unlock);
+            throw e;
+        } finally {
+            for (Long id : ids) {
+                waiters.computeIfPresent(id, (key, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        List<Long> acquired = new ArrayList<>(ids.size());
+        try {
+            for (Long id : ids) {
+                lockRedis(id);
+                acquired.add(id);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            acquired.forEach(this::unlockRedis);
+            lockedLocals.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+    }
+
+    public void unlockAll(List<Long> ids) {
+        try {
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                unlockRedis(ids.get(i));
+            }
+        } finally {
+            localLockStripes.getAll(ids).forEach(ReentrantLock::unlock);
+        }
+    }
+
+    private void lockRedis(Long id) throws InterruptedException {
+        Held current = held.get(id);
+        if (current != null) {
+            if (System.nanoTime() - current.since() < handoffWindowNanos) {
+                // 이전 스레드가 넘겨준 redis lock 을 그대로 사용
+                return;
+            }
+            // 오래된 lock 은 정리 후 새로 획득 (token 이 다르면 이미 만료된 lock 이므로 삭제되지 않는다)
+            held.remove(id);
+            redisLockRepository.unlock(id, current.token());
+        }
+        String token = UUID.randomUUID().toString();
+        while (!redisLockRepository.lock(id, token)) { // 락 획득 실패시 텀을 주고 재실행 redis 로 가는 부하 방지
+            Thread.sleep(100);
+        }
+        held.put(id, new Held(token, System.nanoTime()));
+    }
+
+    private void unlockRedis(Long id) {
+        Held current = held.get(id);
+        boolean handoff = current != null
+                && waiters.containsKey(id)
+                && System.nanoTime() - current.since() < handoffWindowNanos;
+        if (!handoff && current != null) {
+            held.remove(id);
+            redisLockRepository.unlock(id, current.token());
+        }
+    }
+
+    // 로컬 대기 스레드가 있는 상품 수 (테스트 확인용)
+    int waitingProducts() {
+        return waiters.size();
+    }
+
+    private record Held(String token, long since) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.order.global.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class StockMetrics {
+
+    /**
+     * lock 대기 / lock 점유 / 획득 실패 / 재시도 / 재고 부족 지표
+     * tag : strategy (lock 방식), product_bucket (상품 id 를 bucket 으로 묶어서 cardinality 제한, 여러 상품 / 모르면 none)
+     *
+     * meter 는 한 번 만든 뒤 재사용 (요청마다 builder 를 만들지 않도록)
+     * histogram 은 범위를 제한해서 bucket 수를 줄인다.
+     */
+
+    public static final int PRODUCT_BUCKETS = 16;
+
+    private static final String[] BUCKET_TAGS = new String[PRODUCT_BUCKETS];
+
+    static {
+        for (int i = 0; i < PRODUCT_BUCKETS; i++) {
+            BUCKET_TAGS[i] = String.valueOf(i);
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public StockMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordLockWait(String strategy, Long id, long startedAtNanos) {
+        timer("stock.lock.wait", strategy, id).record(System.nanoTime() - startedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockHold(String strategy, Long id, long startedAtNanos) {
+        timer("stock.lock.hold", strategy, id).record(System.nanoTime() - startedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    //==reason : timeout, interrupted, retry_exhausted ...==//
+    public void lockFailure(String strategy, Long id, String reason) {
+        counter("stock.lock.failure", strategy, id, "reason", reason).increment();
+    }
+
+    public void retry(String strategy, Long id) {
+        counter("stock.retry", strategy, id, "reason", "conflict").increment();
+    }
+
+    public void soldOut(String strategy, Long id) {
+        counter("stock.sold_out", strategy, id, "reason", "insufficient").increment();
+    }
+
+    //==요청을 처리하지 않고 바로 거절 (reason : queue_full ...)==//
+    public void rejected(String strategy, String reason) {
+        counter("stock.rejected", strategy, "reason", reason).increment();
+    }
+
+    //==StockDecreaseRouter 의 단계 전환==//
+    public void routeSwitch(String from, String to) {
+        counter("stock.route.switch", to, "from", from).increment();
+    }
+
+    //==입고 import 처리 건수 (strategy : 파일 형식 / outcome : applied / skipped)==//
+    public void imported(String format, String outcome, long rows) {
+        counter("stock.import.rows", format, "outcome", outcome).increment(rows);
+    }
+
+    public static String bucket(Long id) {
+        return id == null ? "none" : BUCKET_TAGS[(int) Math.floorMod(id, (long) PRODUCT_BUCKETS)];
+    }
+
+    Timer timer(String name, String strategy, Long id) {
+        String bucket = bucket(id);
+        return timers.computeIfAbsent(name + '|' + strategy + '|' + bucket, key -> Timer.builder(name)
+                .tag("strategy", strategy)
+                .tag("product_bucket", bucket)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+
+    //==상품별 counter==//
+    private Counter counter(String name, String strategy, Long id, String tagKey, String tagValue) {
+        String bucket = bucket(id);
+        return counters.computeIfAbsent(name + '|' + strategy + '|' + bucket + '|' + tagValue, key -> Counter.builder(name)
+                .tag("strategy", strategy)
+                .tag("product_bucket", bucket)
+                .tag(tagKey, tagValue)
+                .register(meterRegistry));
+    }
+
+    private Counter counter(String name, String strategy, String tagKey, String tagValue) {
+        return counters.computeIfAbsent(name + '|' + strategy + '|' + tagValue, key -> Counter.builder(name)
+                .tag("strategy", strategy)
+                .tag(tagKey, tagValue)
+                .register(meterRegistry));
+    }
+}
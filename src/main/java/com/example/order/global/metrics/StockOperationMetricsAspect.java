@@ -0,0 +1,77 @@
+package com.example.order.global.metrics;
+
+import com.example.order.global.event.StockOperationContext;
+import com.example.order.global.exception.SoldOutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Aspect
+@Component
+// 트랜잭션 interceptor 보다 바깥에서 측정해야 commit 시간까지 포함된다.
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StockOperationMetricsAspect {
+
+    /**
+     * service / facade 의 모든 public 메서드 실행 시간 (stock.operation)
+     * tag : class, method, outcome (success / sold_out / error)
+     *
+     * Mono / CompletableFuture 를 반환하는 메서드는 구독 / 제출까지만 측정된다.
+     *
+     * 가장 바깥에서 호출된 class 이름을 StockOperationContext.strategy 로 남긴다. (ledger 기록용)
+     */
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StockOperationMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.order.service..*(..)) || execution(public * com.example.order.global.facade..*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        long startedAt = System.nanoTime();
+        String outcome = "success";
+        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        boolean outermost = MDC.get(StockOperationContext.STRATEGY) == null;
+        if (outermost) {
+            MDC.put(StockOperationContext.STRATEGY, className);
+        }
+        try {
+            return joinPoint.proceed();
+        } catch (SoldOutException e) {
+            outcome = "sold_out";
+            throw e;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            if (outermost) {
+                MDC.remove(StockOperationContext.STRATEGY);
+            }
+            timer(className, joinPoint.getSignature().getName(), outcome)
+                    .record(Duration.ofNanos(System.nanoTime() - startedAt));
+        }
+    }
+
+    private Timer timer(String className, String method, String outcome) {
+        return timers.computeIfAbsent(className + '.' + method + '|' + outcome, key -> Timer.builder("stock.operation")
+                .tag("class", className)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+}
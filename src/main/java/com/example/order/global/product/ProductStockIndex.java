@@ -0,0 +1,149 @@
+package com.example.order.global.product;
+
+import com.example.order.global.collection.LongLongHashMap;
+import com.example.order.repository.StockImportJdbcRepository;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.dto.DecreaseItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+@Slf4j
+@Component
+public class ProductStockIndex {
+
+    /**
+     * productId -> stockId 메모리 index (LongLongHashMap)
+     * 호출하는 쪽은 productId 로 요청하고, 재고 경로는 stockId (PK) 로 동작하기 때문에 변환할 때 DB 를 거치지 않도록 한다.
+     *
+     * - 시작 시 stock 테이블 전체를 읽어 채운다.
+     * - 새 재고는 insert commit 직후 (ProductStockIndexListener) / 입고 import 때 추가
+     * - index 에 없는 productId (다른 서버에서 만든 재고 등) 는 DB 에서 한 번 조회 후 추가
+     * - 조회는 StampedLock optimistic read 로 lock 을 잡지 않는다. 쓰는 중이었다면 read lock 으로 다시 읽는다.
+     */
+
+    // productId 를 첫 번째 인자로 받는 감소 메서드 (facade / service) 이름
+    public static final String BY_PRODUCT = "decreaseByProduct";
+
+    private static final long NONE = -1L;
+
+    // 시작 시 적재할 때 이 개수마다 write lock 을 놓아서 조회를 오래 막지 않는다.
+    private static final int WARM_UP_BATCH = 10_000;
+
+    private final StockRepository stockRepository;
+
+    private final StockImportJdbcRepository stockImportJdbcRepository;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final LongLongHashMap stockIds = new LongLongHashMap(1024);
+
+    public ProductStockIndex(StockRepository stockRepository, StockImportJdbcRepository stockImportJdbcRepository) {
+        this.stockRepository = stockRepository;
+        this.stockImportJdbcRepository = stockImportJdbcRepository;
+    }
+
+    public Long stockId(Long productId) {
+        long stockId = find(productId);
+        if (stockId != NONE) {
+            return stockId;
+        }
+        Long loaded = stockRepository.findIdByProductId(productId)
+                .orElseThrow(() -> new NoSuchElementException("재고가 존재하지 않습니다. productId=" + productId));
+        put(productId, loaded);
+        return loaded;
+    }
+
+    //==id 가 productId 인 항목을 stockId 로 변환==//
+    public List<DecreaseItem> toStockItems(List<DecreaseItem> productItems) {
+        return productItems.stream()
+                .map(item -> new DecreaseItem(stockId(item.id()), item.quantity()))
+                .toList();
+    }
+
+    /**
+     * 품절 / admission aspect 는 첫 번째 Long 인자를 stockId 로 본다.
+     * decreaseByProduct* 의 인자는 첫 번째 productId 를 stockId 로 바꿔서 돌려준다.
+     */
+    public Object[] toStockArgs(String method, Object[] args) {
+        if (!method.startsWith(BY_PRODUCT) || args.length == 0 || !(args[0] instanceof Long productId)) {
+            return args;
+        }
+        Object[] stockArgs = args.clone();
+        stockArgs[0] = stockId(productId);
+        return stockArgs;
+    }
+
+    public void put(long productId, long stockId) {
+        long stamp = lock.writeLock();
+        try {
+            stockIds.put(productId, stockId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //==productId -> stockId 여러 개==//
+    public void putAll(LongLongHashMap productToStock) {
+        long stamp = lock.writeLock();
+        try {
+            productToStock.forEach(stockIds::put);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //==삭제된 재고, 그 사이 같은 productId 로 새 재고가 생겼다면 그대로 둔다==//
+    public void remove(long productId, long stockId) {
+        long stamp = lock.writeLock();
+        try {
+            if (stockIds.get(productId, NONE) == stockId) {
+                stockIds.remove(productId);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LongLongHashMap batch = new LongLongHashMap(WARM_UP_BATCH);
+        long[] count = {0};
+        stockImportJdbcRepository.forEachProductId((productId, stockId) -> {
+            batch.put(productId, stockId);
+            if (batch.size() >= WARM_UP_BATCH) {
+                putAll(batch);
+                count[0] += batch.size();
+                batch.clear();
+            }
+        });
+        putAll(batch);
+        count[0] += batch.size();
+        log.info("productId index 적재 완료 size={}", count[0]);
+    }
+
+    private long find(long productId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                long stockId = stockIds.get(productId, NONE);
+                if (lock.validate(stamp)) {
+                    return stockId;
+                }
+            } catch (RuntimeException e) {
+                // rehash 도중에 읽어서 배열이 어긋난 경우, 아래에서 다시 읽는다.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return stockIds.get(productId, NONE);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.order.global.product;
+
+import com.example.order.domain.Stock;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class ProductStockIndexListener {
+
+    /**
+     * Stock insert / delete 를 ProductStockIndex 에 반영 (JPA entity listener)
+     * rollback 된 insert 가 index 에 남지 않도록 commit 이후에 반영한다.
+     *
+     * EntityManagerFactory 생성 중에 만들어지기 때문에 index (-> StockRepository) 는 처음 사용할 때 가져온다.
+     */
+
+    private final ObjectProvider<ProductStockIndex> productStockIndex;
+
+    public ProductStockIndexListener(ObjectProvider<ProductStockIndex> productStockIndex) {
+        this.productStockIndex = productStockIndex;
+    }
+
+    @PostPersist
+    public void onPersist(Stock stock) {
+        if (stock.getProductId() != null) {
+            afterCommit(() -> productStockIndex.getObject().put(stock.getProductId(), stock.getId()));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Stock stock) {
+        if (stock.getProductId() != null) {
+            afterCommit(() -> productStockIndex.getObject().remove(stock.getProductId(), stock.getId()));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.order.global.reservation;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class ReservationExpiryQueue {
+
+    /**
+     * 만료 시각 순으로 정렬된 예약 queue
+     * sweeper 는 테이블을 scan 하지 않고 만료 시각이 지난 예약만 꺼내서 처리한다.
+     */
+
+    private final DelayQueue<Expiry> queue = new DelayQueue<>();
+
+    public void add(Long reservationId, LocalDateTime expiresAt) {
+        long expiresAtMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        queue.add(new Expiry(reservationId, expiresAtMillis));
+    }
+
+    //==만료된 예약을 최대 maxSize 개 꺼냄==//
+    public List<Long> drainExpired(int maxSize) {
+        List<Expiry> expired = new ArrayList<>();
+        queue.drainTo(expired, maxSize);
+        return expired.stream().map(Expiry::reservationId).toList();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private record Expiry(Long reservationId, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Expiry) other).expiresAtMillis);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.order.global.reservation;
+
+import com.example.order.domain.ReservationStatus;
+import com.example.order.domain.StockReservation;
+import com.example.order.repository.StockReservationRepository;
+import com.example.order.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+public class ReservationSweeper {
+
+    /**
+     * 만료된 예약을 batch-size 단위로 꺼내서 일괄 만료 처리
+     * queue 에서 만료된 것만 꺼내기 때문에 예약이 많아도 테이블 scan 이 발생하지 않는다.
+     *
+     * 메모리 queue 는 재시작 시 사라지므로 시작할 때 HELD 예약을 (status, expiresAt) index 로 다시 적재한다.
+     */
+
+    private final ReservationExpiryQueue reservationExpiryQueue;
+
+    private final StockReservationService stockReservationService;
+
+    private final StockReservationRepository stockReservationRepository;
+
+    private final int batchSize;
+
+    public ReservationSweeper(ReservationExpiryQueue reservationExpiryQueue,
+                              StockReservationService stockReservationService,
+                              StockReservationRepository stockReservationRepository,
+                              @Value("${stock.reservation.sweep-batch-size:500}") int batchSize) {
+        this.reservationExpiryQueue = reservationExpiryQueue;
+        this.stockReservationService = stockReservationService;
+        this.stockReservationRepository = stockReservationRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reservation.sweep-interval-ms:1000}")
+    public void sweep() {
+        sweepExpired();
+    }
+
+    //==처리한 예약 수 반환==//
+    public int sweepExpired() {
+        int expired = 0;
+        List<Long> ids;
+        while (!(ids = reservationExpiryQueue.drainExpired(batchSize)).isEmpty()) {
+            try {
+                expired += stockReservationService.expire(ids);
+            } catch (Exception e) {
+                log.warn("예약 만료 처리 실패, 다음 주기에 재시도 합니다. size={}", ids.size(), e);
+                LocalDateTime now = LocalDateTime.now();
+                ids.forEach(id -> reservationExpiryQueue.add(id, now));
+                return expired;
+            }
+        }
+        return expired;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (StockReservation reservation : stockReservationRepository.findAllByStatusOrderByExpiresAt(ReservationStatus.HELD)) {
+            reservationExpiryQueue.add(reservation.getId(), reservation.getExpiresAt());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.order.global.restock;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum StockImportFormat {
+    // product_id,quantity (첫 줄 header 는 있어도 되고 없어도 된다)
+    CSV,
+    // {"productId":1,"quantity":10}
+    NDJSON;
+
+    public static StockImportFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("지원하지 않는 입고 파일 형식입니다. file=" + file);
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
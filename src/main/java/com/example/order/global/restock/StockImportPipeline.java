@@ -0,0 +1,187 @@
+package com.example.order.global.restock;
+
+import com.example.order.global.collection.LongLongHashMap;
+import com.example.order.global.exception.StockImportException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.service.StockRestockService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Component
+public class StockImportPipeline {
+
+    /**
+     * 입고 파일 (csv / ndjson) 을 읽으면서 chunk 단위로 반영 (StockRestockService.importChunk)
+     *
+     * - 읽는 스레드 하나 + 반영하는 writer 스레드 여러 개
+     * - productId 로 writer 를 나누기 때문에 같은 상품은 항상 같은 writer 가 반영한다. (writer 끼리 같은 row lock 을 다투지 않는다)
+     * - writer 마다 chunk-size 개 상품을 모아 한 번에 upsert, 같은 chunk 안의 같은 상품은 수량을 합친다.
+     * - writer queue 가 가득 차면 읽기를 멈춘다. (파일 크기와 상관없이 메모리 사용량이 일정)
+     * - 반영에 실패하면 읽기를 멈추고 StockImportException (이미 반영된 chunk 는 그대로 남는다)
+     */
+
+    private static final LongLongHashMap END = new LongLongHashMap();
+
+    // 이 row 수마다 진행 상황 확인
+    private static final int PROGRESS_CHECK_ROWS = 1 << 14;
+
+    private final StockRestockService stockRestockService;
+
+    private final StockMetrics stockMetrics;
+
+    private final JsonFactory jsonFactory;
+
+    private final int chunkSize;
+
+    private final int writerCount;
+
+    private final int queueDepth;
+
+    private final long progressIntervalNanos;
+
+    public StockImportPipeline(StockRestockService stockRestockService,
+                               StockMetrics stockMetrics,
+                               ObjectMapper objectMapper,
+                               @Value("${stock.import.chunk-size:1000}") int chunkSize,
+                               @Value("${stock.import.writers:4}") int writerCount,
+                               @Value("${stock.import.queue-depth:2}") int queueDepth,
+                               @Value("${stock.import.progress-interval:10s}") Duration progressInterval) {
+        this.stockRestockService = stockRestockService;
+        this.stockMetrics = stockMetrics;
+        this.jsonFactory = objectMapper.getFactory();
+        this.chunkSize = chunkSize;
+        this.writerCount = writerCount;
+        this.queueDepth = queueDepth;
+        this.progressIntervalNanos = progressInterval.toNanos();
+    }
+
+    public StockImportReport run(Path file) throws IOException, InterruptedException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return run(in, StockImportFormat.of(file));
+        }
+    }
+
+    public StockImportReport run(InputStream in, StockImportFormat format) throws IOException, InterruptedException {
+        long startedAt = System.nanoTime();
+        AtomicLong applied = new AtomicLong();
+        AtomicLong chunks = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Writer[] writers = new Writer[writerCount];
+        for (int i = 0; i < writerCount; i++) {
+            writers[i] = new Writer(i, format, applied, chunks, failure);
+        }
+
+        long rows = 0;
+        long skipped;
+        long lastReportedAt = startedAt;
+        try (StockImportReader reader = StockImportReader.of(format,
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), jsonFactory)) {
+            while (failure.get() == null && reader.next()) {
+                long productId = reader.productId();
+                writers[(int) Math.floorMod(productId, (long) writerCount)].add(productId, reader.quantity());
+                if (++rows % PROGRESS_CHECK_ROWS == 0 && System.nanoTime() - lastReportedAt >= progressIntervalNanos) {
+                    lastReportedAt = System.nanoTime();
+                    log.info("입고 import 진행 중 rows={}, applied={}, {} rows/s", rows, applied.get(),
+                            String.format("%.0f", rows * 1_000_000_000.0 / (lastReportedAt - startedAt)));
+                }
+            }
+            skipped = reader.skipped();
+        } finally {
+            for (Writer writer : writers) {
+                writer.finish(failure.get() == null);
+            }
+            for (Writer writer : writers) {
+                writer.thread.join();
+            }
+        }
+
+        if (failure.get() != null) {
+            throw new StockImportException(applied.get(), failure.get());
+        }
+        stockMetrics.imported(format.tag(), "skipped", skipped);
+        StockImportReport report = new StockImportReport(rows, skipped, applied.get(), chunks.get(),
+                Duration.ofNanos(System.nanoTime() - startedAt));
+        log.info("입고 import 완료 rows={}, skipped={}, applied={}, chunks={}, elapsed={}, {} rows/s",
+                report.rows(), report.skipped(), report.applied(), report.chunks(), report.elapsed(),
+                String.format("%.0f", report.rowsPerSecond()));
+        return report;
+    }
+
+    //==productId 로 나뉜 writer : 읽는 스레드가 chunk 를 채우고 writer 스레드가 반영==//
+    private final class Writer {
+
+        private final BlockingQueue<LongLongHashMap> queue = new ArrayBlockingQueue<>(queueDepth);
+
+        private final Thread thread;
+
+        private LongLongHashMap buffer = new LongLongHashMap(chunkSize);
+
+        private Writer(int index, StockImportFormat format, AtomicLong applied, AtomicLong chunks,
+                       AtomicReference<Throwable> failure) {
+            this.thread = new Thread(() -> consume(format, applied, chunks, failure), "stock-import-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private void add(long productId, long quantity) throws InterruptedException {
+            buffer.addTo(productId, quantity);
+            if (buffer.size() >= chunkSize) {
+                queue.put(buffer);
+                buffer = new LongLongHashMap(chunkSize);
+            }
+        }
+
+        private void finish(boolean flush) throws InterruptedException {
+            if (flush && !buffer.isEmpty()) {
+                queue.put(buffer);
+            }
+            queue.put(END);
+        }
+
+        private void consume(StockImportFormat format, AtomicLong applied, AtomicLong chunks,
+                             AtomicReference<Throwable> failure) {
+            while (true) {
+                LongLongHashMap chunk;
+                try {
+                    chunk = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (chunk == END) {
+                    return;
+                }
+                // 실패한 뒤에는 남은 chunk 를 버리기만 한다. (읽는 스레드가 막히지 않도록)
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    int count = stockRestockService.importChunk(chunk);
+                    applied.addAndGet(count);
+                    chunks.incrementAndGet();
+                    stockMetrics.imported(format.tag(), "applied", count);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.order.global.restock;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 입고 파일을 한 줄씩 읽는다. (파일 전체를 메모리에 올리지 않는다)
+ * row 마다 객체를 만들지 않고 현재 row 의 productId / quantity 만 들고 있다.
+ * 형식이 잘못된 줄 (숫자가 아님, 수량이 음수 등) 은 건너뛰고 skipped 로 센다.
+ */
+abstract class StockImportReader implements Closeable {
+
+    private final BufferedReader reader;
+
+    protected long productId;
+
+    protected long quantity;
+
+    // 빈 줄을 제외하고 읽은 줄 수
+    protected long lines;
+
+    private long skipped;
+
+    protected StockImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    static StockImportReader of(StockImportFormat format, BufferedReader reader, JsonFactory jsonFactory) {
+        return switch (format) {
+            case CSV -> new Csv(reader);
+            case NDJSON -> new Ndjson(reader, jsonFactory);
+        };
+    }
+
+    //==다음 정상 row 로 이동, 더 이상 없으면 false==//
+    boolean next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            lines++;
+            if (parse(line) && productId > 0 && quantity >= 0) {
+                return true;
+            }
+            if (!isHeader(line)) {
+                skipped++;
+            }
+        }
+        return false;
+    }
+
+    long productId() {
+        return productId;
+    }
+
+    long quantity() {
+        return quantity;
+    }
+
+    long skipped() {
+        return skipped;
+    }
+
+    // productId / quantity 를 채우고 성공 여부 반환
+    protected abstract boolean parse(String line);
+
+    protected boolean isHeader(String line) {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class Csv extends StockImportReader {
+
+        private Csv(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected boolean parse(String line) {
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                return false;
+            }
+            try {
+                productId = Long.parseLong(line, 0, comma, 10);
+                int end = line.indexOf(',', comma + 1);
+                quantity = Long.parseLong(line, comma + 1, end < 0 ? line.length() : end, 10);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        // 첫 줄이 숫자로 시작하지 않으면 header
+        @Override
+        protected boolean isHeader(String line) {
+            return lines == 1 && !Character.isDigit(line.strip().charAt(0));
+        }
+    }
+
+    private static final class Ndjson extends StockImportReader {
+
+        // parser 내부 buffer 는 JsonFactory 가 재사용한다.
+        private final JsonFactory jsonFactory;
+
+        private Ndjson(BufferedReader reader, JsonFactory jsonFactory) {
+            super(reader);
+            this.jsonFactory = jsonFactory;
+        }
+
+        @Override
+        protected boolean parse(String line) {
+            boolean hasProductId = false;
+            boolean hasQuantity = false;
+            try (JsonParser parser = jsonFactory.createParser(line)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return false;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.VALUE_NUMBER_INT && ("productId".equals(field) || "product_id".equals(field))) {
+                        productId = parser.getLongValue();
+                        hasProductId = true;
+                    } else if (value == JsonToken.VALUE_NUMBER_INT && "quantity".equals(field)) {
+                        quantity = parser.getLongValue();
+                        hasQuantity = true;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } catch (IOException e) {
+                // 문자열에서 읽기 때문에 형식 오류 (JsonProcessingException) 만 발생한다.
+                return false;
+            }
+            return hasProductId && hasQuantity;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.order.global.restock;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Duration;
+
+/**
+ * 입고 import 결과
+ * rows : 읽은 정상 row 수 / skipped : 형식이 잘못되어 건너뛴 row 수
+ * applied : 반영한 상품 수 (같은 chunk 안의 같은 상품은 합쳐서 한 번에 반영)
+ */
+public record StockImportReport(long rows, long skipped, long applied, long chunks, Duration elapsed) {
+
+    @JsonProperty
+    public double rowsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.order.global.retry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+public class DecorrelatedJitterRetryPolicy implements RetryPolicy {
+
+    /**
+     * 버전 충돌(ObjectOptimisticLockingFailureException)만 재시도
+     * 재고 부족과 같은 예외는 재시도해도 결과가 같기 때문에 바로 실패시킨다.
+     *
+     * 대기 시간 : min(max, random(base, 이전 대기 * 3))
+     * 고정 간격으로 재시도하면 충돌한 요청들이 다시 동시에 몰리기 때문에 (thundering herd) 간격을 흩뜨린다.
+     */
+
+    private final int maxAttempts;
+
+    private final long maxElapsedNanos;
+
+    private final long baseDelayMillis;
+
+    private final long maxDelayMillis;
+
+    public DecorrelatedJitterRetryPolicy(@Value("${stock.retry.max-attempts:50}") int maxAttempts,
+                                         @Value("${stock.retry.max-elapsed:10s}") Duration maxElapsed,
+                                         @Value("${stock.retry.base-delay-ms:10}") long baseDelayMillis,
+                                         @Value("${stock.retry.max-delay-ms:200}") long maxDelayMillis) {
+        this.maxAttempts = maxAttempts;
+        this.maxElapsedNanos = maxElapsed.toNanos();
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public boolean isRetryable(Exception e) {
+        return e instanceof ObjectOptimisticLockingFailureException;
+    }
+
+    @Override
+    public boolean canRetry(int attempt, long startedAtNanos) {
+        return attempt < maxAttempts && System.nanoTime() - startedAtNanos < maxElapsedNanos;
+    }
+
+    @Override
+    public long nextDelayMillis(long previousDelayMillis) {
+        long upper = Math.max(baseDelayMillis, previousDelayMillis * 3);
+        return Math.min(maxDelayMillis, ThreadLocalRandom.current().nextLong(baseDelayMillis, upper + 1));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.order.global.retry;
+
+/**
+ * 재시도 여부와 대기 시간을 결정하는 정책
+ * facade 는 이 인터페이스에만 의존하기 때문에 정책을 바꿔 끼울 수 있다.
+ */
+public interface RetryPolicy {
+
+    //==재시도 대상 예외인지==//
+    boolean isRetryable(Exception e);
+
+    //==attempt 번 시도 후 한 번 더 시도할 수 있는지==//
+    boolean canRetry(int attempt, long startedAtNanos);
+
+    //==다음 재시도 전 대기 시간==//
+    long nextDelayMillis(long previousDelayMillis);
+}
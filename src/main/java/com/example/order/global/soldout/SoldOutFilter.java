@@ -0,0 +1,179 @@
+package com.example.order.global.soldout;
+
+import com.example.order.global.event.StockChangedBatchEvent;
+import com.example.order.global.event.StockChangedEvent;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class SoldOutFilter {
+
+    /**
+     * 서버 로컬 품절 표시 (stockId 하나당 1 bit)
+     * 품절된 상품은 lock / 트랜잭션 / redis 를 거치지 않고 바로 거절하기 위해 사용 (SoldOutFilterAspect)
+     *
+     * - 표시 : 감소 commit 후 남은 재고가 0 인 event, 또는 남은 재고 0 을 확인한 SoldOutException
+     * - 해제 : 입고 / 예약 반환처럼 가용 재고가 늘어날 수 있는 event
+     * - redis pub / sub 으로 다른 서버에 전파한다. (자기가 보낸 메시지는 무시)
+     *   표시는 이 서버의 상태가 바뀔 때만 전파하고, 가용 재고가 늘어난 해제는 이 서버에 표시가 없어도 항상 전파한다.
+     *   (다른 서버만 SoldOutException 으로 표시했을 수 있으므로) 입고 import 묶음은 메시지 하나로 전파
+     * - 메시지 유실 / 순서 역전으로 남은 잘못된 표시는 reset-interval 마다 전체를 비워서 정리한다.
+     *   비운 뒤 품절 상품은 서버마다 요청 한 번씩만 DB 까지 내려가 다시 표시된다.
+     *
+     * 조건부 update 처럼 남은 재고를 모르는 경로는 다른 경로의 event 로만 표시된다.
+     *
+     * stockId 는 auto increment 라 촘촘하기 때문에 bitset 으로 충분하다. (100만 개 = 125KB)
+     * 읽기는 lock 없이, 쓰기 (품절 / 입고 시점에만 발생) 는 synchronized 로 처리한다.
+     */
+
+    private static final String CHANNEL = "stock:sold-out";
+
+    private static final int INITIAL_WORDS = 1024;
+
+    // stockId 6,700만 (8MB) 까지만 표시 (그 이상은 필터 없이 그대로 처리)
+    private static final int MAX_WORDS = 1 << 20;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+
+    public SoldOutFilter(RedisTemplate<String, String> redisTemplate,
+                         RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.redisTemplate = redisTemplate;
+        // 메시지 형식 : (+|-)stockId[,stockId...]:nodeId
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onMessage(new String(message.getBody())),
+                new ChannelTopic(CHANNEL));
+    }
+
+    public boolean isSoldOut(Long stockId) {
+        long id = stockId;
+        if (id < 0) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        long index = id >>> 6;
+        return index < current.length() && (current.get((int) index) & (1L << id)) != 0;
+    }
+
+    public void markSoldOut(Long stockId) {
+        if (set(stockId, true)) {
+            publish('+', stockId);
+        }
+    }
+
+    //==가용 재고가 늘어난 상품 해제 : 이 서버의 상태와 관계없이 전파==//
+    public void clear(Long stockId) {
+        if (isSoldOut(stockId)) {
+            set(stockId, false);
+        }
+        publish('-', stockId);
+    }
+
+    //==여러 상품 해제 : 메시지 하나로 전파==//
+    public void clearAll(long[] stockIds) {
+        if (stockIds.length == 0) {
+            return;
+        }
+        StringBuilder cleared = new StringBuilder();
+        for (long stockId : stockIds) {
+            if (isSoldOut(stockId)) {
+                set(stockId, false);
+            }
+            cleared.append(cleared.isEmpty() ? "" : ",").append(stockId);
+        }
+        redisTemplate.convertAndSend(CHANNEL, "-" + cleared + ':' + nodeId);
+    }
+
+    //==재고 변경 commit 이후 갱신 (트랜잭션이 없는 경로도 처리)==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.available() != null && event.available() <= 0) {
+            markSoldOut(event.stockId());
+            return;
+        }
+        // 예약 반환도 판매 가능 수량이 늘어나므로 입고와 같이 해제를 전파한다.
+        if (event.delta() > 0 || event.released()) {
+            clear(event.stockId());
+            return;
+        }
+        // 남은 재고가 있는 감소는 이 서버에 표시가 있을 때만 해제한다. (변경 후 값을 모르는 감소는 품절 여부도 모른다.)
+        if (event.available() != null || event.delta() == 0) {
+            clearIfMarked(event.stockId());
+        }
+    }
+
+    //==입고 import 한 묶음 : 늘어난 상품만 해제==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChangedBatch(StockChangedBatchEvent event) {
+        clearAll(event.changes().stream()
+                .filter(change -> change.delta() > 0)
+                .mapToLong(StockChangedEvent::stockId)
+                .toArray());
+    }
+
+    @Scheduled(fixedDelayString = "${stock.sold-out.reset-interval-ms:5000}")
+    public synchronized void reset() {
+        words = new AtomicLongArray(words.length());
+    }
+
+    private void onMessage(String body) {
+        int separator = body.indexOf(':');
+        if (body.substring(separator + 1).equals(nodeId)) {
+            return;
+        }
+        boolean soldOut = body.charAt(0) == '+';
+        for (String stockId : body.substring(1, separator).split(",")) {
+            set(Long.valueOf(stockId), soldOut);
+        }
+    }
+
+    private void clearIfMarked(Long stockId) {
+        if (isSoldOut(stockId) && set(stockId, false)) {
+            publish('-', stockId);
+        }
+    }
+
+    // 상태가 바뀌었으면 true
+    private synchronized boolean set(Long stockId, boolean soldOut) {
+        long id = stockId;
+        long index = id >>> 6;
+        if (id < 0 || index >= MAX_WORDS) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        if (index >= current.length()) {
+            if (!soldOut) {
+                return false;
+            }
+            current = grow(current, (int) index + 1);
+        }
+        long word = current.get((int) index);
+        long updated = soldOut ? word | 1L << id : word & ~(1L << id);
+        current.set((int) index, updated);
+        return updated != word;
+    }
+
+    private AtomicLongArray grow(AtomicLongArray current, int minWords) {
+        int length = (int) Math.min(MAX_WORDS, Math.max(minWords, (long) current.length() * 2));
+        AtomicLongArray grown = new AtomicLongArray(length);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        words = grown;
+        return grown;
+    }
+
+    private void publish(char sign, Long stockId) {
+        redisTemplate.convertAndSend(CHANNEL, sign + stockId.toString() + ':' + nodeId);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.order.global.soldout;
+
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.global.product.ProductStockIndex;
+import com.example.order.service.dto.DecreaseItem;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Aspect
+@Component
+// idempotency aspect 안쪽 (이미 끝난 요청은 저장된 결과로 응답), 트랜잭션 / lock 보다 바깥
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SoldOutFilterAspect {
+
+    /**
+     * 재고 감소 진입점 (facade 의 decrease*, 직접 select for update 하는 service) 에서 품절 상품을 바로 거절
+     * SoldOutFilter 에 표시된 상품이 하나라도 있으면 lock / 트랜잭션 없이 SoldOutException
+     *
+     * - 반환 타입에 맞춰 실패를 돌려준다. (CompletableFuture / Mono 는 실패한 결과로)
+     * - decreaseByProduct* 는 productId 를 ProductStockIndex 로 stockId 로 바꿔서 확인
+     * - 실행 중 남은 재고 0 을 확인한 SoldOutException 이 나오면 품절로 표시
+     */
+
+    private final SoldOutFilter soldOutFilter;
+
+    private final StockMetrics stockMetrics;
+
+    private final ProductStockIndex productStockIndex;
+
+    public SoldOutFilterAspect(SoldOutFilter soldOutFilter, StockMetrics stockMetrics, ProductStockIndex productStockIndex) {
+        this.soldOutFilter = soldOutFilter;
+        this.stockMetrics = stockMetrics;
+        this.productStockIndex = productStockIndex;
+    }
+
+    @Around("execution(public * com.example.order.global.facade..decrease*(..)) " +
+            "|| execution(public * com.example.order.service.StockService.decrease*(..)) " +
+            "|| execution(public * com.example.order.service.PessimisticLockStockService.decrease*(..))")
+    public Object filter(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (containsSoldOut(productStockIndex.toStockArgs(joinPoint.getSignature().getName(), joinPoint.getArgs()))) {
+            stockMetrics.rejected(joinPoint.getSignature().getDeclaringType().getSimpleName(), "sold_out");
+            return reject(((MethodSignature) joinPoint.getSignature()).getReturnType());
+        }
+        try {
+            return joinPoint.proceed();
+        } catch (SoldOutException e) {
+            if (e.isExhausted()) {
+                soldOutFilter.markSoldOut(e.getStockId());
+            }
+            throw e;
+        }
+    }
+
+    private boolean containsSoldOut(Object[] args) {
+        if (args.length > 0 && args[0] instanceof Long id) {
+            return soldOutFilter.isSoldOut(id);
+        }
+        if (args.length > 0 && args[0] instanceof List<?> items) {
+            for (Object item : items) {
+                if (item instanceof DecreaseItem decreaseItem && decreaseItem.id() != null
+                        && soldOutFilter.isSoldOut(decreaseItem.id())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Object reject(Class<?> returnType) {
+        if (returnType == CompletableFuture.class) {
+            return CompletableFuture.failedFuture(new SoldOutException());
+        }
+        if (returnType == Mono.class) {
+            return Mono.error(new SoldOutException());
+        }
+        throw new SoldOutException();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.order.global.writebehind;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedBatchEvent;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.repository.RedisStockRepository;
+import com.example.order.repository.StockRepository;
+import com.example.order.repository.StockWriteBehindBatchJdbcRepository;
+import com.example.order.service.RedisCounterStockService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Component
+public class RedisStockWriteBehind {
+
+    /**
+     * redis 에서 감소된 수량을 주기적으로 모아서 DB 에 반영
+     * 요청 경로에서는 DB 트랜잭션이 사라지고, DB 에는 flush 주기마다 상품당 update 한 번만 나간다.
+     *
+     * - 모은 감소분은 batchId 를 붙여 redis in-flight 로 옮긴 뒤 반영하고, commit 이후에 지운다.
+     * - 반영에 실패했거나 반영 도중 서버가 죽은 batch 는 in-flight 로 남아 in-flight-timeout 이후 (재시작 시에는 바로) 다시 반영한다.
+     * - batchId 는 반영과 같은 트랜잭션에서 DB 에 기록하기 때문에 commit 후 지우기 전에 멈춘 batch 를 다시 반영해도 한 번만 반영된다.
+     */
+
+    private static final int RECONCILE_PAGE_SIZE = 1000;
+
+    private final RedisStockRepository redisStockRepository;
+
+    private final StockRepository stockRepository;
+
+    private final StockWriteBehindBatchJdbcRepository stockWriteBehindBatchJdbcRepository;
+
+    private final RedisCounterStockService redisCounterStockService;
+
+    private final long inFlightTimeoutMillis;
+
+    private final Duration batchRetention;
+
+    public RedisStockWriteBehind(RedisStockRepository redisStockRepository,
+                                 StockRepository stockRepository,
+                                 StockWriteBehindBatchJdbcRepository stockWriteBehindBatchJdbcRepository,
+                                 RedisCounterStockService redisCounterStockService,
+                                 @Value("${stock.redis-counter.in-flight-timeout-ms:5000}") long inFlightTimeoutMillis,
+                                 @Value("${stock.redis-counter.batch-retention:7d}") Duration batchRetention) {
+        this.redisStockRepository = redisStockRepository;
+        this.stockRepository = stockRepository;
+        this.stockWriteBehindBatchJdbcRepository = stockWriteBehindBatchJdbcRepository;
+        this.redisCounterStockService = redisCounterStockService;
+        this.inFlightTimeoutMillis = inFlightTimeoutMillis;
+        this.batchRetention = batchRetention;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.redis-counter.flush-interval-ms:200}")
+    public void flush() {
+        replayInFlight(System.currentTimeMillis() - inFlightTimeoutMillis);
+        String batchId = UUID.randomUUID().toString();
+        Map<Long, Long> deltas = redisStockRepository.drainPending(batchId);
+        if (!deltas.isEmpty()) {
+            apply(batchId, deltas);
+        }
+    }
+
+    /**
+     * 입고 (DB 에서 증가) 가 commit 되면 redis 에 적재된 수량도 같이 늘린다.
+     * redis 가 기준인 동안 DB 만 늘리면 늘어난 수량을 팔 수 없다.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.delta() > 0) {
+            redisStockRepository.increaseIfLoaded(event.stockId(), event.delta());
+        }
+    }
+
+    //==입고 import 한 묶음 : script 한 번으로 늘린다==//
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChangedBatch(StockChangedBatchEvent event) {
+        List<Long> ids = new ArrayList<>(event.changes().size());
+        List<Long> quantities = new ArrayList<>(event.changes().size());
+        for (StockChangedEvent change : event.changes()) {
+            if (change.delta() > 0) {
+                ids.add(change.stockId());
+                quantities.add(change.delta());
+            }
+        }
+        if (!ids.isEmpty()) {
+            redisStockRepository.increaseAllIfLoaded(ids, quantities);
+        }
+    }
+
+    /**
+     * 시작 시 정합성 맞추기
+     * 1. 이전에 반영하지 못한 감소분 (in-flight / pending) 을 먼저 DB 에 반영
+     * 2. redis 에 없는 재고만 DB 기준으로 적재 (이미 있는 값은 redis 가 기준), 전체를 id 순서로 나눠서 읽는다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        replayInFlight(Long.MAX_VALUE);
+        flush();
+        long afterId = 0;
+        List<Stock> page;
+        do {
+            page = stockRepository.findPageAfter(afterId, PageRequest.of(0, RECONCILE_PAGE_SIZE));
+            for (Stock stock : page) {
+                redisStockRepository.load(stock.getId(), stock.getAvailableQuantity());
+                afterId = stock.getId();
+            }
+        } while (page.size() == RECONCILE_PAGE_SIZE);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.redis-counter.batch-cleanup-interval-ms:3600000}")
+    public void purgeBatches() {
+        stockWriteBehindBatchJdbcRepository.deleteCreatedBefore(LocalDateTime.now().minus(batchRetention));
+    }
+
+    private void replayInFlight(long drainedBeforeMillis) {
+        for (String batchId : redisStockRepository.inFlightBatchIds(drainedBeforeMillis)) {
+            Map<Long, Long> deltas = redisStockRepository.inFlightDeltas(batchId);
+            if (deltas.isEmpty()) {
+                // 다른 서버가 반영 후 정리하는 중
+                redisStockRepository.completeInFlight(batchId);
+                continue;
+            }
+            apply(batchId, deltas);
+        }
+    }
+
+    private void apply(String batchId, Map<Long, Long> deltas) {
+        try {
+            redisCounterStockService.applyDeltas(batchId, deltas);
+        } catch (DuplicateKeyException e) {
+            // 이미 반영된 batch (commit 후 정리 전에 멈췄거나 다른 서버가 먼저 다시 반영)
+            log.info("이미 반영된 재고 write-behind batch 정리 batchId={}", batchId);
+        } catch (Exception e) {
+            log.warn("재고 write-behind 반영 실패, in-flight 로 남겨두고 다시 시도합니다. batchId={}, size={}",
+                    batchId, deltas.size(), e);
+            return;
+        }
+        redisStockRepository.completeInFlight(batchId);
+    }
+}
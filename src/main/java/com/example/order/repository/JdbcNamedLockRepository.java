@@ -0,0 +1,120 @@
+package com.example.order.repository;
+
+import com.example.order.global.exception.LockAcquisitionException;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class JdbcNamedLockRepository {
+
+    /**
+     * named lock 전용 커넥션 풀을 사용하는 JDBC 구현
+     *
+     * LockRepository 는 재고 트랜잭션과 같은 hikari pool 을 사용하기 때문에
+     * 요청 하나가 커넥션을 2개(lock + REQUIRES_NEW) 잡고, 부하가 몰리면 pool 이 고갈되어 서로를 기다리게 된다.
+     * -> lock 은 별도의 작은 pool 에서 잡고, 재고 트랜잭션은 기존 pool 을 사용
+     *
+     * get_lock / release_lock 은 세션 단위이기 때문에 같은 커넥션에서 획득과 해제를 해야한다. (session pinning)
+     * 여러 key 를 잡을 때는 정렬된 순서로 잡아서 데드락을 방지
+     *
+     * DataSource 를 bean 으로 등록하면 spring boot 의 기본 DataSource 자동 설정이 꺼지기 때문에 내부에서만 사용
+     */
+
+    private final HikariDataSource dataSource;
+
+    private final int timeoutSeconds;
+
+    public JdbcNamedLockRepository(@Value("${spring.datasource.url}") String url,
+                                   @Value("${spring.datasource.username}") String username,
+                                   @Value("${spring.datasource.password:}") String password,
+                                   @Value("${spring.datasource.driver-class-name:}") String driverClassName,
+                                   @Value("${stock.named-lock.pool-size:10}") int poolSize,
+                                   @Value("${stock.named-lock.timeout-seconds:3}") int timeoutSeconds) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("named-lock-pool");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        if (!driverClassName.isEmpty()) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        dataSource.setMaximumPoolSize(poolSize);
+        this.dataSource = dataSource;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public <T> T executeWithLock(String key, Supplier<T> supplier) {
+        return executeWithLocks(List.of(key), supplier);
+    }
+
+    //==여러 key 를 정렬된 순서로 잡고 실행==//
+    public <T> T executeWithLocks(Collection<String> keys, Supplier<T> supplier) {
+        List<String> sortedKeys = keys.stream().distinct().sorted().toList();
+        try (Connection connection = dataSource.getConnection()) {
+            List<String> acquired = new ArrayList<>(sortedKeys.size());
+            try {
+                for (String key : sortedKeys) {
+                    getLock(connection, key);
+                    acquired.add(key);
+                }
+                return supplier.get();
+            } finally {
+                // 역순으로 해제
+                for (int i = acquired.size() - 1; i >= 0; i--) {
+                    releaseLock(connection, acquired.get(i));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("named lock 처리 중 오류가 발생했습니다.", e);
+        }
+    }
+
+    private void getLock(Connection connection, String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select get_lock(?, ?)")) {
+            statement.setString(1, generateKey(key));
+            statement.setInt(2, timeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                // 1 : 성공, 0 : timeout, null : 오류
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    throw new LockAcquisitionException(key);
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection, String key) {
+        try (PreparedStatement statement = connection.prepareStatement("select release_lock(?)")) {
+            statement.setString(1, generateKey(key));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    log.warn("named lock 해제 실패 key={}", key);
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("named lock 해제 중 오류 key={}", key, e);
+        }
+    }
+
+    // mysql named lock 이름은 64자 제한
+    private String generateKey(String key) {
+        return "stock:" + key;
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+}
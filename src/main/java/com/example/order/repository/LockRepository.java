@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 
 
 // 편의상 Stock을 이용하지만 실무에서는 별도의 JDBC와 같은 다른 방안이 필요함.
+// -> JdbcNamedLockRepository 로 대체 (전용 커넥션 풀 + 결과 확인)
+@Deprecated
 public interface LockRepository extends JpaRepository<Stock,Long> {
 
     @Query(value = "select get_lock(:key, 3000)", nativeQuery = true)
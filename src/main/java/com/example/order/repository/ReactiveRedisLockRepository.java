@@ -0,0 +1,68 @@
+package com.example.order.repository;
+
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+public class ReactiveRedisLockRepository {
+
+    /**
+     * RedisLockRepository 의 reactive 버전
+     * 락 대기 중에 스레드를 점유하지 않는다.
+     *
+     * 락 해제 시 release 채널로 key 를 발행해서 대기 중인 요청이 타이머를 기다리지 않고 바로 재시도하게 한다.
+     * (keyspace notification 은 redis 서버 설정(notify-keyspace-events)이 필요하기 때문에 직접 발행)
+     */
+
+    private static final String RELEASE_CHANNEL = "stock:lock:release";
+
+    // 내 token 일 때만 삭제 (RedisLockRepository 와 동일)
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    // 모든 대기 요청이 하나의 구독을 공유
+    private final Flux<String> releases;
+
+    public ReactiveRedisLockRepository(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.releases = redisTemplate.listenToChannel(RELEASE_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .share();
+    }
+
+    //==Setnx 명령어==//
+    public Mono<Boolean> lock(Long key, String token) {
+        return redisTemplate
+                .opsForValue()
+                .setIfAbsent(generateKey(key), token, Duration.ofMillis(3_000));
+    }
+
+    //==unlock 후 대기 중인 요청에게 알림==//
+    public Mono<Void> unlock(Long key, String token) {
+        return redisTemplate.execute(UNLOCK_SCRIPT, List.of(generateKey(key)), List.of(token))
+                .then(redisTemplate.convertAndSend(RELEASE_CHANNEL, generateKey(key)))
+                .then();
+    }
+
+    //==해당 key 의 해제 알림==//
+    public Mono<String> awaitRelease(Long key) {
+        String lockKey = generateKey(key);
+        return releases.filter(lockKey::equals).next();
+    }
+
+    private String generateKey(Long key) {
+        return key.toString();
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.order.repository;
 
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.List;
 
 @Component
 public class RedisLockRepository {
@@ -41,16 +44,27 @@ public class RedisLockRepository {
      * 로직 실행 전 후 로 락획득 해제를 수행하기 때문에 facade 클래스가 필요함
      */
 
+    /**
+     * 소유자 token :
+     * lock 의 값으로 획득한 쪽의 token 을 저장하고 해제 시 token 이 같을 때만 삭제
+     * 만료 후 다른 서버가 다시 잡은 lock 을 지워버리는 문제 방지
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
     //==Setnx 명령어==//
-    public Boolean lock(Long key) {
+    public Boolean lock(Long key, String token) {
         return redisTemplate
                 .opsForValue()
-                .setIfAbsent(generateKey(key), "Lock", Duration.ofMillis(3_000));
+                .setIfAbsent(generateKey(key), token, Duration.ofMillis(3_000));
     }
 
-    //==unlock 메서드==//
-    public Boolean unlock(Long key) {
-        return redisTemplate.delete(generateKey(key));
+    //==unlock 메서드 (내 token 일 때만 삭제)==//
+    public Boolean unlock(Long key, String token) {
+        Long deleted = redisTemplate.execute(UNLOCK_SCRIPT, List.of(generateKey(key)), token);
+        return deleted != null && deleted == 1L;
     }
 
     //==키.toString 메서드==//
@@ -0,0 +1,185 @@
+package com.example.order.repository;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class RedisStockRepository {
+
+    /**
+     * 재고 수량 자체를 redis 에 두고 lua script 로 확인 + 감소를 한 번에 수행
+     * redis 는 single thread 로 script 를 실행하기 때문에 별도의 lock 이 필요 없다.
+     *
+     * 감소된 수량은 pending hash 에 누적해두고 write-behind 로 DB 에 반영한다.
+     * 반영할 때는 pending hash 를 batch 별 in-flight hash 로 옮기고 (RENAME) DB commit 이후에 지운다.
+     * 옮긴 뒤 서버가 죽어도 in-flight 로 남아 있어서 다른 서버 / 재시작 시 다시 반영할 수 있다.
+     */
+
+    public static final long SOLD_OUT = -1L;
+
+    public static final long NOT_LOADED = -2L;
+
+    private static final String PENDING_KEY = "stock:pending";
+
+    // batchId -> 옮긴 시각 (ms)
+    private static final String IN_FLIGHT_KEY = "stock:pending:in-flight";
+
+    private static final String IN_FLIGHT_PREFIX = "stock:pending:in-flight:";
+
+    // KEYS[1] = 재고 key, KEYS[2] = pending hash / ARGV[1] = 감소 수량, ARGV[2] = 재고 id
+    private static final RedisScript<Long> DECREASE_SCRIPT = new DefaultRedisScript<>(
+            "local quantity = redis.call('GET', KEYS[1]) " +
+            "if not quantity then return -2 end " +
+            "local amount = tonumber(ARGV[1]) " +
+            "if tonumber(quantity) < amount then return -1 end " +
+            "local remaining = redis.call('DECRBY', KEYS[1], amount) " +
+            "redis.call('HINCRBY', KEYS[2], ARGV[2], amount) " +
+            "return remaining",
+            Long.class);
+
+    // KEYS[1..n] = 재고 key, KEYS[n+1] = pending hash / ARGV[1..n] = 감소 수량, ARGV[n+1..2n] = 재고 id
+    // 모든 재고를 먼저 확인한 뒤 감소하기 때문에 하나라도 부족하면 아무것도 감소하지 않는다.
+    private static final RedisScript<Long> DECREASE_ALL_SCRIPT = new DefaultRedisScript<>(
+            "local n = #KEYS - 1 " +
+            "for i = 1, n do " +
+            "  local quantity = redis.call('GET', KEYS[i]) " +
+            "  if not quantity then return -2 end " +
+            "  if tonumber(quantity) < tonumber(ARGV[i]) then return -1 end " +
+            "end " +
+            "for i = 1, n do " +
+            "  redis.call('DECRBY', KEYS[i], ARGV[i]) " +
+            "  redis.call('HINCRBY', KEYS[n + 1], ARGV[n + i], ARGV[i]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    // KEYS[1] = 재고 key / ARGV[1] = 증가 수량
+    // 적재되지 않은 재고는 다음 적재 때 DB 값을 가져가기 때문에 그대로 둔다.
+    private static final RedisScript<Long> INCREASE_IF_LOADED_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -2 end " +
+            "return redis.call('INCRBY', KEYS[1], ARGV[1])",
+            Long.class);
+
+    // KEYS[1] = pending hash, KEYS[2] = in-flight hash, KEYS[3] = in-flight 목록 / ARGV[1] = batchId, ARGV[2] = 현재 시각
+    // KEYS[1..n] = 재고 key / ARGV[1..n] = 증가 수량 (적재된 재고만 증가)
+    private static final RedisScript<Long> INCREASE_ALL_IF_LOADED_SCRIPT = new DefaultRedisScript<>(
+            "local increased = 0 " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('EXISTS', KEYS[i]) == 1 then " +
+            "    redis.call('INCRBY', KEYS[i], ARGV[i]) " +
+            "    increased = increased + 1 " +
+            "  end " +
+            "end " +
+            "return increased",
+            Long.class);
+
+    // 조회와 이동 사이에 들어온 감소분이 유실되지 않도록 한 번에 옮기고 가져온다.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return {} end " +
+            "redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "redis.call('ZADD', KEYS[3], ARGV[2], ARGV[1]) " +
+            "return redis.call('HGETALL', KEYS[2])",
+            List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public RedisStockRepository(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    //==재고 감소, 남은 수량 / SOLD_OUT / NOT_LOADED 반환==//
+    public Long decrease(Long id, Long quantity) {
+        return redisTemplate.execute(DECREASE_SCRIPT, List.of(generateKey(id), PENDING_KEY),
+                quantity.toString(), id.toString());
+    }
+
+    //==여러 재고를 전부 감소하거나 전부 실패 (0 / SOLD_OUT / NOT_LOADED)==//
+    public Long decreaseAll(List<Long> ids, List<Long> quantities) {
+        List<String> keys = new ArrayList<>(ids.size() + 1);
+        List<String> args = new ArrayList<>(ids.size() * 2);
+        ids.forEach(id -> keys.add(generateKey(id)));
+        keys.add(PENDING_KEY);
+        quantities.forEach(quantity -> args.add(quantity.toString()));
+        ids.forEach(id -> args.add(id.toString()));
+        return redisTemplate.execute(DECREASE_ALL_SCRIPT, keys, args.toArray());
+    }
+
+    //==입고 : 이미 적재된 재고만 증가, 증가 후 수량 / NOT_LOADED 반환==//
+    public Long increaseIfLoaded(Long id, Long quantity) {
+        return redisTemplate.execute(INCREASE_IF_LOADED_SCRIPT, List.of(generateKey(id)), quantity.toString());
+    }
+
+    //==여러 재고 입고 : script 한 번으로 적재된 재고만 증가, 증가시킨 재고 수 반환==//
+    public Long increaseAllIfLoaded(List<Long> ids, List<Long> quantities) {
+        List<String> keys = new ArrayList<>(ids.size());
+        ids.forEach(id -> keys.add(generateKey(id)));
+        return redisTemplate.execute(INCREASE_ALL_IF_LOADED_SCRIPT, keys,
+                quantities.stream().map(String::valueOf).toArray());
+    }
+
+    //==재고가 없을 때만 적재 (다른 노드가 이미 적재 했다면 무시)==//
+    public Boolean load(Long id, Long quantity) {
+        return redisTemplate.opsForValue().setIfAbsent(generateKey(id), quantity.toString());
+    }
+
+    public Long getQuantity(Long id) {
+        String quantity = redisTemplate.opsForValue().get(generateKey(id));
+        return quantity == null ? null : Long.valueOf(quantity);
+    }
+
+    public Boolean remove(Long id) {
+        return redisTemplate.delete(generateKey(id));
+    }
+
+    //==DB 에 반영되지 않은 감소분을 새 in-flight batch 로 옮김 (없으면 빈 map)==//
+    @SuppressWarnings("unchecked")
+    public Map<Long, Long> drainPending(String batchId) {
+        List<String> pending = redisTemplate.execute(DRAIN_SCRIPT,
+                List.of(PENDING_KEY, IN_FLIGHT_PREFIX + batchId, IN_FLIGHT_KEY),
+                batchId, String.valueOf(System.currentTimeMillis()));
+        return toDeltas(pending);
+    }
+
+    //==drainedBeforeMillis 이전에 옮겨진 뒤 아직 정리되지 않은 batch==//
+    public Set<String> inFlightBatchIds(long drainedBeforeMillis) {
+        Set<String> batchIds = redisTemplate.opsForZSet().rangeByScore(IN_FLIGHT_KEY, 0, drainedBeforeMillis);
+        return batchIds == null ? Set.of() : batchIds;
+    }
+
+    public Map<Long, Long> inFlightDeltas(String batchId) {
+        Map<Long, Long> deltas = new HashMap<>();
+        redisTemplate.<String, String>opsForHash().entries(IN_FLIGHT_PREFIX + batchId)
+                .forEach((id, delta) -> deltas.put(Long.valueOf(id), Long.valueOf(delta)));
+        return deltas;
+    }
+
+    //==DB 반영이 끝난 batch 정리==//
+    public void completeInFlight(String batchId) {
+        redisTemplate.delete(IN_FLIGHT_PREFIX + batchId);
+        redisTemplate.opsForZSet().remove(IN_FLIGHT_KEY, batchId);
+    }
+
+    private static Map<Long, Long> toDeltas(List<String> pending) {
+        Map<Long, Long> deltas = new HashMap<>();
+        if (pending == null) {
+            return deltas;
+        }
+        for (int i = 0; i + 1 < pending.size(); i += 2) {
+            deltas.put(Long.valueOf(pending.get(i)), Long.valueOf(pending.get(i + 1)));
+        }
+        return deltas;
+    }
+
+    private String generateKey(Long id) {
+        return "stock:quantity:" + id;
+    }
+}
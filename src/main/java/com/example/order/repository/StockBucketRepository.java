@@ -0,0 +1,28 @@
+package com.example.order.repository;
+
+import com.example.order.domain.StockBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface StockBucketRepository extends JpaRepository<StockBucket,Long> {
+
+    @Query("select b.id from StockBucket b where b.productId = :productId order by b.bucketNo")
+    List<Long> findIdsByProductId(Long productId);
+
+    @Query("select coalesce(sum(b.quantity), 0) from StockBucket b where b.productId = :productId")
+    Long sumQuantityByProductId(Long productId);
+
+    /**
+     * bucket 하나를 조건부 update 로 감소
+     * bucket 마다 짧은 트랜잭션으로 끝나야 다른 bucket 을 탐색 할 때 lock 을 오래 잡지 않는다.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update StockBucket b set b.quantity = b.quantity - :quantity, b.version = b.version + 1 " +
+            "where b.id = :id and b.quantity >= :quantity")
+    int decreaseWithConditionalUpdate(Long id, Long quantity);
+}
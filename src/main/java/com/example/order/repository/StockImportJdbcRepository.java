@@ -0,0 +1,118 @@
+package com.example.order.repository;
+
+import com.example.order.global.collection.LongLongHashMap;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+@Repository
+public class StockImportJdbcRepository {
+
+    /**
+     * 입고 import 용 batch upsert (product_id unique index 기준)
+     * IDENTITY 전략은 JPA batch insert 가 되지 않기 때문에 jdbc 로 직접 보낸다.
+     * (mysql 은 rewriteBatchedStatements=true 일 때 multi-row insert 한 번으로 전송)
+     *
+     * 트랜잭션 없이 (autocommit) statement 하나씩 반영해서 판매 중인 row 의 lock 을 오래 잡지 않는다.
+     * productIds 는 정렬된 순서로 넘겨야 동시에 실행되는 upsert 끼리 lock 순서가 엇갈리지 않는다.
+     */
+
+    // 없으면 새 재고, 있으면 수량 증가
+    private static final String UPSERT_INCREASE_SQL = "insert into stock (product_id, quantity, reserved, version) " +
+            "values (?, ?, 0, 0) on duplicate key update quantity = quantity + values(quantity), version = version + 1";
+
+    // 없는 재고만 수량 0 으로 생성 (in-memory 엔진이 수량을 관리할 때)
+    private static final String INSERT_MISSING_SQL = "insert ignore into stock (product_id, quantity, reserved, version) " +
+            "values (?, 0, 0, 0)";
+
+    private static final String FIND_PRODUCT_ID_PAGE_SQL = "select id, product_id from stock " +
+            "where id > ? and product_id is not null order by id limit ?";
+
+    private static final int SCAN_PAGE_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockImportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void upsertIncrease(long[] productIds, LongLongHashMap quantities) {
+        jdbcTemplate.batchUpdate(UPSERT_INCREASE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, productIds[i]);
+                ps.setLong(2, quantities.get(productIds[i], 0L));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.length;
+            }
+        });
+    }
+
+    public void insertMissing(long[] productIds) {
+        jdbcTemplate.batchUpdate(INSERT_MISSING_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, productIds[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.length;
+            }
+        });
+    }
+
+    /**
+     * 전체 productId -> stockId (ProductStockIndex 적재용)
+     * mysql driver 는 fetch size 를 주지 않으면 결과 전체를 메모리에 올리기 때문에
+     * id 순서로 SCAN_PAGE_SIZE 개씩 keyset pagination 으로 나눠 읽는다.
+     */
+    public void forEachProductId(LongLongHashMap.EntryConsumer consumer) {
+        Long afterId = 0L;
+        while (afterId != null) {
+            long from = afterId;
+            afterId = jdbcTemplate.query(FIND_PRODUCT_ID_PAGE_SQL,
+                    ps -> {
+                        ps.setLong(1, from);
+                        ps.setInt(2, SCAN_PAGE_SIZE);
+                    },
+                    rs -> {
+                        Long lastId = null;
+                        int count = 0;
+                        while (rs.next()) {
+                            lastId = rs.getLong(1);
+                            consumer.accept(rs.getLong(2), lastId);
+                            count++;
+                        }
+                        // 마지막 page 면 다음 page 를 조회하지 않는다.
+                        return count < SCAN_PAGE_SIZE ? null : lastId;
+                    });
+        }
+    }
+
+    //==productId -> stockId==//
+    public LongLongHashMap findIdsByProductIds(long[] productIds) {
+        LongLongHashMap ids = new LongLongHashMap(productIds.length);
+        if (productIds.length == 0) {
+            return ids;
+        }
+        String placeholders = String.join(",", Arrays.stream(productIds).mapToObj(id -> "?").toList());
+        jdbcTemplate.query("select product_id, id from stock where product_id in (" + placeholders + ")",
+                ps -> {
+                    for (int i = 0; i < productIds.length; i++) {
+                        ps.setLong(i + 1, productIds[i]);
+                    }
+                },
+                rs -> {
+                    ids.put(rs.getLong(1), rs.getLong(2));
+                });
+        return ids;
+    }
+}
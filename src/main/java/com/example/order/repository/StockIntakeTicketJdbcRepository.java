@@ -0,0 +1,75 @@
+package com.example.order.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class StockIntakeTicketJdbcRepository {
+
+    /**
+     * stock_intake_ticket 조회 / batch insert
+     * id 를 직접 지정하는 entity 는 JPA 로 저장하면 insert 전에 select 가 한 번씩 나가기 때문에 jdbc 로 직접 보낸다.
+     */
+
+    private static final String INSERT_SQL = "insert into stock_intake_ticket " +
+            "(ticket_id, stock_id, decreased, created_at) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public StockIntakeTicketJdbcRepository(JdbcTemplate jdbcTemplate,
+                                           NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    //==이미 반영한 ticket -> 감소 여부==//
+    public Map<String, Boolean> findDecreased(Collection<String> ticketIds) {
+        Map<String, Boolean> decreased = new HashMap<>();
+        if (ticketIds.isEmpty()) {
+            return decreased;
+        }
+        namedParameterJdbcTemplate.query(
+                "select ticket_id, decreased from stock_intake_ticket where ticket_id in (:ticketIds)",
+                new MapSqlParameterSource("ticketIds", ticketIds),
+                rs -> {
+                    decreased.put(rs.getString(1), rs.getBoolean(2));
+                });
+        return decreased;
+    }
+
+    public void insertAll(Long stockId, List<String> ticketIds, List<Boolean> decreased) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, ticketIds.get(i));
+                ps.setLong(2, stockId);
+                ps.setBoolean(3, decreased.get(i));
+                ps.setTimestamp(4, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ticketIds.size();
+            }
+        });
+    }
+
+    public int deleteCreatedBefore(LocalDateTime createdAt) {
+        return jdbcTemplate.update("delete from stock_intake_ticket where created_at < ?", Timestamp.valueOf(createdAt));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.order.repository;
+
+import com.example.order.global.ledger.StockLedgerEntry;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+public class StockLedgerJdbcRepository {
+
+    /**
+     * stock_ledger batch insert
+     * IDENTITY 전략은 JPA batch insert 가 되지 않기 때문에 jdbc 로 직접 보낸다.
+     * (mysql 은 rewriteBatchedStatements=true 일 때 multi-row insert 한 번으로 전송)
+     */
+
+    private static final String INSERT_SQL = "insert into stock_ledger " +
+            "(stock_id, product_id, delta, strategy, request_id, version, created_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockLedgerJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<StockLedgerEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockLedgerEntry entry = entries.get(i);
+                ps.setLong(1, entry.stockId());
+                setNullableLong(ps, 2, entry.productId());
+                ps.setLong(3, entry.delta());
+                ps.setString(4, entry.strategy());
+                ps.setString(5, entry.requestId());
+                setNullableLong(ps, 6, entry.version());
+                ps.setTimestamp(7, Timestamp.valueOf(entry.createdAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
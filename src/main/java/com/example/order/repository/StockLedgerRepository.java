@@ -0,0 +1,22 @@
+package com.example.order.repository;
+
+import com.example.order.domain.StockLedger;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockLedgerRepository extends JpaRepository<StockLedger,Long> {
+
+    /**
+     * keyset pagination : (createdAt, id) 가 cursor 보다 큰 것부터 size 개
+     * offset 을 쓰지 않기 때문에 뒤 page 로 갈수록 느려지지 않는다.
+     */
+    @Query("select l from StockLedger l where l.productId = :productId and l.createdAt < :to " +
+            "and (l.createdAt > :afterCreatedAt or (l.createdAt = :afterCreatedAt and l.id > :afterId)) " +
+            "order by l.createdAt, l.id")
+    List<StockLedger> findPageAfter(Long productId, LocalDateTime afterCreatedAt, Long afterId, LocalDateTime to,
+                                    Pageable pageable);
+}
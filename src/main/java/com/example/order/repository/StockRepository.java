@@ -2,10 +2,16 @@ package com.example.order.repository;
 
 import com.example.order.domain.Stock;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface StockRepository extends JpaRepository<Stock,Long> {
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
@@ -15,4 +21,90 @@ public interface StockRepository extends JpaRepository<Stock,Long> {
     @Lock(LockModeType.OPTIMISTIC)
     @Query("select s from Stock s where s.id = :id")
     Stock findByIdWithOptimisticLock(Long id);
+
+    /**
+     * 여러 재고를 IN 쿼리 한 번으로 조회하면서 lock
+     * id 순서로 정렬해서 lock 을 잡아야 주문끼리 데드락이 생기지 않는다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Stock s where s.id in :ids order by s.id")
+    List<Stock> findAllByIdInWithPessimisticLock(Collection<Long> ids);
+
+    @Lock(LockModeType.OPTIMISTIC)
+    @Query("select s from Stock s where s.id in :ids order by s.id")
+    List<Stock> findAllByIdInWithOptimisticLock(Collection<Long> ids);
+
+    // keyset pagination : 전체 재고를 id 순서로 나눠서 읽을 때 사용
+    @Query("select s from Stock s where s.id > :afterId order by s.id")
+    List<Stock> findPageAfter(Long afterId, Pageable pageable);
+
+    //==productId (unique index) 로 접근 : /stocks/products/** 의 pessimistic / optimistic / conditional 감소에서 사용==//
+    @Query("select s.id from Stock s where s.productId = :productId")
+    Optional<Long> findIdByProductId(Long productId);
+
+    Optional<Stock> findByProductId(Long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Stock s where s.productId = :productId")
+    Stock findByProductIdWithPessimisticLock(Long productId);
+
+    @Lock(LockModeType.OPTIMISTIC)
+    @Query("select s from Stock s where s.productId = :productId")
+    Stock findByProductIdWithOptimisticLock(Long productId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.quantity = s.quantity - :quantity, s.version = s.version + 1 " +
+            "where s.productId = :productId and s.quantity - s.reserved >= :quantity")
+    int decreaseByProductIdWithConditionalUpdate(Long productId, Long quantity);
+
+    /**
+     * 조회 없이 update 한 번으로 재고 감소
+     * where 절에서 수량을 확인하기 때문에 영향 받은 row 가 0 이면 재고 부족
+     * version 도 같이 올려서 optimistic lock 을 사용하는 쪽과 정합성을 맞춘다.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.quantity = s.quantity - :quantity, s.version = s.version + 1 " +
+            "where s.id = :id and s.quantity - s.reserved >= :quantity")
+    int decreaseWithConditionalUpdate(Long id, Long quantity);
+
+    /**
+     * write-behind 용 감소
+     * 수량 확인은 이미 redis 에서 끝났기 때문에 조건 없이 반영한다.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.quantity = s.quantity - :quantity, s.version = s.version + 1 where s.id = :id")
+    int applyDecrease(Long id, Long quantity);
+
+    /**
+     * 입고 : 조회 / lock 없이 update 한 번으로 증가
+     * 감소 중인 row 와 같은 row lock 을 잡지만 statement 하나만큼만 점유한다.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.quantity = s.quantity + :quantity, s.version = s.version + 1 where s.id = :id")
+    int applyIncrease(Long id, Long quantity);
+
+    /**
+     * in-memory 엔진의 수량을 그대로 반영
+     * 같은 값을 여러 번 반영해도 결과가 같기 때문에 재시작 후 다시 반영해도 안전하다.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.quantity = :quantity, s.version = s.version + 1 where s.id = :id")
+    int overwriteQuantity(Long id, Long quantity);
+
+    //==예약 : 가용 재고(quantity - reserved) 가 충분할 때만 reserved 증가==//
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.reserved = s.reserved + :quantity, s.version = s.version + 1 " +
+            "where s.id = :id and s.quantity - s.reserved >= :quantity")
+    int reserve(Long id, Long quantity);
+
+    //==예약 확정 : 예약 수량만큼 실제 재고 감소==//
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.quantity = s.quantity - :quantity, s.reserved = s.reserved - :quantity, " +
+            "s.version = s.version + 1 where s.id = :id")
+    int confirmReserved(Long id, Long quantity);
+
+    //==예약 취소 / 만료 : 예약 수량 반환==//
+    @Modifying(clearAutomatically = true)
+    @Query("update Stock s set s.reserved = s.reserved - :quantity, s.version = s.version + 1 where s.id = :id")
+    int releaseReserved(Long id, Long quantity);
 }
@@ -0,0 +1,32 @@
+package com.example.order.repository;
+
+import com.example.order.domain.ReservationStatus;
+import com.example.order.domain.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation,Long> {
+
+    //==from 상태일 때만 to 로 변경, 영향 받은 row 가 0 이면 이미 처리된 예약==//
+    @Modifying(clearAutomatically = true)
+    @Query("update StockReservation r set r.status = :to where r.id = :id and r.status = :from")
+    int transition(Long id, ReservationStatus from, ReservationStatus to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r where r.id in :ids and r.status = :status order by r.id")
+    List<StockReservation> findAllByIdInAndStatusWithLock(Collection<Long> ids, ReservationStatus status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update StockReservation r set r.status = :status where r.id in :ids")
+    int updateStatusAll(Collection<Long> ids, ReservationStatus status);
+
+    // (status, expiresAt) index 를 타고 만료 순서대로 조회
+    @Query("select r from StockReservation r where r.status = :status order by r.expiresAt")
+    List<StockReservation> findAllByStatusOrderByExpiresAt(ReservationStatus status);
+}
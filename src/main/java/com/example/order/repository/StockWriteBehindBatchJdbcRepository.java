@@ -0,0 +1,32 @@
+package com.example.order.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Repository
+public class StockWriteBehindBatchJdbcRepository {
+
+    /**
+     * stock_write_behind_batch insert / 정리
+     * 이미 반영한 batch 면 insert 가 DuplicateKeyException 으로 실패한다.
+     */
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockWriteBehindBatchJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(String batchId) {
+        jdbcTemplate.update("insert into stock_write_behind_batch (batch_id, created_at) values (?, ?)",
+                batchId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public int deleteCreatedBefore(LocalDateTime createdAt) {
+        return jdbcTemplate.update("delete from stock_write_behind_batch where created_at < ?",
+                Timestamp.valueOf(createdAt));
+    }
+}
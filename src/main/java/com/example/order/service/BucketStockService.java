@@ -0,0 +1,75 @@
+package com.example.order.service;
+
+import com.example.order.domain.StockBucket;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.repository.StockBucketRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class BucketStockService {
+
+    /**
+     * Bucket (Sharding)
+     * - 한 상품의 재고를 K 개의 bucket row 로 나눈다.
+     * - 요청마다 임의의 bucket 에서 시작해서 감소하고, 해당 bucket 이 부족하면 다음 bucket 을 탐색
+     * - row lock 경쟁이 K 개로 나뉘기 때문에 인기 상품에서도 처리량이 K 에 비례해서 늘어난다.
+     *
+     * 주의: 요청 수량은 bucket 하나 안에서 처리되어야 한다.
+     * 전체 합은 충분해도 모든 bucket 이 요청 수량보다 적다면 재고 부족으로 처리된다.
+     */
+
+    private final StockBucketRepository stockBucketRepository;
+
+    // 상품별 bucket id 는 변하지 않기 때문에 한 번 조회 후 재사용
+    private final ConcurrentHashMap<Long, long[]> bucketIds = new ConcurrentHashMap<>();
+
+    public BucketStockService(StockBucketRepository stockBucketRepository) {
+        this.stockBucketRepository = stockBucketRepository;
+    }
+
+    //==전체 재고를 K 개의 bucket 으로 나눠서 생성==//
+    @Transactional
+    public void split(Long productId, Long quantity, int bucketCount) {
+        List<StockBucket> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            // 나머지는 앞쪽 bucket 부터 하나씩 더 배분
+            long share = quantity / bucketCount + (i < quantity % bucketCount ? 1 : 0);
+            buckets.add(new StockBucket(productId, i, share));
+        }
+        stockBucketRepository.saveAll(buckets);
+        bucketIds.remove(productId);
+    }
+
+    public void decrease(Long productId, Long quantity) {
+        long[] ids = getBucketIds(productId);
+        int start = ThreadLocalRandom.current().nextInt(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            long id = ids[(start + i) % ids.length];
+            if (stockBucketRepository.decreaseWithConditionalUpdate(id, quantity) == 1) {
+                return;
+            }
+        }
+        throw new SoldOutException();
+    }
+
+    //==전체 가용 재고 (bucket 합계)==//
+    public Long getAvailableQuantity(Long productId) {
+        return stockBucketRepository.sumQuantityByProductId(productId);
+    }
+
+    private long[] getBucketIds(Long productId) {
+        long[] ids = bucketIds.computeIfAbsent(productId, key ->
+                stockBucketRepository.findIdsByProductId(key).stream().mapToLong(Long::longValue).toArray());
+        if (ids.length == 0) {
+            bucketIds.remove(productId);
+            throw new IllegalArgumentException("bucket 이 생성되지 않은 상품입니다. productId=" + productId);
+        }
+        return ids;
+    }
+}
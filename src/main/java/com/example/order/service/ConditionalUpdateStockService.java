@@ -0,0 +1,73 @@
+package com.example.order.service;
+
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.global.product.ProductStockIndex;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class ConditionalUpdateStockService {
+
+    /**
+     * Conditional Update
+     * - select -> decrease -> update 가 아니라 update 한 번으로 재고를 감소시키는 방법
+     * - update stock set quantity = quantity - ? where id = ? and quantity >= ?
+     * - 영향 받은 row 수로 성공 / 재고 부족을 판단한다.
+     *
+     * 요약: DB 가 row 를 갱신하는 순간에만 잠깐 lock 을 잡기 때문에 별도의 lock 대기가 없다.
+     * 단점: 감소 전 엔티티 상태를 알 수 없기 때문에 복잡한 비즈니스 검증은 어렵다.
+     */
+
+    private final StockRepository stockRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ProductStockIndex productStockIndex;
+
+    public ConditionalUpdateStockService(StockRepository stockRepository,
+                                         ApplicationEventPublisher eventPublisher,
+                                         ProductStockIndex productStockIndex) {
+        this.stockRepository = stockRepository;
+        this.eventPublisher = eventPublisher;
+        this.productStockIndex = productStockIndex;
+    }
+
+    @Transactional
+    public void decrease(Long id, Long quantity) {
+        int updated = stockRepository.decreaseWithConditionalUpdate(id, quantity);
+        if (updated == 0) {
+            throw new SoldOutException();
+        }
+        eventPublisher.publishEvent(StockChangedEvent.unknown(id, -quantity));
+    }
+
+    /**
+     * productId (unique index) 로 update 한 번
+     * 이벤트의 stockId 는 ProductStockIndex (메모리) 에서 찾는다.
+     */
+    @Transactional
+    public void decreaseByProduct(Long productId, Long quantity) {
+        int updated = stockRepository.decreaseByProductIdWithConditionalUpdate(productId, quantity);
+        if (updated == 0) {
+            throw new SoldOutException();
+        }
+        eventPublisher.publishEvent(StockChangedEvent.unknown(productStockIndex.stockId(productId), -quantity));
+    }
+
+    //==id 순서로 update, 하나라도 부족하면 예외로 전체 rollback==//
+    @Transactional
+    public void decreaseAll(List<DecreaseItem> items) {
+        for (DecreaseItem item : DecreaseItem.canonicalize(items)) {
+            if (stockRepository.decreaseWithConditionalUpdate(item.id(), item.quantity()) == 0) {
+                throw new SoldOutException();
+            }
+            eventPublisher.publishEvent(StockChangedEvent.unknown(item.id(), -item.quantity()));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.order.service;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.repository.StockIntakeTicketJdbcRepository;
+import com.example.order.repository.StockRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class GroupCommitStockService {
+
+    /**
+     * Group Commit
+     * - 같은 상품에 대한 여러 요청을 모아서 한 트랜잭션으로 처리
+     * - lock 획득 / commit 이 요청 수 만큼이 아니라 batch 당 한 번만 일어난다.
+     * - 도착 순서대로 재고를 할당하고 남은 재고가 부족한 요청만 실패 처리
+     */
+
+    private final StockRepository stockRepository;
+
+    private final StockIntakeTicketJdbcRepository stockIntakeTicketJdbcRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public GroupCommitStockService(StockRepository stockRepository,
+                                   StockIntakeTicketJdbcRepository stockIntakeTicketJdbcRepository,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.stockRepository = stockRepository;
+        this.stockIntakeTicketJdbcRepository = stockIntakeTicketJdbcRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public List<Boolean> decreaseInArrivalOrder(Long id, List<Long> quantities) {
+        Stock stock = stockRepository.findByIdWithPessimisticLock(id);
+        List<Boolean> results = new ArrayList<>(quantities.size());
+        long decreased = 0;
+        for (Long quantity : quantities) {
+            if (stock.canDecrease(quantity)) {
+                stock.decrease(quantity);
+                decreased += quantity;
+                results.add(true);
+            } else {
+                results.add(false);
+            }
+        }
+        stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -decreased));
+        return results;
+    }
+
+    /**
+     * intake 요청 반영 : ticketId 마다 한 번만 감소
+     * 상품 row lock 을 잡은 뒤 이미 반영한 ticket 을 조회하고, 새로 반영한 ticket 은 같은 트랜잭션에서 기록한다.
+     * -> ack 전에 소유권이 넘어가 같은 batch 를 다시 처리해도 처음 결과를 돌려주고 재고는 다시 줄이지 않는다.
+     */
+    @Transactional
+    public List<Boolean> decreaseInArrivalOrder(Long id, List<String> ticketIds, List<Long> quantities) {
+        Stock stock = stockRepository.findByIdWithPessimisticLock(id);
+        Map<String, Boolean> processed = stockIntakeTicketJdbcRepository.findDecreased(ticketIds);
+        List<Boolean> results = new ArrayList<>(quantities.size());
+        List<String> newTicketIds = new ArrayList<>(quantities.size());
+        List<Boolean> newResults = new ArrayList<>(quantities.size());
+        long decreased = 0;
+        for (int i = 0; i < quantities.size(); i++) {
+            Boolean previous = processed.get(ticketIds.get(i));
+            if (previous != null) {
+                results.add(previous);
+                continue;
+            }
+            Long quantity = quantities.get(i);
+            boolean success = stock.canDecrease(quantity);
+            if (success) {
+                stock.decrease(quantity);
+                decreased += quantity;
+            }
+            results.add(success);
+            newTicketIds.add(ticketIds.get(i));
+            newResults.add(success);
+        }
+        if (newTicketIds.isEmpty()) {
+            return results;
+        }
+        stockRepository.saveAndFlush(stock);
+        stockIntakeTicketJdbcRepository.insertAll(id, newTicketIds, newResults);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -decreased));
+        return results;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.order.service;
+
+import com.example.order.global.collection.LongLongHashMap;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.repository.StockRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+
+@Service
+public class InMemoryStockService {
+
+    private final StockRepository stockRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InMemoryStockService(StockRepository stockRepository, ApplicationEventPublisher eventPublisher) {
+        this.stockRepository = stockRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * in-memory 엔진의 수량을 한 트랜잭션으로 반영
+     * 데드락 방지를 위해 id 순서대로 update
+     */
+    @Transactional
+    public void persist(LongLongHashMap quantities) {
+        long[] ids = new long[quantities.size()];
+        int[] index = {0};
+        quantities.forEach((id, quantity) -> ids[index[0]++] = id);
+        Arrays.sort(ids);
+        for (long id : ids) {
+            stockRepository.overwriteQuantity(id, quantities.get(id, 0L));
+            eventPublisher.publishEvent(StockChangedEvent.unknown(id));
+        }
+    }
+}
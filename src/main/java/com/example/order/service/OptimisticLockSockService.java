@@ -1,17 +1,26 @@
 package com.example.order.service;
 
 import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedEvent;
 import com.example.order.repository.StockRepository;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.NoSuchElementException;
+
 @Service
 public class OptimisticLockSockService {
 
     private final StockRepository stockRepository;
 
-    public OptimisticLockSockService(StockRepository stockRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OptimisticLockSockService(StockRepository stockRepository, ApplicationEventPublisher eventPublisher) {
         this.stockRepository = stockRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -20,9 +29,32 @@ public class OptimisticLockSockService {
 
         stock.decrease(quantity);
 
-        stockRepository.save(stock);
+        // 변경 후 version 을 이벤트에 담기 위해 flush
+        stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
 
         // 실패 했을 때 재실행 하는 facade 가 필요 함
     }
 
+    //==productId (unique index) 로 조회, 재시도는 facade 에서==//
+    @Transactional
+    public void decreaseByProduct(Long productId, Long quantity) {
+        Stock stock = stockRepository.findByProductIdWithOptimisticLock(productId);
+        if (stock == null) {
+            throw new NoSuchElementException("재고가 존재하지 않습니다. productId=" + productId);
+        }
+        stock.decrease(quantity);
+        stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
+    }
+
+    @Transactional
+    public void decreaseAll(List<DecreaseItem> items) {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<Stock> stocks = stockRepository.findAllByIdInWithOptimisticLock(DecreaseItem.ids(canonical));
+        StockDecreases.apply(stocks, canonical);
+        stockRepository.saveAllAndFlush(stocks);
+        StockDecreases.publish(eventPublisher, stocks, canonical);
+    }
+
 }
@@ -1,23 +1,56 @@
 package com.example.order.service;
 
 import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedEvent;
 import com.example.order.repository.StockRepository;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.NoSuchElementException;
+
 @Service
 public class PessimisticLockStockService {
 
     private final StockRepository stockRepository;
 
-    public PessimisticLockStockService(StockRepository stockRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PessimisticLockStockService(StockRepository stockRepository, ApplicationEventPublisher eventPublisher) {
         this.stockRepository = stockRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public void decrease(Long id, Long quantity) {
         Stock stock = stockRepository.findByIdWithPessimisticLock(id);
         stock.decrease(quantity);
-        stockRepository.save(stock);
+        // 변경 후 version 을 이벤트에 담기 위해 flush
+        stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
+    }
+
+    //==productId (unique index) 로 lock 후 감소==//
+    @Transactional
+    public void decreaseByProduct(Long productId, Long quantity) {
+        Stock stock = stockRepository.findByProductIdWithPessimisticLock(productId);
+        if (stock == null) {
+            throw new NoSuchElementException("재고가 존재하지 않습니다. productId=" + productId);
+        }
+        stock.decrease(quantity);
+        stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
+    }
+
+    //==여러 상품을 id 순서로 lock 후 한 트랜잭션에서 감소==//
+    @Transactional
+    public void decreaseAll(List<DecreaseItem> items) {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<Stock> stocks = stockRepository.findAllByIdInWithPessimisticLock(DecreaseItem.ids(canonical));
+        StockDecreases.apply(stocks, canonical);
+        stockRepository.saveAllAndFlush(stocks);
+        StockDecreases.publish(eventPublisher, stocks, canonical);
     }
 }
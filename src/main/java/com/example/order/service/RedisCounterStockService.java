@@ -0,0 +1,43 @@
+package com.example.order.service;
+
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.repository.StockRepository;
+import com.example.order.repository.StockWriteBehindBatchJdbcRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class RedisCounterStockService {
+
+    private final StockRepository stockRepository;
+
+    private final StockWriteBehindBatchJdbcRepository stockWriteBehindBatchJdbcRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RedisCounterStockService(StockRepository stockRepository,
+                                    StockWriteBehindBatchJdbcRepository stockWriteBehindBatchJdbcRepository,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.stockRepository = stockRepository;
+        this.stockWriteBehindBatchJdbcRepository = stockWriteBehindBatchJdbcRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * redis 에 누적된 감소분을 한 트랜잭션으로 반영
+     * 데드락 방지를 위해 id 순서대로 update
+     * batchId 를 먼저 기록하기 때문에 이미 반영한 batch 는 DuplicateKeyException 으로 아무것도 반영하지 않는다.
+     */
+    @Transactional
+    public void applyDeltas(String batchId, Map<Long, Long> deltas) {
+        stockWriteBehindBatchJdbcRepository.insert(batchId);
+        new TreeMap<>(deltas).forEach((id, delta) -> {
+            stockRepository.applyDecrease(id, delta);
+            eventPublisher.publishEvent(StockChangedEvent.unknown(id, -delta));
+        });
+    }
+}
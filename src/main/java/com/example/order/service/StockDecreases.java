@@ -0,0 +1,41 @@
+package com.example.order.service;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 조회한 재고 목록에 주문 상품별 감소를 적용
+ * 하나라도 실패하면 예외가 발생하고, 호출한 서비스의 트랜잭션이 전체를 rollback 한다.
+ */
+final class StockDecreases {
+
+    private StockDecreases() {
+    }
+
+    static void apply(List<Stock> stocks, List<DecreaseItem> items) {
+        Map<Long, Stock> stocksById = stocks.stream().collect(Collectors.toMap(Stock::getId, Function.identity()));
+        for (DecreaseItem item : items) {
+            Stock stock = stocksById.get(item.id());
+            if (stock == null) {
+                throw new NoSuchElementException("재고가 존재하지 않습니다. id=" + item.id());
+            }
+            stock.decrease(item.quantity());
+        }
+    }
+
+    //==flush 후 상품별 변경 이벤트 발행 (items 는 canonicalize 되어 있어야 한다)==//
+    static void publish(ApplicationEventPublisher eventPublisher, List<Stock> stocks, List<DecreaseItem> items) {
+        Map<Long, Stock> stocksById = stocks.stream().collect(Collectors.toMap(Stock::getId, Function.identity()));
+        for (DecreaseItem item : items) {
+            eventPublisher.publishEvent(StockChangedEvent.of(stocksById.get(item.id()), -item.quantity()));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.order.service;
+
+import com.example.order.domain.StockLedger;
+import com.example.order.repository.StockLedgerRepository;
+import com.example.order.service.dto.LedgerCursor;
+import com.example.order.service.dto.LedgerPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Service
+public class StockLedgerService {
+
+    /**
+     * 상품 + 기간 [from, to) 의 재고 이동 이력 조회
+     * (createdAt, id) 순서의 keyset pagination 이라 page 를 넘길 때마다 index 에서 cursor 다음부터 읽는다.
+     */
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final StockLedgerRepository stockLedgerRepository;
+
+    public StockLedgerService(StockLedgerRepository stockLedgerRepository) {
+        this.stockLedgerRepository = stockLedgerRepository;
+    }
+
+    //==cursor 가 null 이면 from 부터==//
+    @Transactional(readOnly = true)
+    public LedgerPage page(Long productId, LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        LedgerCursor after = cursor == null ? LedgerCursor.start(from) : LedgerCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<StockLedger> entries = stockLedgerRepository.findPageAfter(
+                productId, after.createdAt(), after.id(), to, PageRequest.of(0, limit));
+        if (entries.size() < limit) {
+            return new LedgerPage(entries, null);
+        }
+        StockLedger last = entries.get(entries.size() - 1);
+        return new LedgerPage(entries, new LedgerCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * 전체 기간을 page 단위로 이어서 읽는 stream
+     * 다음 page 는 앞 page 를 다 소비한 뒤에 조회하기 때문에 메모리에는 page 하나만 올라간다.
+     */
+    public Stream<StockLedger> stream(Long productId, LocalDateTime from, LocalDateTime to, int pageSize) {
+        return Stream.iterate(page(productId, from, to, null, pageSize),
+                        Objects::nonNull,
+                        page -> page.next() == null ? null : page(productId, from, to, page.next(), pageSize))
+                .flatMap(page -> page.entries().stream());
+    }
+}
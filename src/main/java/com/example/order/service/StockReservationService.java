@@ -0,0 +1,113 @@
+package com.example.order.service;
+
+import com.example.order.domain.ReservationStatus;
+import com.example.order.domain.StockReservation;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.reservation.ReservationExpiryQueue;
+import com.example.order.repository.StockRepository;
+import com.example.order.repository.StockReservationRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class StockReservationService {
+
+    /**
+     * 재고 예약
+     * - reserve : 가용 재고에서 예약 수량만큼 잡아둠 (quantity 는 그대로, reserved 증가)
+     * - confirm : 결제 완료, 예약 수량만큼 quantity 감소
+     * - cancel / expire : 예약 수량 반환
+     *
+     * 모든 재고 변경은 조건부 update 로 처리해서 재고 row 를 조회 후 lock 으로 잡지 않는다.
+     */
+
+    private final StockRepository stockRepository;
+
+    private final StockReservationRepository stockReservationRepository;
+
+    private final ReservationExpiryQueue reservationExpiryQueue;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockReservationService(StockRepository stockRepository,
+                                   StockReservationRepository stockReservationRepository,
+                                   ReservationExpiryQueue reservationExpiryQueue,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.stockRepository = stockRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.reservationExpiryQueue = reservationExpiryQueue;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public Long reserve(Long stockId, Long quantity, Duration ttl) {
+        if (stockRepository.reserve(stockId, quantity) == 0) {
+            throw new SoldOutException();
+        }
+        StockReservation reservation = stockReservationRepository.save(
+                new StockReservation(stockId, quantity, LocalDateTime.now().plus(ttl)));
+        // rollback 되더라도 sweeper 가 HELD 상태만 처리하기 때문에 queue 에 남아있어도 무시된다.
+        reservationExpiryQueue.add(reservation.getId(), reservation.getExpiresAt());
+        eventPublisher.publishEvent(StockChangedEvent.unknown(stockId));
+        return reservation.getId();
+    }
+
+    @Transactional
+    public void confirm(Long reservationId) {
+        StockReservation reservation = transition(reservationId, ReservationStatus.CONFIRMED);
+        stockRepository.confirmReserved(reservation.getStockId(), reservation.getQuantity());
+        eventPublisher.publishEvent(StockChangedEvent.unknown(reservation.getStockId(), -reservation.getQuantity()));
+    }
+
+    @Transactional
+    public void cancel(Long reservationId) {
+        StockReservation reservation = transition(reservationId, ReservationStatus.CANCELLED);
+        stockRepository.releaseReserved(reservation.getStockId(), reservation.getQuantity());
+        eventPublisher.publishEvent(StockChangedEvent.released(reservation.getStockId()));
+    }
+
+    /**
+     * 만료된 예약을 한 트랜잭션에서 일괄 처리
+     * 확정 / 취소와 동시에 일어날 수 있으므로 HELD 인 예약만 lock 을 잡고 처리한다.
+     * 재고 반환은 재고별로 합산해서 id 순서대로 한 번씩 update
+     */
+    @Transactional
+    public int expire(List<Long> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return 0;
+        }
+        List<StockReservation> held = stockReservationRepository
+                .findAllByIdInAndStatusWithLock(reservationIds, ReservationStatus.HELD);
+        if (held.isEmpty()) {
+            return 0;
+        }
+        stockReservationRepository.updateStatusAll(
+                held.stream().map(StockReservation::getId).toList(), ReservationStatus.EXPIRED);
+
+        Map<Long, Long> releases = new TreeMap<>();
+        for (StockReservation reservation : held) {
+            releases.merge(reservation.getStockId(), reservation.getQuantity(), Long::sum);
+        }
+        releases.forEach((stockId, quantity) -> {
+            stockRepository.releaseReserved(stockId, quantity);
+            eventPublisher.publishEvent(StockChangedEvent.released(stockId));
+        });
+        return held.size();
+    }
+
+    private StockReservation transition(Long reservationId, ReservationStatus to) {
+        StockReservation reservation = stockReservationRepository.findById(reservationId).orElseThrow();
+        if (stockReservationRepository.transition(reservationId, ReservationStatus.HELD, to) == 0) {
+            throw new IllegalStateException("이미 처리되었거나 만료된 예약입니다. id=" + reservationId);
+        }
+        return reservation;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.order.service;
+
+import com.example.order.global.collection.LongLongHashMap;
+import com.example.order.global.engine.InMemoryStockEngine;
+import com.example.order.global.event.StockChangedBatchEvent;
+import com.example.order.global.event.StockChangedEvent;
+import com.example.order.global.product.ProductStockIndex;
+import com.example.order.global.soldout.SoldOutFilter;
+import com.example.order.repository.StockImportJdbcRepository;
+import com.example.order.repository.StockRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+public class StockRestockService {
+
+    /**
+     * 입고 (재고 증가)
+     * - 조회 없이 update / upsert 한 번으로 증가시켜 판매 중인 row 를 오래 잡지 않는다.
+     * - in-memory 엔진을 사용 중이면 엔진에서 증가시킨다. (DB 에서 늘리면 다음 persist 때 엔진 값으로 덮어쓴다)
+     * - redis counter 에 적재된 수량은 commit 이후 RedisStockWriteBehind 가 같이 늘린다.
+     * - 품절 표시 (SoldOutFilter) 는 commit 이후 event 로 해제된다. event 가 없는 엔진 경로는 직접 해제
+     */
+
+    private final StockRepository stockRepository;
+
+    private final StockImportJdbcRepository stockImportJdbcRepository;
+
+    private final InMemoryStockEngine inMemoryStockEngine;
+
+    private final ProductStockIndex productStockIndex;
+
+    private final SoldOutFilter soldOutFilter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockRestockService(StockRepository stockRepository,
+                               StockImportJdbcRepository stockImportJdbcRepository,
+                               ObjectProvider<InMemoryStockEngine> inMemoryStockEngine,
+                               ProductStockIndex productStockIndex,
+                               SoldOutFilter soldOutFilter,
+                               ApplicationEventPublisher eventPublisher) {
+        this.stockRepository = stockRepository;
+        this.stockImportJdbcRepository = stockImportJdbcRepository;
+        this.inMemoryStockEngine = inMemoryStockEngine.getIfAvailable();
+        this.productStockIndex = productStockIndex;
+        this.soldOutFilter = soldOutFilter;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public void increase(Long id, Long quantity) {
+        if (inMemoryStockEngine != null) {
+            inMemoryStockEngine.increase(id, quantity);
+            soldOutFilter.clear(id);
+            return;
+        }
+        if (stockRepository.applyIncrease(id, quantity) == 0) {
+            throw new NoSuchElementException("재고가 존재하지 않습니다. id=" + id);
+        }
+        eventPublisher.publishEvent(StockChangedEvent.unknown(id, quantity));
+    }
+
+    /**
+     * 입고 import 한 묶음 반영 (productId -> 증가 수량, 없는 상품은 새로 생성)
+     * 트랜잭션 없이 statement 단위로 반영한다. 중간에 실패하면 이미 반영된 묶음은 그대로 남는다.
+     * 변경 event 는 묶음 단위로 한 번만 발행한다. (StockChangedBatchEvent)
+     * @return 반영한 상품 수
+     */
+    public int importChunk(LongLongHashMap increments) {
+        long[] productIds = sortedKeys(increments);
+        LongLongHashMap stockIds;
+        if (inMemoryStockEngine != null) {
+            stockImportJdbcRepository.insertMissing(productIds);
+            stockIds = stockImportJdbcRepository.findIdsByProductIds(productIds);
+            productStockIndex.putAll(stockIds);
+            LongLongHashMap byStockId = new LongLongHashMap(productIds.length);
+            for (long productId : productIds) {
+                byStockId.put(stockIds.get(productId, 0L), increments.get(productId, 0L));
+            }
+            inMemoryStockEngine.increaseAll(byStockId);
+            soldOutFilter.clearAll(sortedKeys(byStockId));
+            return productIds.length;
+        }
+
+        stockImportJdbcRepository.upsertIncrease(productIds, increments);
+        stockIds = stockImportJdbcRepository.findIdsByProductIds(productIds);
+        productStockIndex.putAll(stockIds);
+        List<StockChangedEvent> changes = new ArrayList<>(productIds.length);
+        for (long productId : productIds) {
+            long delta = increments.get(productId, 0L);
+            if (delta != 0) {
+                changes.add(StockChangedEvent.unknown(stockIds.get(productId, 0L), productId, delta));
+            }
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedBatchEvent(changes));
+        }
+        return productIds.length;
+    }
+
+    private static long[] sortedKeys(LongLongHashMap map) {
+        long[] keys = new long[map.size()];
+        int[] index = {0};
+        map.forEach((key, value) -> keys[index[0]++] = key);
+        Arrays.sort(keys);
+        return keys;
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.order.service;
 
 import com.example.order.domain.Stock;
+import com.example.order.global.event.StockChangedEvent;
 import com.example.order.repository.StockRepository;
+import com.example.order.service.dto.DecreaseItem;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 // 함부로 Transactinal read 를 깔고 가지 말자
 //@Transactional(readOnly = true)
@@ -13,8 +18,11 @@ public class StockService {
 
     private final StockRepository stockRepository;
 
-    public StockService(StockRepository stockRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockService(StockRepository stockRepository, ApplicationEventPublisher eventPublisher) {
         this.stockRepository = stockRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -28,6 +36,7 @@ public class StockService {
         Stock stock = stockRepository.findById(id).orElseThrow();
         stock.decrease(quantity);
         stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
     }
 
     /**
@@ -48,6 +57,7 @@ public class StockService {
         Stock stock = stockRepository.findById(id).orElseThrow();
         stock.decrease(quantity);
         stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
     }
 
     /**
@@ -66,6 +76,7 @@ public class StockService {
         Stock stock = stockRepository.findById(id).orElseThrow();
         stock.decrease(quantity);
         stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
     }
 
     /**
@@ -113,6 +124,20 @@ public class StockService {
         Stock stock = stockRepository.findById(id).orElseThrow();
         stock.decrease(quantity);
         stockRepository.saveAndFlush(stock);
+        eventPublisher.publishEvent(StockChangedEvent.of(stock, -quantity));
+    }
+
+    /**
+     * 여러 상품 재고 감소 (named / redis lock facade 에서 lock 을 모두 잡은 뒤 호출)
+     * IN 쿼리 한 번으로 조회 후 한 트랜잭션에서 감소, 하나라도 실패하면 전체 rollback
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void decreaseAll(List<DecreaseItem> items) {
+        List<DecreaseItem> canonical = DecreaseItem.canonicalize(items);
+        List<Stock> stocks = stockRepository.findAllById(DecreaseItem.ids(canonical));
+        StockDecreases.apply(stocks, canonical);
+        stockRepository.saveAllAndFlush(stocks);
+        StockDecreases.publish(eventPublisher, stocks, canonical);
     }
 
 
@@ -0,0 +1,32 @@
+package com.example.order.service.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 주문 한 건에 포함된 상품별 감소 수량
+ */
+public record DecreaseItem(@NotNull Long id, @NotNull @Positive Long quantity) {
+
+    /**
+     * 같은 재고 id 는 합치고 id 오름차순으로 정렬
+     * 모든 lock / update 를 같은 순서로 진행해야 주문끼리 서로를 기다리는 데드락이 생기지 않는다.
+     */
+    public static List<DecreaseItem> canonicalize(List<DecreaseItem> items) {
+        Map<Long, Long> merged = new TreeMap<>();
+        for (DecreaseItem item : items) {
+            merged.merge(item.id(), item.quantity(), Long::sum);
+        }
+        return merged.entrySet().stream()
+                .map(entry -> new DecreaseItem(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    public static List<Long> ids(List<DecreaseItem> items) {
+        return items.stream().map(DecreaseItem::id).toList();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.order.service.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * 상품 하나의 재고 감소 요청 (POST /stocks/{stockId}/decrease)
+ */
+public record DecreaseRequest(@NotNull @Positive Long quantity) {
+}
@@ -0,0 +1,10 @@
+package com.example.order.service.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * 상품 하나의 입고 요청 (POST /stocks/{stockId}/increase)
+ */
+public record IncreaseRequest(@NotNull @Positive Long quantity) {
+}
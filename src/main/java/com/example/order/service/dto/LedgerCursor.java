@@ -0,0 +1,24 @@
+package com.example.order.service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * ledger keyset pagination 위치 (마지막으로 읽은 줄의 createdAt, id)
+ * 문자열 형식 : <createdAt ISO>_<id>
+ */
+public record LedgerCursor(LocalDateTime createdAt, Long id) {
+
+    public static LedgerCursor start(LocalDateTime from) {
+        return new LedgerCursor(from, 0L);
+    }
+
+    public static LedgerCursor decode(String value) {
+        int separator = value.lastIndexOf('_');
+        return new LedgerCursor(LocalDateTime.parse(value.substring(0, separator)),
+                Long.valueOf(value.substring(separator + 1)));
+    }
+
+    public String encode() {
+        return createdAt + "_" + id;
+    }
+}
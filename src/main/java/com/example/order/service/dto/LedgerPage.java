@@ -0,0 +1,11 @@
+package com.example.order.service.dto;
+
+import com.example.order.domain.StockLedger;
+
+import java.util.List;
+
+/**
+ * next 가 null 이면 마지막 page
+ */
+public record LedgerPage(List<StockLedger> entries, String next) {
+}
@@ -0,0 +1,15 @@
+package com.example.order.service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * 주문 한 건의 여러 상품 재고 감소 요청 (POST /stocks/decrease)
+ * 전부 감소하거나 전부 실패한다.
+ */
+public record MultiDecreaseRequest(@NotEmpty @Size(max = 100) List<@Valid @NotNull DecreaseItem> items) {
+}
@@ -0,0 +1,188 @@
+package com.example.order.controller;
+
+import com.example.order.domain.Stock;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StockControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    @Test
+    public void API_동시에_100개의_요청() throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    decrease(post("/stocks/{stockId}/decrease", stockId)
+                                    .param("strategy", "conditional")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"quantity\":1}"))
+                            .andExpect(status().isNoContent());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+
+    @Test
+    public void pessimistic_API_동시에_100개의_요청() throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    decrease(post("/stocks/{stockId}/decrease", stockId)
+                                    .param("strategy", "pessimistic")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"quantity\":1}"))
+                            .andExpect(status().isNoContent());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+
+    @Test
+    public void 같은_Idempotency_Key_는_한_번만_감소한다() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        for (int i = 0; i < 3; i++) {
+            decrease(post("/stocks/{stockId}/decrease", stockId)
+                            .header(StockController.IDEMPOTENCY_KEY, idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"quantity\":10}"))
+                    .andExpect(status().isNoContent());
+        }
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(90, stock.getQuantity());
+    }
+
+    @Test
+    public void 재고_부족은_409_잘못된_요청은_400() throws Exception {
+        decrease(post("/stocks/{stockId}/decrease", stockId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":101}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/stocks/{stockId}/decrease", stockId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":0}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/stocks/{stockId}/decrease", stockId)
+                        .param("strategy", "unknown")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":1}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/stocks/decrease")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 여러_상품_감소와_가용_재고_조회() throws Exception {
+        Long otherId = stockRepository.saveAndFlush(new Stock(2L, 100L)).getId();
+
+        decrease(post("/stocks/decrease")
+                        .param("strategy", "pessimistic")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"id\":" + stockId + ",\"quantity\":3},{\"id\":" + otherId + ",\"quantity\":5}]}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/stocks/{stockId}/availability", otherId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(95));
+        assertEquals(97, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    /**
+     * 한 줄이 실패해도 나머지 줄은 계속 처리되고, 줄마다 결과가 한 줄씩 내려온다.
+     */
+    @Test
+    public void bulk_ndjson_은_줄마다_결과를_돌려준다() throws Exception {
+        String body = "{\"id\":" + stockId + ",\"quantity\":60}\n"
+                + "{\"id\":" + stockId + ",\"quantity\":60}\n"
+                + "{\"id\":" + stockId + ",\"quantity\":0}\n"
+                + "{\"id\":" + stockId + ",\"quantity\":40,\"key\":\"" + UUID.randomUUID() + "\"}\n";
+
+        String response = mockMvc.perform(post("/stocks/decrease/bulk")
+                        .param("strategy", "conditional")
+                        .contentType(StockController.NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = response.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"status\":\"OK\""));
+        assertTrue(lines[1].contains("\"status\":\"SOLD_OUT\""));
+        assertTrue(lines[2].contains("\"status\":\"INVALID\""));
+        assertTrue(lines[3].contains("\"status\":\"OK\""));
+        assertEquals(0, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    //==감소 API 는 StockTaskExecutor 에서 실행되고 비동기로 응답하므로 결과가 나오면 다시 dispatch==//
+    private ResultActions decrease(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.order.global.admission;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.exception.AdmissionRejectedException;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.facade.RedissonLockStockFacade;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.StockRestockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// slack 없이 남은 재고만큼만 들여보낸다. (쓰지 않는 로컬 bucket 은 0.5초 뒤 만료)
+@SpringBootTest(properties = {"stock.admission.slack=0", "stock.admission.idle-timeout=500ms"})
+class StockAdmissionTest {
+
+    @Autowired
+    private StockAdmission stockAdmission;
+    @Autowired
+    private RedissonLockStockFacade redissonLockStockFacade;
+    @Autowired
+    private StockRestockService stockRestockService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+        stockAdmission.remove(stockId);
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockAdmission.remove(stockId);
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 재고보다 많은 요청 : 재고만큼만 감소하고 나머지는 거절
+     * (품절 표시 이후에 도착한 요청은 품절 필터에서 먼저 거절될 수 있다.)
+     */
+    @Test
+    public void 동시에_150개의_요청() throws InterruptedException {
+        int threadCount = 150;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger rejected = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    redissonLockStockFacade.decrease(stockId, 1L);
+                } catch (AdmissionRejectedException | SoldOutException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+        assertEquals(50, rejected.get());
+    }
+
+    /**
+     * 남은 재고만큼의 요청이 이미 처리 중이면 lock 을 기다리지 않고 거절
+     * 처리 중이던 요청이 실패해서 token 을 돌려놓으면 다시 들어갈 수 있다.
+     */
+    @Test
+    public void 남은_재고만큼_처리_중이면_거절한다() {
+        StockAdmission.Permit permit = stockAdmission.tryAcquire(stockId, 100L);
+        assertTrue(permit.isAdmitted());
+
+        assertThrows(AdmissionRejectedException.class, () -> redissonLockStockFacade.decrease(stockId, 1L));
+        assertEquals(100, stockRepository.findById(stockId).orElseThrow().getQuantity());
+
+        stockAdmission.release(permit);
+        redissonLockStockFacade.decrease(stockId, 1L);
+        assertEquals(99, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void 입고한_만큼_더_들여보낸다() {
+        assertTrue(stockAdmission.tryAcquire(stockId, 100L).isAdmitted());
+        assertFalse(stockAdmission.tryAcquire(stockId, 10L).isAdmitted());
+
+        stockRestockService.increase(stockId, 10L);
+
+        assertTrue(stockAdmission.tryAcquire(stockId, 10L).isAdmitted());
+    }
+
+    /**
+     * redis counter 가 만료되어 가용 재고로 다시 계산되면, 이전 epoch 에서 가져간 token 은 돌려놓아도 버린다.
+     * (새 counter 에는 처리 중인 요청이 이미 빠져 있으므로 더하면 두 번 세게 된다.)
+     */
+    @Test
+    public void 다시_계산된_뒤_이전_token_은_버린다() {
+        StockAdmission.Permit before = stockAdmission.tryAcquire(stockId, 100L);
+        assertTrue(before.isAdmitted());
+
+        redisTemplate.delete("stock:admission:{" + stockId + "}");
+        assertTrue(stockAdmission.tryAcquire(stockId, 100L).isAdmitted());
+
+        stockAdmission.release(before);
+
+        assertFalse(stockAdmission.tryAcquire(stockId, 1L).isAdmitted());
+    }
+
+    /**
+     * 만료된 로컬 bucket 에 돌려놓은 token 은 redis 로 가서 다른 bucket 이 다시 쓸 수 있다.
+     */
+    @Test
+    public void 만료된_bucket_에_돌려놓은_token_은_redis_로() throws InterruptedException {
+        StockAdmission.Permit permit = stockAdmission.tryAcquire(stockId, 100L);
+        assertTrue(permit.isAdmitted());
+
+        Thread.sleep(700);
+        stockAdmission.cleanUp();
+        stockAdmission.release(permit);
+
+        assertTrue(stockAdmission.tryAcquire(stockId, 100L).isAdmitted());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.order.global.cache;
+
+import com.example.order.domain.Stock;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.ConditionalUpdateStockService;
+import com.example.order.service.PessimisticLockStockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockAvailabilityCacheTest {
+
+    @Autowired
+    private StockAvailabilityCache stockAvailabilityCache;
+    @Autowired
+    private PessimisticLockStockService pessimisticLockStockService;
+    @Autowired
+    private ConditionalUpdateStockService conditionalUpdateStockService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+        stockAvailabilityCache.evict(stockId);
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockAvailabilityCache.evict(stockId);
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 감소가 commit 되면 캐시가 변경 후 값(version 포함)으로 갱신되어야 한다.
+     */
+    @Test
+    public void 재고_감소시_캐시_갱신() {
+        StockAvailability before = stockAvailabilityCache.get(stockId);
+        assertEquals(100, before.available());
+
+        pessimisticLockStockService.decrease(stockId, 1L);
+
+        StockAvailability after = stockAvailabilityCache.get(stockId);
+        assertEquals(99, after.available());
+        assertTrue(after.version() > before.version());
+    }
+
+    /**
+     * 변경 후 값을 모르는 조건부 update 는 캐시를 비우고 다음 조회 때 DB 에서 다시 읽는다.
+     */
+    @Test
+    public void 조건부_update_시_캐시_무효화() {
+        stockAvailabilityCache.get(stockId);
+
+        conditionalUpdateStockService.decrease(stockId, 100L);
+
+        StockAvailability after = stockAvailabilityCache.get(stockId);
+        assertEquals(0, after.available());
+        assertTrue(after.isSoldOut());
+    }
+
+    /**
+     * 자기가 보낸 무효화 메시지로 방금 갱신한 로컬 캐시를 지우지 않는다.
+     * (redis / DB 값을 바꿔도 로컬 값으로 응답)
+     */
+    @Test
+    public void 자기가_보낸_무효화_메시지는_무시() throws InterruptedException {
+        stockAvailabilityCache.get(stockId);
+        pessimisticLockStockService.decrease(stockId, 1L);
+        stockAvailabilityCache.flush();
+        Thread.sleep(300);
+
+        redisTemplate.delete("stock:availability:" + stockId);
+        jdbcTemplate.update("update stock set quantity = 50 where id = ?", stockId);
+
+        assertEquals(99, stockAvailabilityCache.get(stockId).available());
+    }
+
+    @Test
+    public void 다른_서버의_무효화_메시지는_로컬_캐시를_비운다() throws InterruptedException {
+        stockAvailabilityCache.get(stockId);
+        redisTemplate.delete("stock:availability:" + stockId);
+        jdbcTemplate.update("update stock set quantity = 50 where id = ?", stockId);
+
+        redisTemplate.convertAndSend("stock:availability:invalidate", stockId + ":other-node");
+        Thread.sleep(300);
+
+        assertEquals(50, stockAvailabilityCache.get(stockId).available());
+    }
+
+    /**
+     * commit 후 redis 반영은 flush 에서 한 번에
+     */
+    @Test
+    public void flush_하면_redis_에_변경_후_값() {
+        stockAvailabilityCache.get(stockId);
+        pessimisticLockStockService.decrease(stockId, 1L);
+
+        stockAvailabilityCache.flush();
+
+        String cached = redisTemplate.opsForValue().get("stock:availability:" + stockId);
+        assertEquals(99, StockAvailability.deserialize(stockId, cached).available());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.order.global.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    public void put_get_remove() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1L, 10L);
+        map.put(2L, 20L);
+        map.put(1L, 11L);
+
+        assertEquals(2, map.size());
+        assertEquals(11L, map.get(1L, -1L));
+        assertEquals(20L, map.get(2L, -1L));
+        assertEquals(-1L, map.get(3L, -1L));
+
+        map.remove(1L);
+        map.remove(3L);
+        assertFalse(map.containsKey(1L));
+        assertTrue(map.containsKey(2L));
+        assertEquals(1, map.size());
+    }
+
+    // 0 은 빈 칸 표시라 별도로 저장한다.
+    @Test
+    public void key_0_과_음수_key() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0L, 5L);
+        map.put(-1L, 7L);
+        map.put(Long.MIN_VALUE, 9L);
+
+        assertEquals(3, map.size());
+        assertEquals(5L, map.get(0L, -1L));
+        assertEquals(7L, map.addTo(-1L, 0L));
+        assertEquals(9L, map.get(Long.MIN_VALUE, -1L));
+
+        map.remove(0L);
+        assertFalse(map.containsKey(0L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void addTo_는_없는_key_를_0_부터_더한다() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertEquals(3L, map.addTo(1L, 3L));
+        assertEquals(-2L, map.addTo(1L, -5L));
+        assertEquals(-2L, map.get(1L, 0L));
+    }
+
+    @Test
+    public void 크기를_넘으면_늘어나고_기존_값은_유지() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key * 2);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals(key * 2, map.get(key, -1L));
+        }
+    }
+
+    @Test
+    public void copy_는_원본과_독립적() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1L, 1L);
+        LongLongHashMap copy = map.copy();
+        copy.put(1L, 2L);
+        copy.put(2L, 2L);
+
+        assertEquals(1L, map.get(1L, -1L));
+        assertFalse(map.containsKey(2L));
+        assertEquals(2, copy.size());
+    }
+
+    /**
+     * 작은 table 에 put / remove 를 섞어서 충돌 / 배열 끝에서 처음으로 넘어가는 probe / 삭제 후 당기기를 모두 거치게 한다.
+     * 같은 동작을 HashMap 과 비교한다.
+     */
+    @Test
+    public void 충돌과_wrap_around_가_있어도_HashMap_과_같다() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            LongLongHashMap map = new LongLongHashMap(4);
+            Map<Long, Long> expected = new HashMap<>();
+            for (int i = 0; i < 500; i++) {
+                // key 범위를 좁혀서 같은 key 의 put / remove 가 자주 반복되도록 한다.
+                long key = random.nextInt(64) - 8;
+                if (random.nextInt(3) == 0) {
+                    map.remove(key);
+                    expected.remove(key);
+                } else {
+                    long value = random.nextLong();
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            for (long key = -8; key < 56; key++) {
+                assertEquals(expected.containsKey(key), map.containsKey(key), "key=" + key);
+                assertEquals(expected.getOrDefault(key, Long.MAX_VALUE), map.get(key, Long.MAX_VALUE), "key=" + key);
+            }
+            Map<Long, Long> visited = new HashMap<>();
+            map.forEach(visited::put);
+            assertEquals(expected, visited);
+        }
+    }
+
+    @Test
+    public void clear_후_다시_사용() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0L));
+        map.put(5L, 5L);
+        assertEquals(5L, map.get(5L, -1L));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.order.global.contention;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentionTrackerTest {
+
+    /**
+     * 요청이 끊긴 상품의 window 는 모든 slot 이 window 밖으로 밀려나면 제거된다.
+     * (slot 100ms x 2 = 200ms window)
+     */
+    @Test
+    public void 요청이_끊긴_상품은_제거된다() throws InterruptedException {
+        ContentionTracker tracker = new ContentionTracker(2, 100, 0.5, 1);
+        for (long id = 1; id <= 1000; id++) {
+            tracker.recordArrival(id);
+        }
+        tracker.evictIdle();
+        assertEquals(1000, tracker.size());
+
+        Thread.sleep(300);
+        tracker.recordArrival(1L);
+        tracker.evictIdle();
+
+        assertEquals(1, tracker.size());
+        assertTrue(tracker.arrivalRate(1L) > 0);
+        assertEquals(0, tracker.arrivalRate(2L));
+    }
+}
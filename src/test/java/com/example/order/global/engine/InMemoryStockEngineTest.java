@@ -0,0 +1,135 @@
+package com.example.order.global.engine;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.metrics.StockMetrics;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.InMemoryStockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "stock.engine.enabled=true",
+        // 테스트 중에는 주기적인 DB 반영 / snapshot 이 끼어들지 않도록 길게
+        "stock.engine.persist-interval-ms=3600000",
+        "stock.engine.snapshot-interval-ms=3600000"
+})
+class InMemoryStockEngineTest {
+
+    private static Path directory;
+
+    @Autowired
+    private InMemoryStockEngine inMemoryStockEngine;
+    @Autowired
+    private InMemoryStockService inMemoryStockService;
+    @Autowired
+    private StockMetrics stockMetrics;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @DynamicPropertySource
+    static void engineProperties(DynamicPropertyRegistry registry) throws IOException {
+        directory = Files.createTempDirectory("stock-engine");
+        registry.add("stock.engine.directory", directory::toString);
+    }
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    @Test
+    public void 동시에_100개의_요청() throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    inMemoryStockEngine.decrease(stockId, 1L);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        assertEquals(0, inMemoryStockEngine.getQuantity(stockId));
+
+        inMemoryStockEngine.persist();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+
+    /**
+     * DB 에 반영하기 전에 서버가 다시 떠도 log 를 재생해서 감소분을 잃지 않는다.
+     */
+    @Test
+    public void 재시작_시_log_재생으로_복구() throws IOException {
+        // spring bean 의 log 와 섞이지 않도록 테스트 전용 directory 사용
+        Path restartDirectory = Files.createTempDirectory("stock-engine-restart");
+        InMemoryStockEngine engine = newEngine(restartDirectory);
+        for (int i = 0; i < 10; i++) {
+            engine.decrease(stockId, 1L);
+        }
+        engine.closeLog();
+        assertEquals(100, stockRepository.findById(stockId).orElseThrow().getQuantity());
+
+        InMemoryStockEngine restarted = newEngine(restartDirectory);
+        try {
+            assertEquals(90, restarted.getQuantity(stockId));
+        } finally {
+            restarted.shutdown();
+        }
+        assertEquals(90, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    /**
+     * 입고도 log 에 남기 때문에 재시작 후에도 감소 / 입고가 모두 복구된다.
+     */
+    @Test
+    public void 입고_후_재시작_시_복구() throws IOException {
+        Path restartDirectory = Files.createTempDirectory("stock-engine-restart");
+        InMemoryStockEngine engine = newEngine(restartDirectory);
+        for (int i = 0; i < 10; i++) {
+            engine.decrease(stockId, 1L);
+        }
+        engine.increase(stockId, 30L);
+        assertEquals(120, engine.getQuantity(stockId));
+        engine.closeLog();
+
+        InMemoryStockEngine restarted = newEngine(restartDirectory);
+        try {
+            assertEquals(120, restarted.getQuantity(stockId));
+        } finally {
+            restarted.shutdown();
+        }
+        assertEquals(120, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    // 비정상 종료 후 재시작을 재현하기 위해 spring bean 과 별개로 만드는 엔진
+    private InMemoryStockEngine newEngine(Path engineDirectory) {
+        return new InMemoryStockEngine(stockRepository, inMemoryStockService, stockMetrics,
+                engineDirectory, 64 * 1024 * 1024, true, 100);
+    }
+}
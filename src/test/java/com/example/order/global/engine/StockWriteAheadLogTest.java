@@ -0,0 +1,61 @@
+package com.example.order.global.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private StockWriteAheadLog writeAheadLog;
+
+    @BeforeEach
+    public void before() {
+        writeAheadLog = new StockWriteAheadLog(directory, 1024 * 1024, false, 100);
+        writeAheadLog.recover(0, (type, seq, stockId, value) -> { });
+    }
+
+    @AfterEach
+    public void after() throws IOException {
+        Thread.interrupted();
+        writeAheadLog.close();
+    }
+
+    @Test
+    public void 기록한_seq_는_fsync_후_반환() {
+        long seq = writeAheadLog.append(StockWriteAheadLog.DECREASE, 1L, 1L);
+
+        writeAheadLog.awaitDurable(seq);
+    }
+
+    /**
+     * 닫힌 뒤에는 fsync 되지 않은 seq 를 성공으로 돌려주지 않는다.
+     */
+    @Test
+    public void 닫힌_뒤_기다리면_예외() throws IOException {
+        long seq = writeAheadLog.lastSeq() + 1;
+        writeAheadLog.close();
+
+        assertThrows(UncheckedIOException.class, () -> writeAheadLog.awaitDurable(seq));
+    }
+
+    @Test
+    public void 기다리다_interrupt_되면_예외() {
+        long seq = writeAheadLog.lastSeq() + 1;
+        Thread.currentThread().interrupt();
+
+        UncheckedIOException exception = assertThrows(UncheckedIOException.class, () -> writeAheadLog.awaitDurable(seq));
+        assertInstanceOf(InterruptedIOException.class, exception.getCause());
+        assertTrue(Thread.currentThread().isInterrupted());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.order.global.executor;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.facade.RedissonLockStockFacade;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockTaskExecutorTest {
+
+    @Autowired
+    private RedissonLockStockFacade redissonLockStockFacade;
+    @Autowired
+    private StockRepository stockRepository;
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 락 대기 요청을 platform / virtual 모드에서 실행해도 모두 처리된다.
+     * (virtual 모드는 미지원 JVM 이면 platform 으로 동작, 처리량 비교는 jmh StockTaskExecutorBenchmark)
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"platform", "virtual"})
+    public void 동시에_100개의_락_대기_요청(String mode) {
+        int waiters = 100;
+        Long stockId = stockRepository.saveAndFlush(new Stock(1L, (long) waiters)).getId();
+        StockTaskExecutor executor = new StockTaskExecutor(mode, 32, 30, 8);
+
+        CompletableFuture<?>[] futures = new CompletableFuture[waiters];
+        for (int i = 0; i < waiters; i++) {
+            futures[i] = executor.submit(stockId, () -> redissonLockStockFacade.decrease(stockId, 1L));
+        }
+        CompletableFuture.allOf(futures).join();
+        // 끝난 상품의 semaphore 는 남기지 않는다.
+        assertEquals(0, executor.activeProducts());
+        executor.shutdown();
+
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+}
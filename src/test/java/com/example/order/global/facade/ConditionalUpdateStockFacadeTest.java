@@ -0,0 +1,88 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ConditionalUpdateStockFacadeTest {
+
+    @Autowired
+    private ConditionalUpdateStockFacade conditionalUpdateStockFacade;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * update 한 번으로 처리되기 때문에 select for update 와 같은 lock 대기가 없다.
+     */
+    @Test
+    public void Conditional_Update_동시에_100개의_요청() throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    conditionalUpdateStockFacade.decrease(stockId, 1L);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+
+    /**
+     * 재고보다 많은 요청이 들어오면 초과한 요청만 재고 부족으로 실패해야 한다.
+     */
+    @Test
+    public void Conditional_Update_재고보다_많은_요청() throws InterruptedException {
+        int threadCount = 110;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger soldOut = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    conditionalUpdateStockFacade.decrease(stockId, 1L);
+                } catch (SoldOutException e) {
+                    soldOut.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+        assertEquals(10, soldOut.get());
+    }
+}
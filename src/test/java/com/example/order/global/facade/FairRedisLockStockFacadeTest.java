@@ -0,0 +1,99 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.lock.FairRedisLock;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FairRedisLockStockFacadeTest {
+
+    @Autowired
+    private FairRedisLockStockFacade fairRedisLockStockFacade;
+    @Autowired
+    private FairRedisLock fairRedisLock;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 번호표 순서대로 lock 을 넘겨받기 때문에 spin 없이 100개의 요청이 모두 처리된다.
+     */
+    @Test
+    public void Redis_Fair_Lock_동시에_100개의_요청() throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    fairRedisLockStockFacade.decrease(stockId, 1L);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+
+    /**
+     * lock 을 잡고 있는 동안 도착한 요청은 도착 순서대로 lock 을 얻는다.
+     */
+    @Test
+    public void 먼저_기다린_요청이_먼저_lock_을_얻는다() throws InterruptedException {
+        int threadCount = 5;
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+
+        FairRedisLock.Handle first = fairRedisLock.lock(stockId);
+        for (int i = 0; i < threadCount; i++) {
+            int arrival = i;
+            executorService.submit(() -> {
+                try {
+                    FairRedisLock.Handle handle = fairRedisLock.lock(stockId);
+                    order.add(arrival);
+                    fairRedisLock.unlock(handle);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+            // 다음 요청이 확실히 나중에 번호표를 받도록 간격을 둔다.
+            Thread.sleep(50);
+        }
+        fairRedisLock.unlock(first);
+        latch.await();
+
+        assertEquals(List.of(0, 1, 2, 3, 4), order);
+    }
+}
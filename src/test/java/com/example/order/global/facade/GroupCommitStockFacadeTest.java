@@ -0,0 +1,79 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class GroupCommitStockFacadeTest {
+
+    @Autowired
+    private GroupCommitStockFacade groupCommitStockFacade;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 요청 100개가 batch 로 묶여서 반영되고, 재고를 넘는 요청은 도착 순서대로 실패해야 한다.
+     */
+    @Test
+    public void Group_Commit_동시에_110개의_요청() throws InterruptedException {
+        int threadCount = 110;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger failed = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    groupCommitStockFacade.decrease(stockId, 1L).join();
+                } catch (CompletionException e) {
+                    failed.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+        assertEquals(10, failed.get());
+    }
+
+    /**
+     * 처리가 끝난 상품의 batch 는 남기지 않는다. (요청이 온 적 있는 상품 수만큼 쌓이지 않음)
+     */
+    @Test
+    public void 처리가_끝난_batch_는_제거된다() {
+        Long otherId = stockRepository.saveAndFlush(new Stock(2L, 100L)).getId();
+
+        groupCommitStockFacade.decrease(stockId, 1L).join();
+        groupCommitStockFacade.decrease(otherId, 1L).join();
+
+        assertEquals(0, groupCommitStockFacade.activeBatches());
+        assertEquals(99, stockRepository.findById(otherId).orElseThrow().getQuantity());
+    }
+}
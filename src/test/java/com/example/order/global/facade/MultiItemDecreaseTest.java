@@ -0,0 +1,94 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.PessimisticLockStockService;
+import com.example.order.service.dto.DecreaseItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class MultiItemDecreaseTest {
+
+    @Autowired
+    private PessimisticLockStockService pessimisticLockStockService;
+    @Autowired
+    private NamedLockStockFacade namedLockStockFacade;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long firstId;
+    private Long secondId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        firstId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+        secondId = stockRepository.saveAndFlush(new Stock(2L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 하나라도 재고가 부족하면 다른 상품도 감소되지 않아야 한다.
+     */
+    @Test
+    public void 여러_상품_중_하나라도_부족하면_전체_rollback() {
+        List<DecreaseItem> items = List.of(new DecreaseItem(firstId, 1L), new DecreaseItem(secondId, 101L));
+
+        assertThrows(SoldOutException.class, () -> pessimisticLockStockService.decreaseAll(items));
+
+        assertEquals(100, stockRepository.findById(firstId).orElseThrow().getQuantity());
+        assertEquals(100, stockRepository.findById(secondId).orElseThrow().getQuantity());
+    }
+
+    /**
+     * 서로 반대 순서로 상품을 담은 주문이 동시에 들어와도 id 순서로 lock 을 잡기 때문에 데드락이 생기지 않는다.
+     * (named lock 경로는 row lock 없이 읽기 때문에 다른 방식과 섞으면 version 충돌이 난다. 방식마다 따로 확인)
+     */
+    @Test
+    public void 비관적_lock_반대_순서의_주문_동시에_100개의_요청() throws InterruptedException {
+        decreaseConcurrently(pessimisticLockStockService::decreaseAll);
+    }
+
+    @Test
+    public void named_lock_반대_순서의_주문_동시에_100개의_요청() throws InterruptedException {
+        decreaseConcurrently(namedLockStockFacade::decreaseAll);
+    }
+
+    private void decreaseConcurrently(Consumer<List<DecreaseItem>> decreaseAll) throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            List<DecreaseItem> items = i % 2 == 0
+                    ? List.of(new DecreaseItem(firstId, 1L), new DecreaseItem(secondId, 1L))
+                    : List.of(new DecreaseItem(secondId, 1L), new DecreaseItem(firstId, 1L));
+            executorService.submit(() -> {
+                try {
+                    decreaseAll.accept(items);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        assertEquals(0, stockRepository.findById(firstId).orElseThrow().getQuantity());
+        assertEquals(0, stockRepository.findById(secondId).orElseThrow().getQuantity());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.order.global.facade;
 
 import com.example.order.domain.Stock;
+import com.example.order.global.exception.SoldOutException;
 import com.example.order.repository.StockRepository;
 import com.example.order.service.PessimisticLockStockService;
 import com.example.order.service.StockService;
@@ -13,6 +14,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -69,4 +71,34 @@ class OptimisticLockStockFacadeTest {
         assertEquals(0, stock.getQuantity());
     }
 
+    /**
+     * 재고 부족은 재시도 대상이 아니기 때문에 무한히 재시도하지 않고 바로 실패해야 한다.
+     */
+    @Test
+    public void Optimistic_Lock_재고보다_많은_요청() throws InterruptedException {
+        Long stockId = stockRepository.findAll().get(0).getId();
+        int threadCount = 110;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger soldOut = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    optimisticLockStockFacade.decrease(stockId, 1L);
+                } catch (SoldOutException e) {
+                    soldOut.incrementAndGet();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+        assertEquals(10, soldOut.get());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReactiveRedisLockStockFacadeTest {
+
+    @Autowired
+    private ReactiveRedisLockStockFacade reactiveRedisLockStockFacade;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 스레드 풀 대신 동시 구독 100개로 요청
+     * 락 대기 중에는 스레드를 점유하지 않는다.
+     */
+    @Test
+    public void Reactive_Redis_Lock_동시에_100개의_요청() {
+        Flux<Void> requests = Flux.range(0, 100)
+                .flatMap(i -> reactiveRedisLockStockFacade.decrease(stockId, 1L), 100);
+
+        StepVerifier.create(requests)
+                .expectComplete()
+                .verify(Duration.ofSeconds(30));
+
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+}
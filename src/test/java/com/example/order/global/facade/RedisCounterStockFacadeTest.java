@@ -0,0 +1,113 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.writebehind.RedisStockWriteBehind;
+import com.example.order.repository.RedisStockRepository;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.RedisCounterStockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RedisCounterStockFacadeTest {
+
+    @Autowired
+    private RedisCounterStockFacade redisCounterStockFacade;
+    @Autowired
+    private RedisStockWriteBehind redisStockWriteBehind;
+    @Autowired
+    private RedisStockRepository redisStockRepository;
+    @Autowired
+    private RedisCounterStockService redisCounterStockService;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+        redisStockRepository.remove(stockId);
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        redisStockWriteBehind.flush();
+        redisStockRepository.remove(stockId);
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * redis 에서 감소 후 write-behind 로 DB 까지 반영되어야 한다.
+     */
+    @Test
+    public void Redis_Counter_동시에_110개의_요청() throws InterruptedException {
+        int threadCount = 110;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger soldOut = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    redisCounterStockFacade.decrease(stockId, 1L);
+                } catch (SoldOutException e) {
+                    soldOut.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        assertEquals(0, redisStockRepository.getQuantity(stockId));
+        assertEquals(10, soldOut.get());
+
+        redisStockWriteBehind.flush();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+
+    /**
+     * pending 을 in-flight 로 옮긴 뒤 DB 에 반영하기 전에 서버가 죽은 경우
+     * 재시작 시 in-flight 를 다시 반영해야 한다.
+     */
+    @Test
+    public void 반영_전에_멈춘_batch_는_재시작_시_반영() {
+        redisCounterStockFacade.decrease(stockId, 10L);
+        redisStockRepository.drainPending(UUID.randomUUID().toString());
+
+        redisStockWriteBehind.reconcile();
+
+        assertEquals(90, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    /**
+     * DB commit 후 in-flight 를 지우기 전에 서버가 죽은 경우
+     * 다시 반영하려 해도 batchId 가 이미 기록되어 있어서 한 번만 반영된다.
+     */
+    @Test
+    public void commit_후_정리_전에_멈춘_batch_는_다시_반영하지_않는다() {
+        redisCounterStockFacade.decrease(stockId, 10L);
+        String batchId = UUID.randomUUID().toString();
+        Map<Long, Long> deltas = redisStockRepository.drainPending(batchId);
+        redisCounterStockService.applyDeltas(batchId, deltas);
+
+        redisStockWriteBehind.reconcile();
+
+        assertEquals(90, stockRepository.findById(stockId).orElseThrow().getQuantity());
+        assertTrue(redisStockRepository.inFlightBatchIds(Long.MAX_VALUE).isEmpty());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.order.global.facade;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.contention.ContentionTracker;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockDecreaseRouterTest {
+
+    @Autowired
+    private StockDecreaseRouter stockDecreaseRouter;
+    @Autowired
+    private ContentionTracker contentionTracker;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    @Test
+    public void 요청이_없는_상품은_optimistic() {
+        assertEquals(StockDecreaseStrategy.OPTIMISTIC, stockDecreaseRouter.route(stockId));
+    }
+
+    @Test
+    public void 충돌이_많은_상품은_pessimistic_으로_전환() {
+        for (int i = 0; i < 100; i++) {
+            contentionTracker.recordArrival(stockId);
+            contentionTracker.recordConflict(stockId);
+        }
+        assertEquals(StockDecreaseStrategy.PESSIMISTIC, stockDecreaseRouter.route(stockId));
+        // min-dwell 전에는 요청이 줄어도 바로 내려오지 않는다.
+        assertEquals(StockDecreaseStrategy.PESSIMISTIC, stockDecreaseRouter.route(stockId));
+    }
+
+    /**
+     * 경합에 따라 중간에 방식이 바뀌어도 모든 요청이 정확히 반영된다.
+     */
+    @Test
+    public void 동시에_100개의_요청() throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    stockDecreaseRouter.decrease(stockId, 1L);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+}
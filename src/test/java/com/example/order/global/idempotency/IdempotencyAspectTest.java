@@ -0,0 +1,136 @@
+package com.example.order.global.idempotency;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.event.StockOperationContext;
+import com.example.order.global.exception.DuplicateRequestException;
+import com.example.order.global.exception.IdempotencyKeyMismatchException;
+import com.example.order.global.facade.ConditionalUpdateStockFacade;
+import com.example.order.global.facade.OptimisticLockStockFacade;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class IdempotencyAspectTest {
+
+    @Autowired
+    private ConditionalUpdateStockFacade conditionalUpdateStockFacade;
+    @Autowired
+    private OptimisticLockStockFacade optimisticLockStockFacade;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 같은 key 로 동시에 100번 재시도해도 한 번만 감소한다.
+     */
+    @Test
+    public void 같은_key_로_동시에_100개의_요청() throws InterruptedException {
+        int threadCount = 100;
+        String requestKey = UUID.randomUUID().toString();
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    StockOperationContext.withRequestId(requestKey, () -> {
+                        optimisticLockStockFacade.decrease(stockId, 1L);
+                        return null;
+                    });
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(99, stock.getQuantity());
+    }
+
+    /**
+     * 이미 처리된 요청은 DB 를 거치지 않고 처음 결과를 그대로 돌려준다.
+     */
+    @Test
+    public void 처리된_요청은_재고가_없어도_처음_결과를_돌려준다() {
+        String requestKey = UUID.randomUUID().toString();
+        StockOperationContext.withRequestId(requestKey, () -> {
+            conditionalUpdateStockFacade.decrease(stockId, 100L);
+            return null;
+        });
+
+        assertDoesNotThrow(() -> StockOperationContext.withRequestId(requestKey, () -> {
+            conditionalUpdateStockFacade.decrease(stockId, 100L);
+            return null;
+        }));
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+
+    /**
+     * 같은 key 로 다른 수량을 요청하면 처음 결과를 돌려주지 않고 거절한다.
+     */
+    @Test
+    public void 같은_key_로_다른_요청은_거절() {
+        String requestKey = UUID.randomUUID().toString();
+        StockOperationContext.withRequestId(requestKey, () -> {
+            conditionalUpdateStockFacade.decrease(stockId, 1L);
+            return null;
+        });
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> StockOperationContext.withRequestId(requestKey, () -> {
+            conditionalUpdateStockFacade.decrease(stockId, 2L);
+            return null;
+        }));
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(99, stock.getQuantity());
+    }
+
+    /**
+     * 실행이 pending-ttl 보다 길어져도 처리 중 표시가 연장되어 다른 요청이 처리 권한을 가져가지 못한다.
+     */
+    @Test
+    public void 처리_중_표시는_실행이_끝날_때까지_연장() throws InterruptedException {
+        IdempotencyStore store = new IdempotencyStore(redisTemplate, Duration.ofMinutes(1), Duration.ofMillis(300),
+                Duration.ZERO, Duration.ofSeconds(60), 6);
+        String requestKey = UUID.randomUUID().toString();
+        try {
+            IdempotencyStore.Claim claim = store.claim(requestKey, "fingerprint");
+            assertFalse(claim.isDone());
+
+            Thread.sleep(1000);
+
+            assertThrows(DuplicateRequestException.class, () -> store.claim(requestKey, "fingerprint"));
+            store.release(claim);
+        } finally {
+            store.shutdown();
+        }
+    }
+}
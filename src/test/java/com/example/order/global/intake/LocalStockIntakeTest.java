@@ -0,0 +1,73 @@
+package com.example.order.global.intake;
+
+import com.example.order.domain.Stock;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LocalStockIntakeTest {
+
+    @Autowired
+    private StockIntake stockIntake;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 재고보다 많은 요청이 들어와도 partition worker 가 순서대로 처리하기 때문에 정확히 100개만 성공한다.
+     */
+    @Test
+    public void 동시에_110개의_요청_접수() throws InterruptedException {
+        int threadCount = 110;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        List<IntakeResult> results = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> stockIntake.submit(stockId, 1L, result -> {
+                results.add(result);
+                latch.countDown();
+            }));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+        assertEquals(100, results.stream().filter(result -> result.status() == IntakeStatus.SUCCEEDED).count());
+        assertEquals(10, results.stream().filter(result -> result.status() == IntakeStatus.SOLD_OUT).count());
+    }
+
+    @Test
+    public void ticket_으로_처리_결과_조회() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        IntakeResult accepted = stockIntake.submit(stockId, 1L, result -> latch.countDown());
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        IntakeResult result = stockIntake.status(accepted.ticketId()).orElseThrow();
+        assertEquals(IntakeStatus.SUCCEEDED, result.status());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.order.global.intake;
+
+import com.example.order.domain.Stock;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockIntakeProcessorTest {
+
+    @Autowired
+    private StockIntakeProcessor stockIntakeProcessor;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    /**
+     * 반영 후 ack 전에 소유권이 넘어가면 다음 소유자가 같은 batch 를 다시 처리한다.
+     * 이미 반영한 ticket 은 재고를 다시 줄이지 않고 처음 결과를 돌려준다.
+     */
+    @Test
+    public void commit_후_ack_하지_못한_batch_를_다시_처리() {
+        List<IntakeRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(IntakeRequest.of(stockId, 10L));
+        }
+        batch.add(IntakeRequest.of(stockId, 1L));
+
+        List<IntakeResult> first = stockIntakeProcessor.process(batch);
+        assertEquals(0, stockRepository.findById(stockId).orElseThrow().getQuantity());
+
+        List<IntakeResult> replayed = stockIntakeProcessor.process(batch);
+        assertEquals(first, replayed);
+        assertEquals(10, replayed.stream().filter(result -> result.status() == IntakeStatus.SUCCEEDED).count());
+        assertEquals(IntakeStatus.SOLD_OUT, replayed.get(10).status());
+        assertEquals(0, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void 다시_처리한_batch_에_섞인_새_요청은_반영() {
+        IntakeRequest processed = IntakeRequest.of(stockId, 30L);
+        stockIntakeProcessor.process(List.of(processed));
+
+        List<IntakeResult> results = stockIntakeProcessor.process(List.of(processed, IntakeRequest.of(stockId, 20L)));
+
+        assertTrue(results.stream().allMatch(result -> result.status() == IntakeStatus.SUCCEEDED));
+        assertEquals(50, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.order.global.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TwoLevelRedisLockTest {
+
+    // 재고 id 와 겹치지 않는 lock key
+    private static final Long LOCK_ID = 900_001L;
+
+    @Autowired
+    private TwoLevelRedisLock twoLevelRedisLock;
+    @Autowired
+    private LocalLockStripes localLockStripes;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @AfterEach
+    public void after() {
+        redisTemplate.delete(LOCK_ID.toString());
+    }
+
+    @Test
+    public void 기다리는_스레드가_없으면_redis_lock_을_푼다() throws InterruptedException {
+        twoLevelRedisLock.lock(LOCK_ID);
+        assertNotNull(redisTemplate.opsForValue().get(LOCK_ID.toString()));
+
+        twoLevelRedisLock.unlock(LOCK_ID);
+
+        assertNull(redisTemplate.opsForValue().get(LOCK_ID.toString()));
+        assertEquals(0, twoLevelRedisLock.waitingProducts());
+    }
+
+    /**
+     * 같은 서버에서 기다리는 스레드가 있으면 redis lock 을 풀지 않고 그대로 넘긴다. (같은 token 유지)
+     * 마지막 스레드가 풀 때 redis lock 을 해제하고 대기 항목도 남기지 않는다.
+     */
+    @Test
+    public void 로컬_대기_스레드에게_redis_lock_을_넘긴다() throws Exception {
+        twoLevelRedisLock.lock(LOCK_ID);
+        String token = redisTemplate.opsForValue().get(LOCK_ID.toString());
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> waiter = executorService.submit(() -> {
+            twoLevelRedisLock.lock(LOCK_ID);
+            acquired.countDown();
+            release.await();
+            twoLevelRedisLock.unlock(LOCK_ID);
+            return null;
+        });
+
+        // 두 번째 스레드가 로컬 lock 에서 기다릴 때까지
+        ReentrantLock local = localLockStripes.get(LOCK_ID);
+        while (!local.hasQueuedThreads()) {
+            Thread.sleep(10);
+        }
+        twoLevelRedisLock.unlock(LOCK_ID);
+
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+        assertEquals(token, redisTemplate.opsForValue().get(LOCK_ID.toString()));
+
+        release.countDown();
+        waiter.get(1, TimeUnit.SECONDS);
+        executorService.shutdown();
+
+        assertNull(redisTemplate.opsForValue().get(LOCK_ID.toString()));
+        assertEquals(0, twoLevelRedisLock.waitingProducts());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.order.global.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StockMetrics stockMetrics;
+
+    @BeforeEach
+    public void before() {
+        meterRegistry = new SimpleMeterRegistry();
+        stockMetrics = new StockMetrics(meterRegistry);
+    }
+
+    /**
+     * 같은 bucket 의 상품은 같은 counter 로 모인다. (id % PRODUCT_BUCKETS)
+     */
+    @Test
+    public void 품절_counter_는_product_bucket_별로_나뉜다() {
+        stockMetrics.soldOut("optimistic", 1L);
+        stockMetrics.soldOut("optimistic", 1L + StockMetrics.PRODUCT_BUCKETS);
+        stockMetrics.soldOut("optimistic", 2L);
+
+        assertEquals(2, counter("stock.sold_out", "optimistic", "1").count());
+        assertEquals(1, counter("stock.sold_out", "optimistic", "2").count());
+    }
+
+    @Test
+    public void 재시도와_lock_실패도_product_bucket_을_남긴다() {
+        stockMetrics.retry("optimistic", 3L);
+        stockMetrics.lockFailure("redisson", 3L, "timeout");
+
+        assertEquals(1, counter("stock.retry", "optimistic", "3").count());
+        Counter failure = meterRegistry.get("stock.lock.failure")
+                .tag("strategy", "redisson")
+                .tag("product_bucket", "3")
+                .tag("reason", "timeout")
+                .counter();
+        assertEquals(1, failure.count());
+    }
+
+    //==여러 상품 / 상품을 모르는 경우==//
+    @Test
+    public void id_가_없으면_none() {
+        stockMetrics.soldOut("conditional", null);
+
+        assertEquals(1, counter("stock.sold_out", "conditional", "none").count());
+    }
+
+    @Test
+    public void 음수_id_도_bucket_범위_안() {
+        assertEquals(String.valueOf(StockMetrics.PRODUCT_BUCKETS - 1), StockMetrics.bucket(-1L));
+    }
+
+    private Counter counter(String name, String strategy, String bucket) {
+        return meterRegistry.get(name)
+                .tag("strategy", strategy)
+                .tag("product_bucket", bucket)
+                .counter();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.order.global.product;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.dispatch.StockDecreaseDispatcher;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.soldout.SoldOutFilter;
+import com.example.order.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductStockIndexTest {
+
+    @Autowired
+    private ProductStockIndex productStockIndex;
+    @Autowired
+    private StockDecreaseDispatcher stockDecreaseDispatcher;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SoldOutFilter soldOutFilter;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+        soldOutFilter.reset();
+    }
+
+    /**
+     * insert 와 동시에 index 에 들어가기 때문에 DB 를 거치지 않는다.
+     * (DB 에서 직접 지워도 index 의 값으로 응답)
+     */
+    @Test
+    public void 저장한_재고는_메모리에서_찾는다() {
+        jdbcTemplate.update("delete from stock where id = ?", stockId);
+
+        assertEquals(stockId, productStockIndex.stockId(1L));
+        productStockIndex.remove(1L, stockId);
+    }
+
+    @Test
+    public void index_에_없는_재고는_DB_에서_찾아_추가한다() {
+        jdbcTemplate.update("insert into stock (product_id, quantity, reserved, version) values (2, 10, 0, 0)");
+        Long otherId = jdbcTemplate.queryForObject("select id from stock where product_id = 2", Long.class);
+
+        assertEquals(otherId, productStockIndex.stockId(2L));
+    }
+
+    @Test
+    public void 삭제한_재고는_index_에서도_빠진다() {
+        stockRepository.deleteById(stockId);
+
+        assertThrows(NoSuchElementException.class, () -> productStockIndex.stockId(1L));
+    }
+
+    @Test
+    public void productId_로_동시에_100개의_요청() throws InterruptedException {
+        decreaseByProductConcurrently("conditional");
+    }
+
+    @Test
+    public void productId_로_pessimistic_lock_을_잡고_동시에_100개의_요청() throws InterruptedException {
+        decreaseByProductConcurrently("pessimistic");
+    }
+
+    @Test
+    public void productId_로_optimistic_lock_을_잡고_동시에_100개의_요청() throws InterruptedException {
+        decreaseByProductConcurrently("optimistic");
+    }
+
+    /**
+     * productId 로 감소해도 품절 표시는 stockId 기준으로 남고, 다음 요청은 DB 를 거치지 않고 거절된다.
+     * (이벤트 없이 DB 만 채워도 품절 filter 에서 거절)
+     */
+    @Test
+    public void productId_로_품절된_재고는_filter_에서_거절() throws InterruptedException {
+        stockDecreaseDispatcher.decreaseByProduct("pessimistic", 1L, 100L);
+        assertThrows(SoldOutException.class, () -> stockDecreaseDispatcher.decreaseByProduct("pessimistic", 1L, 1L));
+        assertTrue(soldOutFilter.isSoldOut(stockId));
+
+        jdbcTemplate.update("update stock set quantity = 10 where id = ?", stockId);
+
+        assertThrows(SoldOutException.class, () -> stockDecreaseDispatcher.decreaseByProduct("pessimistic", 1L, 1L));
+        assertEquals(10, stockRepository.findByProductId(1L).orElseThrow().getQuantity());
+    }
+
+    private void decreaseByProductConcurrently(String strategy) throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    stockDecreaseDispatcher.decreaseByProduct(strategy, 1L, 1L);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        Stock stock = stockRepository.findByProductId(1L).orElseThrow();
+        assertEquals(0, stock.getQuantity());
+    }
+}
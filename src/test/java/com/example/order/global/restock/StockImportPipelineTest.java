@@ -0,0 +1,159 @@
+package com.example.order.global.restock;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.cache.StockAvailabilityCache;
+import com.example.order.global.facade.ConditionalUpdateStockFacade;
+import com.example.order.global.soldout.SoldOutFilter;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.StockRestockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockImportPipelineTest {
+
+    @Autowired
+    private StockImportPipeline stockImportPipeline;
+    @Autowired
+    private StockRestockService stockRestockService;
+    @Autowired
+    private ConditionalUpdateStockFacade conditionalUpdateStockFacade;
+    @Autowired
+    private SoldOutFilter soldOutFilter;
+    @Autowired
+    private StockAvailabilityCache stockAvailabilityCache;
+    @Autowired
+    private StockRepository stockRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+    }
+
+    @Test
+    public void 입고() {
+        stockRestockService.increase(stockId, 50L);
+
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(150, stock.getQuantity());
+    }
+
+    /**
+     * import 는 묶음마다 event 하나로 listener 를 실행한다.
+     * 품절 표시 해제 / 캐시 삭제가 묶음 안의 모든 상품에 반영되어야 한다.
+     */
+    @Test
+    public void import_묶음_event_로_품절_해제와_캐시_삭제() throws IOException, InterruptedException {
+        assertEquals(100, stockAvailabilityCache.get(stockId).available());
+        soldOutFilter.markSoldOut(stockId);
+
+        String csv = "product_id,quantity\n"
+                + "1,10\n";
+        stockImportPipeline.run(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StockImportFormat.CSV);
+
+        assertFalse(soldOutFilter.isSoldOut(stockId));
+        assertEquals(110, stockAvailabilityCache.get(stockId).available());
+    }
+
+    /**
+     * 있는 상품은 수량을 더하고 없는 상품은 새로 만든다.
+     * 같은 상품이 여러 줄이면 모두 더하고, 형식이 잘못된 줄은 건너뛴다.
+     */
+    @Test
+    public void csv_입고_import() throws IOException, InterruptedException {
+        String csv = "product_id,quantity\n"
+                + "1,10\n"
+                + "2,20\n"
+                + "3,30\n"
+                + "2,5\n"
+                + "abc,1\n"
+                + "\n"
+                + "4,-1\n";
+
+        StockImportReport report = stockImportPipeline.run(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StockImportFormat.CSV);
+
+        assertEquals(4, report.rows());
+        assertEquals(2, report.skipped());
+        Map<Long, Long> quantities = quantitiesByProductId();
+        assertEquals(110, quantities.get(1L));
+        assertEquals(25, quantities.get(2L));
+        assertEquals(30, quantities.get(3L));
+        assertFalse(quantities.containsKey(4L));
+    }
+
+    @Test
+    public void ndjson_입고_import() throws IOException, InterruptedException {
+        String ndjson = "{\"productId\":1,\"quantity\":10}\n"
+                + "{\"product_id\":5,\"quantity\":7,\"warehouse\":\"A\"}\n"
+                + "{\"productId\":6}\n"
+                + "not json\n";
+
+        StockImportReport report = stockImportPipeline.run(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), StockImportFormat.NDJSON);
+
+        assertEquals(2, report.rows());
+        assertEquals(2, report.skipped());
+        Map<Long, Long> quantities = quantitiesByProductId();
+        assertEquals(110, quantities.get(1L));
+        assertEquals(7, quantities.get(5L));
+    }
+
+    /**
+     * 판매 (감소) 와 입고 import 가 동시에 진행되어도 어느 쪽도 유실되지 않는다.
+     */
+    @Test
+    public void 감소_100개의_요청과_동시에_입고_import() throws Exception {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append("1,1\n");
+        }
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    conditionalUpdateStockFacade.decrease(stockId, 1L);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        StockImportReport report = stockImportPipeline.run(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), StockImportFormat.CSV);
+        latch.await();
+
+        assertEquals(1000, report.rows());
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(1000, stock.getQuantity());
+    }
+
+    private Map<Long, Long> quantitiesByProductId() {
+        return stockRepository.findAll().stream()
+                .collect(Collectors.toMap(Stock::getProductId, Stock::getQuantity));
+    }
+}
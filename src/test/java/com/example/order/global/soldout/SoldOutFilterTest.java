@@ -0,0 +1,179 @@
+package com.example.order.global.soldout;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.facade.LettuceLockStockFacade;
+import com.example.order.repository.StockRepository;
+import com.example.order.repository.StockReservationRepository;
+import com.example.order.service.StockReservationService;
+import com.example.order.service.StockRestockService;
+import com.example.order.service.StockService;
+import com.example.order.service.dto.DecreaseItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SoldOutFilterTest {
+
+    private static final String CHANNEL = "stock:sold-out";
+
+    @Autowired
+    private SoldOutFilter soldOutFilter;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private LettuceLockStockFacade lettuceLockStockFacade;
+    @Autowired
+    private StockRestockService stockRestockService;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        soldOutFilter.reset();
+        stockReservationRepository.deleteAll();
+        stockRepository.deleteAll();
+    }
+
+    @Test
+    public void 동시에_100개의_요청으로_품절되면_표시된다() throws InterruptedException {
+        int threadCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    lettuceLockStockFacade.decrease(stockId, 1L);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        assertEquals(0, stockRepository.findById(stockId).orElseThrow().getQuantity());
+        assertTrue(soldOutFilter.isSoldOut(stockId));
+    }
+
+    /**
+     * 표시된 상품은 DB 를 거치지 않고 거절하기 때문에 실제 재고가 남아 있어도 감소하지 않는다.
+     */
+    @Test
+    public void 품절_표시된_상품은_lock_없이_거절한다() {
+        soldOutFilter.markSoldOut(stockId);
+
+        assertThrows(SoldOutException.class, () -> lettuceLockStockFacade.decrease(stockId, 1L));
+        assertThrows(SoldOutException.class, () -> stockService.decreaseAll(List.of(new DecreaseItem(stockId, 1L))));
+        assertEquals(100, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    public void 남은_재고보다_많이_요청한_경우는_표시하지_않는다() {
+        assertThrows(SoldOutException.class, () -> stockService.decrease(stockId, 101L));
+
+        assertFalse(soldOutFilter.isSoldOut(stockId));
+    }
+
+    @Test
+    public void 입고하면_표시가_해제된다() {
+        stockService.decrease(stockId, 100L);
+        assertTrue(soldOutFilter.isSoldOut(stockId));
+
+        stockRestockService.increase(stockId, 10L);
+
+        assertFalse(soldOutFilter.isSoldOut(stockId));
+        stockService.decrease(stockId, 10L);
+        assertEquals(0, stockRepository.findById(stockId).orElseThrow().getQuantity());
+    }
+
+    /**
+     * 다른 서버에서 보낸 표시 / 해제 메시지를 이 서버에도 반영한다.
+     */
+    @Test
+    public void 다른_서버의_메시지로_표시와_해제() throws InterruptedException {
+        redisTemplate.convertAndSend(CHANNEL, "+" + stockId + ":other-node");
+        await(() -> soldOutFilter.isSoldOut(stockId));
+        assertTrue(soldOutFilter.isSoldOut(stockId));
+
+        redisTemplate.convertAndSend(CHANNEL, "-" + stockId + ":other-node");
+        await(() -> !soldOutFilter.isSoldOut(stockId));
+        assertFalse(soldOutFilter.isSoldOut(stockId));
+    }
+
+    /**
+     * 다른 서버만 품절로 표시했을 수 있기 때문에 입고는 이 서버에 표시가 없어도 해제를 전파한다.
+     */
+    @Test
+    public void 입고는_이_서버에_표시가_없어도_해제를_전파한다() throws InterruptedException {
+        assertClearPublished(() -> stockRestockService.increase(stockId, 10L));
+    }
+
+    @Test
+    public void 예약_취소도_해제를_전파한다() throws InterruptedException {
+        Long reservationId = stockReservationService.reserve(stockId, 10L, Duration.ofMinutes(1));
+
+        assertClearPublished(() -> stockReservationService.cancel(reservationId));
+    }
+
+    private void assertClearPublished(Runnable change) throws InterruptedException {
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        MessageListener listener = (message, pattern) -> messages.add(new String(message.getBody()));
+        redisMessageListenerContainer.addMessageListener(listener, new ChannelTopic(CHANNEL));
+        try {
+            assertFalse(soldOutFilter.isSoldOut(stockId));
+
+            change.run();
+
+            String message;
+            do {
+                message = messages.poll(1, TimeUnit.SECONDS);
+                assertNotNull(message);
+            } while (!message.startsWith("-" + stockId + ":"));
+        } finally {
+            redisMessageListenerContainer.removeMessageListener(listener);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.order.service;
+
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.repository.StockBucketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BucketStockServiceTest {
+
+    @Autowired
+    private BucketStockService bucketStockService;
+    @Autowired
+    private StockBucketRepository stockBucketRepository;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 bucket 으로 나눠서 생성
+    public void before() {
+        bucketStockService.split(1L, 100L, 8);
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 bucket 제거
+    public void after() {
+        stockBucketRepository.deleteAll();
+    }
+
+    @Test
+    public void 재고를_bucket_으로_분할() {
+        assertEquals(8, stockBucketRepository.findIdsByProductId(1L).size());
+        assertEquals(100, bucketStockService.getAvailableQuantity(1L));
+    }
+
+    /**
+     * bucket 이 비면 다른 bucket 을 탐색하기 때문에 전체 재고를 정확히 소진해야 한다.
+     */
+    @Test
+    public void Bucket_동시에_110개의_요청() throws InterruptedException {
+        int threadCount = 110;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger soldOut = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    bucketStockService.decrease(1L, 1L);
+                } catch (SoldOutException e) {
+                    soldOut.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        assertEquals(0, bucketStockService.getAvailableQuantity(1L));
+        assertEquals(10, soldOut.get());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.order.service;
+
+import com.example.order.domain.Stock;
+import com.example.order.domain.StockLedger;
+import com.example.order.repository.StockLedgerRepository;
+import com.example.order.repository.StockRepository;
+import com.example.order.service.dto.LedgerPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockLedgerServiceTest {
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    @Autowired
+    private PessimisticLockStockService pessimisticLockStockService;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+
+    // 다른 테스트 (productId 1L) 가 남긴 ledger 와 섞이지 않도록 이 테스트에서만 쓰는 상품
+    private static final Long PRODUCT_ID = 19_001L;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(PRODUCT_ID, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockRepository.deleteAll();
+        stockLedgerRepository.deleteAll();
+    }
+
+    @Test
+    public void 재고_감소마다_ledger_한_줄씩_기록하고_cursor_로_이어서_조회() throws InterruptedException {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+        for (int i = 0; i < 10; i++) {
+            pessimisticLockStockService.decrease(stockId, 1L);
+        }
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+
+        // buffer 에 모았다가 비동기로 insert 하기 때문에 잠시 기다린다.
+        for (int i = 0; i < 50 && stockLedgerService.stream(PRODUCT_ID, from, to, 100).count() < 10; i++) {
+            Thread.sleep(100);
+        }
+
+        List<StockLedger> entries = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            LedgerPage page = stockLedgerService.page(PRODUCT_ID, from, to, cursor, 3);
+            entries.addAll(page.entries());
+            cursor = page.next();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(10, entries.size());
+        assertEquals(4, pages);
+        assertTrue(entries.stream().allMatch(entry -> entry.getDelta() == -1L));
+        assertTrue(entries.stream().allMatch(entry -> "PessimisticLockStockService".equals(entry.getStrategy())));
+        assertEquals(10, stockLedgerService.stream(PRODUCT_ID, from, to, 4).count());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.order.service;
+
+import com.example.order.domain.Stock;
+import com.example.order.global.exception.SoldOutException;
+import com.example.order.global.reservation.ReservationSweeper;
+import com.example.order.repository.StockRepository;
+import com.example.order.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockReservationServiceTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private ReservationSweeper reservationSweeper;
+    @Autowired
+    private StockRepository stockRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    private Long stockId;
+
+    @BeforeEach // 테스트를 실행 하기 전에 재고를 생성하기 위한 Annotation
+    public void before() {
+        stockId = stockRepository.saveAndFlush(new Stock(1L, 100L)).getId();
+    }
+
+    @AfterEach // 테스트가 끝나면 모든 아이템 제거
+    public void after() {
+        stockReservationRepository.deleteAll();
+        stockRepository.deleteAll();
+    }
+
+    @Test
+    public void 예약_후_확정하면_재고가_감소() {
+        Long reservationId = stockReservationService.reserve(stockId, 10L, Duration.ofMinutes(10));
+
+        Stock reserved = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(100, reserved.getQuantity());
+        assertEquals(90, reserved.getAvailableQuantity());
+
+        stockReservationService.confirm(reservationId);
+
+        Stock confirmed = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(90, confirmed.getQuantity());
+        assertEquals(90, confirmed.getAvailableQuantity());
+    }
+
+    @Test
+    public void 예약_취소하면_재고_반환() {
+        Long reservationId = stockReservationService.reserve(stockId, 10L, Duration.ofMinutes(10));
+
+        stockReservationService.cancel(reservationId);
+
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(100, stock.getAvailableQuantity());
+        assertThrows(IllegalStateException.class, () -> stockReservationService.confirm(reservationId));
+    }
+
+    @Test
+    public void 가용_재고보다_많이_예약할_수_없다() {
+        stockReservationService.reserve(stockId, 100L, Duration.ofMinutes(10));
+
+        assertThrows(SoldOutException.class, () -> stockReservationService.reserve(stockId, 1L, Duration.ofMinutes(10)));
+    }
+
+    /**
+     * 만료 시간이 지난 예약은 sweeper 가 일괄 만료 처리하고 재고를 반환한다.
+     */
+    @Test
+    public void 만료된_예약은_sweeper_가_반환() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            stockReservationService.reserve(stockId, 1L, Duration.ofMillis(100));
+        }
+        Long remaining = stockReservationService.reserve(stockId, 1L, Duration.ofMinutes(10));
+        Thread.sleep(200);
+
+        reservationSweeper.sweepExpired();
+
+        Stock stock = stockRepository.findById(stockId).orElseThrow();
+        assertEquals(99, stock.getAvailableQuantity());
+        stockReservationService.confirm(remaining);
+    }
+}